@@ -6,8 +6,12 @@ import java.awt.GridBagLayout;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Random;
-import java.util.Vector;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -15,8 +19,12 @@ import javax.swing.JLabel;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
 
 /**
  * GUI-game Battleships lets the user generate a battlefield, place ships randomly, and then try to sink them all
@@ -24,22 +32,52 @@ import javax.swing.event.DocumentListener;
  * The user can, via text fields, choose how large the battle grid should be, and how many of ships of 
  * specific lengths there should be. The text fields already have default values, but are editable. Once grid size 
  * and number of ships are chosen and the player presses a "RESET"-button, the program first creates a battle grid, then
- * starts to iterate through possible ship-placements by placing them one by one, then go back and re-do if a specific 
- * number of failed placements per ship are reached. 
+ * searches through possible ship-placements by placing them one by one, largest first, and going back to move an earlier
+ * ship whenever the next one can not be placed. 
  * 
- * Once the grid (made of vector of vectors of the object class GridButton, which inherits JButton) is made and ships 
- * are placed, the user can then click on each GridButton to find out if it's a hit or miss, and if a ship is fully destroyed, 
- * via a hit-, a miss-, and a destroyed-label which tracks the scores. The GUI also includes a small message field that tells
- * the user if ship-placement was successful, if the number of ships need to be reduced before placement, and if all ships 
- * have been destroyed. 
+ * The game state (which ship owns which square, and which squares are shot at) is kept in a headless Board. 
+ * Once the grid (a GridView showing the Board: by default an array of the object class GridButton, which inherits 
+ * JButton, or, when started with the argument "canvas", a CanvasGridView that paints all squares itself and allows 
+ * much larger grids) is made and ships are placed, the user can then click on each square to find out if it's a hit 
+ * or miss, and if a ship is fully destroyed, via a hit-, a miss-, and a destroyed-label which tracks the scores. The 
+ * GUI also includes a small message field that tells the user if ship-placement was successful, if the number of 
+ * ships need to be reduced before placement, and if all ships have been destroyed. 
  * 
- * The ship placement is done through recursion, which can be tricky to fully understand and unfortunately brings 
- * with it a number of possible errors that can be hard to figure out.
+ * The ship placement is done by a PlacementSolver, an iterative backtracking search that always finds a placement if 
+ * there is one, and otherwise tells the user to reduce the ships (a fleet of many ships is first placed by repairing 
+ * a random placement, which is much faster); on multi-core machines, a PortfolioPlacer races several differently 
+ * seeded solvers and takes the first to finish. The search runs on a worker thread, so the window stays responsive; 
+ * it shows its progress in the message field, has a time budget, and is cancelled if the user presses RESET GRID or 
+ * SHOW TITLE again before it is done. Since players tend to reset with the same settings over and over, a BoardPool 
+ * keeps a few ready Boards for recently used settings, placed in the background, and a reset takes one of those 
+ * whenever it can. A FeasibilityOracle tells, while the user types, if the chosen ships can not possibly fit; if so, 
+ * the RESET GRID button is disabled at once instead of letting a search find out. 
+ * 
+ * The game itself is played by a Game, which knows nothing of the window: a grid click shoots at the Game, and the 
+ * result is shown. COMPUTER SHOT lets a ComputerShooter, which is told of every shot, choose a square instead. Shots 
+ * are not shown on the score fields right away: each shot publishes events (missed, hit, sunk, won) to a 
+ * GameEventQueue, which is flushed at most once per frame by a timer, so the score fields and the message field are 
+ * updated once per batch of shots, however fast the shots come. 
+ * 
+ * The text fields are validated one by one: a change only marks its own field, and a short while after the last 
+ * change (so a paste or a burst of typing is checked once), only the marked fields are parsed again. The last 
+ * valid grid size and fleet are kept, and used by RESET GRID without parsing the fields again.
+ * 
+ * Every board has a seed, shown beside the score, which with the grid size and fleet decides where the ships are, 
+ * how the grid is shaded and how the computer shoots (see Game). A seed typed in the seed field is used for the next 
+ * board; with the field left blank, a ready board from the BoardPool or a new seed is used.
+ * 
+ * What placing and shooting costs is counted by GameMetrics, which the game registers at start, so it can be watched
+ * over JMX or recorded with JFR; a reset is timed from RESET GRID until the ships are placed. Every game, and every 
+ * shot in it, is written to a ShotJournal (ShotJournal.JOURNAL_FILE), so that any game can be replayed with ShotReplay.
+ * 
+ * By default there is a field for each ship length from 2 to 6, filled in with the default fleet. Started with the 
+ * name of a fleet file (see Fleet), there is a field for each length in the file instead, filled in with its counts.
  * 
  * @author Hannes Nyberg
  * @version 15.10.26
  */
-public class Battleships extends JFrame implements ActionListener, DocumentListener{
+public class Battleships extends JFrame implements ActionListener, DocumentListener, GameEventListener{
 	
 	//	Color constants
 	private final Color BUTTON_UNPRESSED_COLOR = new Color(0.6f,0.2f,0.2f);
@@ -49,21 +87,23 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 	private final Color TEXT_COLOR = Color.WHITE;
 	
 	//	Number constants
-	private final int BORDER_SHIP_RATIO = 5;
+	private final int BOARD_POOL_KEYS = 8;
+	private final int BOARDS_PER_KEY = 3;
+	private final int EVENT_QUEUE_CAPACITY = 1024;
+	private final int FEASIBILITY_RESULTS = 10000;
 	private final int FONT_SIZE = 15;
+	private final int FRAME_INTERVAL = 16;	//	milliseconds
+	private final int INVALID = -1;
+	private final int MAX_DIGITS = 6;
+	private final int MAX_SEED_DIGITS = 18;
 	private final int NUMBER_OF_SQUARES = 10;
-	private final int MAX_SHIP_SIZE = 6;
-	private final int MIN_SHIP_SIZE = 2;
 	private final int MIN_NUMBER_OF_SQUARES = 10;
 	private final int MAX_NUMBER_OF_SQUARES = 30;
-	private final int MAX_NUMBER_OF_TRIES_PER_RECURSION = 10;
-	private final int MAX_NUMBER_OF_TOTAL_TRIES = 50000;
-	private final int NUMBER_OF_2 = 4;
-	private final int NUMBER_OF_3 = 3;
-	private final int NUMBER_OF_4 = 2;
-	private final int NUMBER_OF_5 = 0;
-	private final int NUMBER_OF_6 = 1;
-	private final int NUMBER_OF_SHIP_TYPES = 5;
+	private final int MAX_NUMBER_OF_SQUARES_CANVAS = 100;
+	private final int PLACEMENT_TIME_BUDGET = 5000;	//	milliseconds
+	private final int PROGRESS_INTERVAL = 100;	//	milliseconds
+	private final int VALIDATION_DELAY = 150;	//	milliseconds
+	private final int[] DEFAULT_SHIP_LENGTHS = {2, 3, 4, 5, 6};	//	lengths with a field, without a fleet file
 	
 	//	Dimension constants (pixels)
 	private final int GRID_DIMENSION = 400;
@@ -73,78 +113,115 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 	
 	//	String constants
 	private final String STRING_ALL_PLACED = "Ships placed; enjoy!";
+	private final String STRING_BUTTON_COMPUTER_SHOT = "COMPUTER SHOT";
 	private final String STRING_BUTTON_RESET_GRID = "RESET GRID";
 	private final String STRING_BUTTON_SHOW_SHIPS = "SHOW SHIPS";
 	private final String STRING_BUTTON_SHOW_TITLE = "SHOW TITLE";
-	private final String STRING_HIDING_SHIPS = "HISING SHIPS";
 	private final String STRING_NOT_PLACED = "Too much ship; please reduce!";
-	private final String STRING_SHOWING_SHIPS = "SHOWING SHIPS";
+	private final String STRING_PLACEMENT_FAILED = "Placing failed; please try again!";
+	private final String STRING_PLACING = "Placing ships... ";
+	private final String STRING_TIMED_OUT = "Took too long; please reduce!";
 	private final String STRING_WELCOME = "Choose ships; press RESET GRID";
 	private final String STRING_WIN = "All dead; happy now?";
 	
 	//	Fields
 	private boolean allInputsValid;
-	private boolean allShipsPlaced;
-	private boolean allZeroes;
-	private boolean canPlaceShipMethodBoolean;
+	private boolean[] fieldChanged;
+	private boolean seedChosen;
+	private boolean seedFieldChanged;
+	private boolean seedValid;
 	private boolean showShipsButtonClicked;
-	private boolean lastShipPlacementOK;
+	private boolean squareFieldChanged;
+	private BoardPool boardPool;
+	private ComputerShooter computerShooter;
+	private FeasibilityOracle feasibilityOracle;
+	private Game game;
+	private GameMetrics.ResetEvent resetEvent;
+	private GameEventQueue eventQueue;
 	private Font font;
-	private int borderShipsLimit;
-	private int checkValue;
-	private int currentShipLength;
-	private int destroyed; 
-	private int hits;
-	private int missed;
+	private int maxNumberOfSquares;
 	private int numberOfSquares;
-	private int shipCounter; 
-	private int totalNumberOfShips; 
-	private int totalNumberOfTries;
+	private int squareFieldValue;
+	private int validNumberOfSquares;
+	private int[] fieldValues;
+	private int[] shipLengths;
+	private int[] validShipNumbers;
 	private int[] defaultShipNumbers;
 	private int[] shipNumbers;
+	private long chosenSeed;
 	private GridBagConstraints constraints;
+	private JButton computerShotButton;
 	private JButton resetGridButton;
 	private JButton showShipsButton;
 	private JButton showTitleButton;
 	private JLabel[] shipChoiceLabels;
 	private JLabel destroyedLabel;
+	private JLabel gameSeedLabel;
 	private JLabel hitLabel;
 	private JLabel missLabel;
+	private JLabel seedLabel;
 	private JLabel squareLabel;
 	private JTextField[] shipChoiceFields;
 	private JTextField destroyedField;
+	private JTextField gameSeedField;
 	private JTextField hitField;
 	private JTextField messageField; 
 	private JTextField missField;
+	private JTextField seedField;
 	private JTextField squareField;
-	private JPanel gridPanel;
 	private JPanel leftPanel;
 	private JPanel mainPanel;
 	private JPanel messagePanel;
 	private JPanel midPanel;
 	private JPanel rightPanel;
-	private Random random;
-	private Ship[] ships;
-	private Ship currentShip;
-	private Vector<Vector<GridButton>> grid;
+	private PlacementWorker placementWorker;
+	private ShotJournal shotJournal;
+	private SplittableRandom seedRandom;
+	private GridView gridView;
+	private Timer progressTimer;
+	private Timer scoreTimer;
+	private Timer validationTimer;
 	
 	//	Main
 	/**
-	 * Runs main program. Calls a constructor, which calls an initializer, which then creates the GUI.
+	 * Runs main program. Calls a constructor on the Event Dispatch Thread, which calls an initializer, which then 
+	 * creates the GUI.
 	 * 
-	 * @param args String arguments
+	 * @param args String arguments; "canvas" shows the grid with a CanvasGridView instead of GridButtons, and any 
+	 * other argument is the name of a fleet file to fill in the ship fields with
 	 */
 	public static void main(String[] args) {
-		new Battleships();
+		boolean canvas = false;
+		int[] fleet = null;
+		for (int i = 0; i < args.length; i++){
+			if (args[i].equals("canvas")){
+				canvas = true;
+				continue;
+			}
+			try {
+				fleet = Fleet.load(Paths.get(args[i]));
+			}
+			catch (IOException e){
+				System.out.println("Could not read fleet, using the default: " + e.getMessage());
+			}
+		}
+		final boolean useCanvas = canvas;
+		final int[] fleetShipNumbers = fleet;
+		GameMetrics.register();
+		SwingUtilities.invokeLater(new Runnable(){
+			public void run(){
+				new Battleships(useCanvas, fleetShipNumbers);
+			}
+		});
 	}
 	
 	//	Constructor
-	private Battleships(){
-		initBattleships();
+	private Battleships(boolean paramUseCanvas, int[] paramShipNumbers){
+		initBattleships(paramUseCanvas, paramShipNumbers);
 	}
 	
 	//	Initializer
-	private void initBattleships(){
+	private void initBattleships(boolean paramUseCanvas, int[] paramShipNumbers){
 		
 		//	Set window
 		setTitle("Battleships");
@@ -157,15 +234,43 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		//	Create font
 		font = new Font(Font.MONOSPACED, Font.BOLD, FONT_SIZE);
 		
-		//	Set randomizer
-		random = new Random();
+		//	Set randomizer for seeds not chosen by the user
+		seedRandom = new SplittableRandom();
+		seedChosen = false;
+		seedValid = true;
+		
+		//	Set pool of ready boards
+		boardPool = new BoardPool(BOARD_POOL_KEYS, BOARDS_PER_KEY, PLACEMENT_TIME_BUDGET);
+		
+		//	Set feasibility oracle
+		feasibilityOracle = new FeasibilityOracle(FEASIBILITY_RESULTS);
+		
+		//	Set shot journal; without one, games are just not recorded
+		try {
+			shotJournal = ShotJournal.open(Paths.get(ShotJournal.JOURNAL_FILE));
+		}
+		catch (IOException e){
+			System.out.println("Games are not recorded: " + e.getMessage());
+		}
+		
+		//	Set timer for showing placement progress
+		progressTimer = new Timer(PROGRESS_INTERVAL, this);
+		
+		//	Set game event queue, and timer for flushing it once per frame
+		eventQueue = new GameEventQueue(EVENT_QUEUE_CAPACITY);
+		eventQueue.addListener(this);
+		scoreTimer = new Timer(FRAME_INTERVAL, this);
+		scoreTimer.setRepeats(false);
+		
+		//	Set timer for validating text fields after a burst of changes
+		validationTimer = new Timer(VALIDATION_DELAY, this);
+		validationTimer.setRepeats(false);
 		
 		//	Create panels
 		mainPanel = new JPanel();
 		leftPanel = new JPanel();
 		midPanel = new JPanel();
 		rightPanel = new JPanel();
-		gridPanel = new JPanel();
 		messagePanel = new JPanel();
 		
 		//	Set main panel
@@ -192,16 +297,20 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		rightPanel.setLayout(new BoxLayout(rightPanel, BoxLayout.Y_AXIS));
 		rightPanel.setBackground(MAIN_BACKGROUND_COLOR);
 		
-		//	Set grid panel
+		//	Set grid view
 		numberOfSquares = NUMBER_OF_SQUARES;
-		gridPanel.setLayout(new GridLayout(
-				numberOfSquares, 
-				numberOfSquares, 
-				GRID_SPACE, 
-				GRID_SPACE));
-		gridPanel.setPreferredSize(new Dimension(GRID_DIMENSION, GRID_DIMENSION));
-		gridPanel.setBackground(GRID_BACKGROUND_COLOR);
-		midPanel.add(gridPanel);
+		if (paramUseCanvas){
+			gridView = new CanvasGridView(this);
+			maxNumberOfSquares = MAX_NUMBER_OF_SQUARES_CANVAS;
+		}
+		else {
+			gridView = new ButtonGridView(this);
+			maxNumberOfSquares = MAX_NUMBER_OF_SQUARES;
+		}
+		gridView.layOutGrid(numberOfSquares, GRID_SPACE);
+		gridView.getComponent().setPreferredSize(new Dimension(GRID_DIMENSION, GRID_DIMENSION));
+		gridView.getComponent().setBackground(GRID_BACKGROUND_COLOR);
+		midPanel.add(gridView.getComponent());
 		
 		//	Set message panel
 		messagePanel.setLayout(new GridLayout(1, 1));
@@ -209,18 +318,39 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		
 		//	SET LEFT PANEL COMPONENTS
 		
-		//	Set ship numbers
-		defaultShipNumbers = new int[NUMBER_OF_SHIP_TYPES];
-		defaultShipNumbers[0] = NUMBER_OF_2;
-		defaultShipNumbers[1] = NUMBER_OF_3;
-		defaultShipNumbers[2] = NUMBER_OF_4;
-		defaultShipNumbers[3] = NUMBER_OF_5;
-		defaultShipNumbers[4] = NUMBER_OF_6;
+		//	Set ship numbers, and the lengths to have a field for: the fleet file's, if there is one with ships
+		if (paramShipNumbers != null && Fleet.getNumberOfShips(paramShipNumbers) > 0){
+			defaultShipNumbers = paramShipNumbers.clone();
+			int numberOfLengths = 0;
+			shipLengths = new int[defaultShipNumbers.length];
+			for (int i = 0; i < defaultShipNumbers.length; i++){
+				if (defaultShipNumbers[i] > 0){
+					shipLengths[numberOfLengths] = Game.MIN_SHIP_SIZE + i;
+					numberOfLengths++;
+				}
+			}
+			shipLengths = Arrays.copyOf(shipLengths, numberOfLengths);
+		}
+		else {
+			defaultShipNumbers = Fleet.getDefaultShipNumbers();
+			shipLengths = DEFAULT_SHIP_LENGTHS.clone();
+		}
+		
+		//	Set validated values: the defaults are valid
+		fieldValues = new int[shipLengths.length];
+		fieldChanged = new boolean[shipLengths.length];
+		for (int i = 0; i < shipLengths.length; i++){
+			fieldValues[i] = defaultShipNumbers[shipLengths[i] - Game.MIN_SHIP_SIZE];
+		}
+		squareFieldValue = NUMBER_OF_SQUARES;
+		validShipNumbers = defaultShipNumbers.clone();
+		validNumberOfSquares = NUMBER_OF_SQUARES;
+		allInputsValid = true;
 		
 		//	Set label and field for grid-configuration
 		//	and add listener
 		squareLabel = new JLabel(
-				"Grid("+MIN_NUMBER_OF_SQUARES+"-"+MAX_NUMBER_OF_SQUARES+")");
+				"Grid("+MIN_NUMBER_OF_SQUARES+"-"+maxNumberOfSquares+")");
 		squareLabel.setFont(font);
 		squareLabel.setForeground(TEXT_COLOR);
 		leftPanel.add(squareLabel);
@@ -233,18 +363,18 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		
 		//	Set label and field for ship-configuration
 		//	and add listener
-		shipChoiceLabels = new JLabel[NUMBER_OF_SHIP_TYPES];
-		shipChoiceFields = new JTextField[NUMBER_OF_SHIP_TYPES];
-		for (int i = 0; i < NUMBER_OF_SHIP_TYPES; i++){
+		shipChoiceLabels = new JLabel[shipLengths.length];
+		shipChoiceFields = new JTextField[shipLengths.length];
+		for (int i = 0; i < shipLengths.length; i++){
 			
 			//	Text labels
 			shipChoiceLabels[i] = new JLabel(
-					"  "+(MIN_SHIP_SIZE+i)+"-ships");
+					"  "+shipLengths[i]+"-ships");
 			shipChoiceLabels[i].setFont(font);
 			shipChoiceLabels[i].setForeground(TEXT_COLOR);
 			
 			//	Text fields
-			shipChoiceFields[i] = new JTextField(Integer.toString(defaultShipNumbers[i]));
+			shipChoiceFields[i] = new JTextField(Integer.toString(fieldValues[i]));
 			shipChoiceFields[i].setHorizontalAlignment(JTextField.CENTER);
 			shipChoiceFields[i].setFont(font);
 			shipChoiceFields[i].getDocument().addDocumentListener(this);
@@ -254,6 +384,18 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 			leftPanel.add(shipChoiceFields[i]);
 		}
 		
+		//	Set label and field for seed (blank for a random seed)
+		//	and add listener
+		seedLabel = new JLabel("   Seed");
+		seedLabel.setFont(font);
+		seedLabel.setForeground(TEXT_COLOR);
+		leftPanel.add(seedLabel);
+		seedField = new JTextField("");
+		seedField.setHorizontalAlignment(JTextField.CENTER);
+		seedField.setFont(font);
+		seedField.getDocument().addDocumentListener(this);
+		leftPanel.add(seedField);
+		
 		//	Set and add RESET GRID button
 		resetGridButton = new JButton(STRING_BUTTON_RESET_GRID);
 		resetGridButton.setBackground(BUTTON_UNPRESSED_COLOR);
@@ -271,6 +413,14 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		showShipsButton.addActionListener(this);
 		leftPanel.add(showShipsButton);
 		
+		//	Set and add COMPUTER SHOT button
+		computerShotButton = new JButton(STRING_BUTTON_COMPUTER_SHOT);
+		computerShotButton.setBackground(BUTTON_UNPRESSED_COLOR);
+		computerShotButton.setForeground(TEXT_COLOR);
+		computerShotButton.setFont(font);
+		computerShotButton.addActionListener(this);
+		leftPanel.add(computerShotButton);
+		
 		//	Set and add SHOW TITLE button
 		showTitleButton = new JButton(STRING_BUTTON_SHOW_TITLE);
 		showTitleButton.setBackground(BUTTON_UNPRESSED_COLOR);
@@ -282,8 +432,7 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		//	SET GRID PANEL COMPONENTS
 		
 		//	Set grid buttons
-		grid = new Vector<Vector<GridButton>>();
-		resetGrid(grid, gridPanel);
+		resetGrid(gridView);
 		
 		//	Set message field
 		messageField = new JTextField(STRING_WELCOME);
@@ -299,8 +448,7 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		hitLabel.setFont(font);
 		hitLabel.setForeground(TEXT_COLOR);
 		rightPanel.add(hitLabel);
-		hits = 0;
-		hitField = new JTextField("" + hits);
+		hitField = new JTextField("0");
 		hitField.setEditable(false);
 		hitField.setHorizontalAlignment(JTextField.CENTER);
 		hitField.setFont(font);
@@ -311,8 +459,7 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		missLabel.setFont(font);
 		missLabel.setForeground(TEXT_COLOR);
 		rightPanel.add(missLabel);
-		missed = 0;
-		missField = new JTextField("" + missed);
+		missField = new JTextField("0");
 		missField.setEditable(false);
 		missField.setHorizontalAlignment(JTextField.CENTER);
 		missField.setFont(font);
@@ -323,14 +470,24 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 		destroyedLabel.setFont(font);
 		destroyedLabel.setForeground(TEXT_COLOR);
 		rightPanel.add(destroyedLabel);
-		destroyed = 0;
-		destroyedField = new JTextField("" + destroyed);
+		destroyedField = new JTextField("0");
 		destroyedField.setEditable(false);
 		destroyedField.setHorizontalAlignment(JTextField.CENTER);
 		destroyedField.setFont(font);
 		rightPanel.add(destroyedField);
 		
-		setWelcomeGrid(grid, gridPanel);
+		//	Game seed label and field
+		gameSeedLabel = new JLabel("   Seed");
+		gameSeedLabel.setFont(font);
+		gameSeedLabel.setForeground(TEXT_COLOR);
+		rightPanel.add(gameSeedLabel);
+		gameSeedField = new JTextField("");
+		gameSeedField.setEditable(false);
+		gameSeedField.setHorizontalAlignment(JTextField.CENTER);
+		gameSeedField.setFont(font);
+		rightPanel.add(gameSeedField);
+		
+		setWelcomeGrid(gridView);
 		
 		setVisible(true);
 	}
@@ -338,681 +495,553 @@ public class Battleships extends JFrame implements ActionListener, DocumentListe
 	//	Setters
 	
 	/**
-	 * Starts the process of creating grid and placing ships. Checks users input in text-fields for size of battle grid 
-	 * and number of ships, creates the grid, then calls a recursion-method to place the ships. After all recursions are 
-	 * done, or cancelled due to reaching maximum allowed number of recursions (to avoid long processing time), the user 
-	 * is told through the message field if ships have been placed or are needed/recommended to be reduced before trying 
-	 * again.
+	 * Starts the process of placing ships, with the last validated grid size and number of ships. Unless the user 
+	 * chose a seed, the BoardPool may have a ready Game for this grid size and fleet, which is used at once. Otherwise 
+	 * a PlacementWorker places the ships on a new Board, off the Event Dispatch Thread, with the chosen seed or a new 
+	 * one. The grid is laid out anew, shaded by the seed; it is disabled until the worker is done, and the message 
+	 * field shows its progress.
 	 */
 	private void placeShips(){
 		//	Before placing, get ships' information.
-		//	How many of each ship? store in array.
-		shipNumbers = new int[NUMBER_OF_SHIP_TYPES];
-		totalNumberOfShips = 0;
-		for (int i = 0; i < NUMBER_OF_SHIP_TYPES; i++){
-			shipNumbers[i] = Integer.parseInt(shipChoiceFields[i].getText());
-			totalNumberOfShips += shipNumbers[i];
-		}
-		//	Create ships and store in array.
-		ships = new Ship[totalNumberOfShips];
-		shipCounter = 0;
-		currentShipLength = MAX_SHIP_SIZE;
-		for (int i = NUMBER_OF_SHIP_TYPES-1; i >= 0; i--){
-			for (int j = 0; j < shipNumbers[i]; j++){
-				ships[shipCounter] = new Ship(shipCounter, currentShipLength, this);
-				shipCounter++;
+		//	How many of each ship? validated already.
+		shipNumbers = validShipNumbers.clone();
+		resetEvent = GameMetrics.beginReset();
+		//	Take a ready game if there is one, unless a seed was chosen.
+		Game pooledGame = null;
+		if (!seedChosen){
+			pooledGame = boardPool.takeGame(validNumberOfSquares, shipNumbers);
+		}
+		long seed;
+		if (pooledGame != null){
+			seed = pooledGame.getSeed();
+		}
+		else {
+			seed = seedChosen ? chosenSeed : seedRandom.nextLong();
+		}
+		Palette.setSeed(Game.getStreamSeed(seed, Game.SHADE_STREAM));
+		resetGrid(gridView);
+		if (pooledGame != null){
+			startGame(pooledGame);
+			return;
+		}
+		//	Place ships on a worker thread; racing searches only if no seed was chosen.
+		setGridEnabled(false);
+		writeMessage(STRING_PLACING);
+		placementWorker = new PlacementWorker(numberOfSquares, Game.createShips(shipNumbers), seed, !seedChosen);
+		placementWorker.execute();
+		progressTimer.start();
+	}
+	/**
+	 * Starts playing a Game with all ships placed: lets a new ComputerShooter follow it, and shows its seed. The game 
+	 * is written to the ShotJournal, and the reset is recorded in GameMetrics.
+	 * 
+	 * @param paramGame The Game to play.
+	 */
+	private void startGame(Game paramGame){
+		game = paramGame;
+		game.setJournal(shotJournal);
+		finishReset(game.getSeed(), true);
+		computerShooter = new ComputerShooter(numberOfSquares, shipNumbers, 
+				new Random(Game.getStreamSeed(game.getSeed(), Game.SHOOTER_STREAM)));
+		gameSeedField.setText(Long.toString(game.getSeed()));
+		writeMessage(STRING_ALL_PLACED);
+	}
+	/**
+	 * Called on the Event Dispatch Thread when a PlacementWorker is done. If the ships were placed, a Game on the 
+	 * worker's Board replaces the (empty) one shown by the grid, all in one go. Either way the grid is enabled again, and the user 
+	 * is told through the message field if ships have been placed or are needed to be reduced before trying again. 
+	 * Only a search that ran to its end proves that the ships can not be placed; if the worker failed, nothing is 
+	 * remembered and RESET GRID stays enabled.
+	 * 
+	 * @param paramWorker The worker that is done.
+	 */
+	private void finishPlacement(PlacementWorker paramWorker){
+		progressTimer.stop();
+		placementWorker = null;
+		boolean placed = false;
+		boolean failed = false;
+		try {
+			placed = paramWorker.get();
+		}
+		catch (InterruptedException e){
+			failed = true;
+		}
+		catch (ExecutionException e){
+			e.printStackTrace();
+			failed = true;
+		}
+		if (failed){
+			finishReset(paramWorker.getSeed(), false);
+			writeMessage(STRING_PLACEMENT_FAILED);
+		}
+		else if (placed){
+			//	Racing searches may have won with another seed; if so, shade the grid by that seed instead.
+			if (paramWorker.getSeed() != paramWorker.getRequestedSeed()){
+				Palette.setSeed(Game.getStreamSeed(paramWorker.getSeed(), Game.SHADE_STREAM));
+				resetGrid(gridView);
 			}
-			currentShipLength--;
-		}
-		//	Also, calculate number of border ships.
-		borderShipsLimit = totalNumberOfShips / BORDER_SHIP_RATIO;
-		allShipsPlaced = false;
-		lastShipPlacementOK = false;
-		shipCounter = 0;
-		totalNumberOfTries = 0;
-		tryPlacingCurrentShip();
-		if (!allShipsPlaced){
-			resetGrid(grid, gridPanel);
+			startGame(new Game(paramWorker.getBoard(), paramWorker.getShips(), paramWorker.getSeed()));
+			feasibilityOracle.recordResult(numberOfSquares, shipNumbers, true);
+		}
+		else if (paramWorker.getPlacer().wasStopped()){
+			finishReset(paramWorker.getSeed(), false);
+			writeMessage(STRING_TIMED_OUT);
+		}
+		else {
+			finishReset(paramWorker.getSeed(), false);
+			//	The search proved that the ships can not be placed; remember, and disable RESET GRID.
+			feasibilityOracle.recordResult(numberOfSquares, shipNumbers, false);
 			writeMessage(STRING_NOT_PLACED);
+			checkText();
 		}
-		System.out.println("Total tries: " + totalNumberOfTries);
+		setGridEnabled(true);
 	}
 	/**
-	 * Recursion method that tries to place each ship a maximum number of tries before giving up.
-	 * The maximum number of allowed tries should in theory be (numberOfTriesPerShip)^(numberOfShips).
-	 * There is possible a coding error in the method which makes it run more times than planned.
-	 * This is a risk with recursion methods that have not been thought through. 
+	 * Records the running reset, if any, in GameMetrics.
+	 * 
+	 * @param paramSeed Seed of the new board.
+	 * @param paramPlaced True if the ships were placed.
 	 */
-	private void tryPlacingCurrentShip(){
-		//	Recursion method
-		//	For each ship, initialize variables.
-		int currentX = 0;
-		int currentY = 0;
-		int shipStartX = 0;
-		int shipStartY = 0;
-		int xFactor = 0;
-		int yFactor = 0;
-		int numberOfTriesPerRecursion = 0;
-		boolean tryingToPlaceCurrentShip = true;
-		boolean okToPlaceShip = true;
-		while (!allShipsPlaced && tryingToPlaceCurrentShip){
-			
-			//	Get current ship info.
-			currentShip = ships[shipCounter];
-			currentShipLength = currentShip.getShipLength();
-			xFactor = currentShip.isShipHorizontal() ? 1 : 0;
-			yFactor = currentShip.isShipHorizontal() ? 0 : 1;
-			
-			//	Place ship (within grid)
-			shipStartX = random.nextInt(numberOfSquares - currentShipLength*xFactor);
-			shipStartY = random.nextInt(numberOfSquares - currentShipLength*yFactor);
-			
-			//	Correct placement if border ship
-			if (shipCounter <= borderShipsLimit){
-				if (currentShip.isShipHorizontal()){
-					shipStartY = random.nextInt(2)*(numberOfSquares - 1);
-				}
-				else {
-					shipStartX = random.nextInt(2)*(numberOfSquares - 1);
-				}
-			}
-			
-			//	If OK to place ship, do so.
-			if (isShipPlacable(shipStartX, shipStartY, currentShipLength, xFactor, yFactor)){
-				
-				//	note that ship placement was OK
-				lastShipPlacementOK = true;
-				
-				//	Save start position
-				ships[shipCounter].setStartPosition(shipStartX, shipStartY);
-				
-				//	Place ship
-				for (int i = 0; i < currentShipLength; i++){
-					currentY = shipStartY + i*yFactor;
-					currentX = shipStartX + i*xFactor;
-					grid.get(currentY).get(currentX).setOwnerShip(currentShip);
-				}
-				
-				//	Go to next ship; repeat till last ship is placed
-				shipCounter++;
-				if (shipCounter != totalNumberOfShips){
-					tryPlacingCurrentShip();
-				}
-				else {
-					allShipsPlaced = true;
-					writeMessage(STRING_ALL_PLACED);
-				}
-				//	this is where we end up after recursion
-			}
-			else {
-				//	note that placement was NOT OK
-				lastShipPlacementOK = false;
-				//	inform that ship placement failed
-			}
-			//	whether last placement worked or not, count it.
-			numberOfTriesPerRecursion++;
-			totalNumberOfTries++;
-			
-			//	If too many total tries, give up placing ships
-			if (totalNumberOfTries >= MAX_NUMBER_OF_TOTAL_TRIES){
-				tryingToPlaceCurrentShip = false;
-			}
-			//	If too many recursions and last placement not OK, stop placing current ship
-			if (!lastShipPlacementOK && numberOfTriesPerRecursion == MAX_NUMBER_OF_TRIES_PER_RECURSION){
-				//	Go back to last ship and start over
-				//	When out of ships (shipCounter == 0), stop going back
-				if (shipCounter > 0){
-					shipCounter--;
-					ships[shipCounter].resetShipTrace(grid);
-					ships[shipCounter].resetShip();
-				}
-				
-				tryingToPlaceCurrentShip = false;
-			}
+	private void finishReset(long paramSeed, boolean paramPlaced){
+		if (resetEvent != null){
+			GameMetrics.endReset(resetEvent, numberOfSquares, paramSeed, paramPlaced);
+			resetEvent = null;
+		}
+	}
+	/**
+	 * Cancels the running PlacementWorker, if any. Its result will never be shown.
+	 */
+	private void cancelPlacement(){
+		if (placementWorker != null){
+			placementWorker.getPlacer().stop();
+			placementWorker.cancel(false);
+			placementWorker = null;
 		}
+		resetEvent = null;
+		progressTimer.stop();
 	}
 	/**
-	 * Removes all current GridButtons from the grid-vector, clears the panel that holds the GridButtons, 
-	 * then creates and places a new grid.
+	 * Enables or disables clicking on the grid.
 	 * 
-	 * @param inputGrid The grid (vector of vectors of GridButton) that is to be cleared.
-	 * @param paramPanel The Panel that shows the GridButtons. Needs a grid layout to show the GridButtons correctly.
+	 * @param paramEnabled True to enable the grid.
 	 */
-	private void resetGrid(Vector<Vector<GridButton>> inputGrid, JPanel paramPanel){
-		//	Clear panel.
-		paramPanel.removeAll();
-		paramPanel.revalidate();
-		//	Get chosen number of squares.
-		numberOfSquares = Integer.parseInt(squareField.getText());
+	private void setGridEnabled(boolean paramEnabled){
+		gridView.setGridEnabled(paramEnabled);
+	}
+	/**
+	 * Creates a new Game on an empty Board, and lays out the grid showing the Board.
+	 * 
+	 * @param paramGridView The view that shows the grid.
+	 */
+	private void resetGrid(GridView paramGridView){
+		//	Get chosen number of squares, validated already.
+		numberOfSquares = validNumberOfSquares;
 		//	Set new panel size.
 		int gridSpace = (GRID_DIMENSION / numberOfSquares) / 10;
 		if (gridSpace < 1){
 			gridSpace = 1;
 		}
-		paramPanel.setLayout(new GridLayout(
-				numberOfSquares, 
-				numberOfSquares, 
-				gridSpace, 
-				gridSpace));
-		inputGrid.clear();
-		for (int y = 0; y < numberOfSquares; y++){
-			//	Create new row
-			inputGrid.add(new Vector<GridButton>());
-			for (int x = 0; x < numberOfSquares; x++){
-				//	Create new grid buttons and add to panel.
-				inputGrid.get(y).add(new GridButton(this));
-				paramPanel.add(inputGrid.get(y).get(x));
-			}
-		}
-		//	After clearing and adding new elements, update panel.
-		paramPanel.repaint();
+		game = new Game(new Board(numberOfSquares), new Ship[0], 0);
+		computerShooter = null;
+		gameSeedField.setText("");
+		paramGridView.layOutGrid(numberOfSquares, gridSpace);
 	}
 	/**
 	 * Resets the text fields to '0'.
 	 */
 	private void resetFields(){
-		hits = 0;
-		hitField.setText("" + hits);
-		missed = 0;
-		missField.setText("" + missed);
-		destroyed = 0;
-		destroyedField.setText("" + destroyed);
+		//	Drop shots not yet shown.
+		eventQueue.clear();
+		scoreTimer.stop();
+		hitField.setText("0");
+		missField.setText("0");
+		destroyedField.setText("0");
 	}
 	/**
-	 * Used by a document listener. Checks each text field that it holds a correct integer value within allowed bounds
+	 * Called by the document listener. Marks the text field that changed, and (re)starts the validation timer, so 
+	 * that checkText() runs once after a burst of changes.
+	 * 
+	 * @param paramDocument The document of the text field that changed.
+	 */
+	private void markFieldChanged(Document paramDocument){
+		for (int i = 0; i < shipLengths.length; i++){
+			if (shipChoiceFields[i].getDocument() == paramDocument){
+				fieldChanged[i] = true;
+			}
+		}
+		if (squareField.getDocument() == paramDocument){
+			squareFieldChanged = true;
+		}
+		if (seedField.getDocument() == paramDocument){
+			seedFieldChanged = true;
+		}
+		validationTimer.restart();
+	}
+	/**
+	 * Parses the text fields that changed since last time, then checks that each field holds a correct integer value 
+	 * within allowed bounds, and asks the FeasibilityOracle if the ships can fit on the grid at all. If so, the values 
+	 * are kept for the next RESET GRID; if not, the RESET GRID button is disabled.
 	 */
 	private void checkText(){
-		allInputsValid = true;
-		checkValue = 0;
-		allZeroes = true;
-		//	Check ship fields if at least 1 ship and values are integers over 0.
-		for (int i = 0;  i < NUMBER_OF_SHIP_TYPES; i++){
-			try{
-				checkValue = Integer.parseInt(shipChoiceFields[i].getText());
-				if (checkValue < 0){
-					allInputsValid = false;
-				}
-				if (checkValue != 0){
-					allZeroes = false;
-				}
+		for (int i = 0; i < shipLengths.length; i++){
+			if (fieldChanged[i]){
+				fieldValues[i] = parseCount(shipChoiceFields[i].getText());
+				fieldChanged[i] = false;
 			}
-			catch(NumberFormatException e){
-				allInputsValid = false;
+		}
+		if (squareFieldChanged){
+			squareFieldValue = parseCount(squareField.getText());
+			squareFieldChanged = false;
+		}
+		if (seedFieldChanged){
+			String seedText = seedField.getText().trim();
+			seedChosen = !seedText.isEmpty();
+			seedValid = !seedChosen || isSeed(seedText);
+			if (seedChosen && seedValid){
+				chosenSeed = parseSeed(seedText);
 			}
+			seedFieldChanged = false;
 		}
-			
-		//	Check grid configuration field if value is integer and over 0.
-		try{
-			checkValue = Integer.parseInt(squareField.getText());
-			if (checkValue < MIN_NUMBER_OF_SQUARES || checkValue > MAX_NUMBER_OF_SQUARES){
+		allInputsValid = seedValid;
+		boolean allZeroes = true;
+		//	Check ship fields if at least 1 ship and values are integers of 0 or over.
+		for (int i = 0; i < shipLengths.length; i++){
+			if (fieldValues[i] == INVALID){
 				allInputsValid = false;
-				}
 			}
-		catch(NumberFormatException e){
-			allInputsValid = false;
+			if (fieldValues[i] > 0){
+				allZeroes = false;
 			}
+		}
+		//	Check grid configuration field if value is within bounds.
+		int checkedNumberOfSquares = squareFieldValue;
+		if (checkedNumberOfSquares < MIN_NUMBER_OF_SQUARES || checkedNumberOfSquares > maxNumberOfSquares){
+			allInputsValid = false;
+		}
 		//	Were all fields zeroes? If so, no go.
 		if (allZeroes) {
 			allInputsValid = false;
 		}
-		//	If any field has invalid value, disable RESET button.
+		//	Number of ships of each length, from Game.MIN_SHIP_SIZE up to the longest field's length.
+		int[] checkedShipNumbers = new int[shipLengths[shipLengths.length - 1] - Game.MIN_SHIP_SIZE + 1];
+		for (int i = 0; i < shipLengths.length; i++){
+			checkedShipNumbers[shipLengths[i] - Game.MIN_SHIP_SIZE] = Math.max(0, fieldValues[i]);
+		}
+		//	Can the ships fit at all? If not, no go either.
+		if (allInputsValid 
+				&& feasibilityOracle.checkFleet(checkedNumberOfSquares, checkedShipNumbers) == FeasibilityOracle.INFEASIBLE){
+			allInputsValid = false;
+			writeMessage(STRING_NOT_PLACED);
+		}
+		//	Keep valid values; if any field has invalid value, disable RESET button.
 		if (allInputsValid){
-			resetGridButton.setEnabled(true);
+			validShipNumbers = checkedShipNumbers;
+			validNumberOfSquares = checkedNumberOfSquares;
+			//	The ships may fit again; take back the message that they do not.
+			if (messageField.getText().equals(STRING_NOT_PLACED)){
+				writeMessage(STRING_WELCOME);
 			}
-		else resetGridButton.setEnabled(false);
+		}
+		resetGridButton.setEnabled(allInputsValid);
 	}
 	/**
-	 * Adds 1 to the total number of hits, and displays on hit-label
+	 * Parses a text field's text as a number of 0 or more, without exceptions.
+	 * 
+	 * @param paramText Text to parse.
+	 * @return Returns the number, or INVALID if the text is not 1 to MAX_DIGITS digits.
 	 */
-	public void addHits(){
-		hits++;
-		hitField.setText("" + hits);
+	private int parseCount(String paramText){
+		if (paramText.isEmpty() || paramText.length() > MAX_DIGITS){
+			return INVALID;
+		}
+		int value = 0;
+		for (int i = 0; i < paramText.length(); i++){
+			char digit = paramText.charAt(i);
+			if (digit < '0' || digit > '9'){
+				return INVALID;
+			}
+			value = value * 10 + (digit - '0');
+		}
+		return value;
 	}
 	/**
-	 * Adds 1 to the total number of misses, and displays on miss-label
+	 * Checks, without exceptions, if a text is a seed: an optional minus sign and 1 to MAX_SEED_DIGITS digits.
+	 * 
+	 * @param paramText Text to check.
+	 * @return Returns true if the text is a seed.
 	 */
-	public void addMisses(){
-		missed++;
-		missField.setText("" + missed);
+	private boolean isSeed(String paramText){
+		int first = paramText.startsWith("-") ? 1 : 0;
+		if (paramText.length() == first || paramText.length() - first > MAX_SEED_DIGITS){
+			return false;
+		}
+		for (int i = first; i < paramText.length(); i++){
+			if (paramText.charAt(i) < '0' || paramText.charAt(i) > '9'){
+				return false;
+			}
+		}
+		return true;
 	}
 	/**
-	 * Adds 1 to the total number of destroyed ships, and displays on destroyed-label
+	 * Parses a text checked by isSeed() as a seed.
+	 * 
+	 * @param paramText Text to parse.
+	 * @return Returns the seed.
 	 */
-	public void addDestroyed(){
-		destroyed++;
-		destroyedField.setText("" + destroyed);
-		if (destroyed == totalNumberOfShips){
-			writeMessage(STRING_WIN);
+	private long parseSeed(String paramText){
+		boolean negative = paramText.startsWith("-");
+		long value = 0;
+		for (int i = negative ? 1 : 0; i < paramText.length(); i++){
+			value = value * 10 + (paramText.charAt(i) - '0');
 		}
+		return negative ? -value : value;
 	}
 	/**
-	 * Prints out a string on the message field (JTextField) in the GUI
+	 * Shoots at the square (x, y) of the Game. The result is published as events, to be shown on the next frame.
 	 * 
-	 * @param paramString Text string to be displayed in message field
+	 * @param paramX X-position of the square.
+	 * @param paramY Y-position of the square.
+	 * @return Returns true if the shot hit a ship.
 	 */
-	private void writeMessage(String paramString){
-		messageField.setText(paramString);
+	public boolean shootAt(int paramX, int paramY){
+		int result = game.shoot(paramX, paramY);
+		if (result == Game.ALREADY_SHOT){
+			return game.getBoard().hasShip(paramX, paramY);
+		}
+		int shipIndex = game.getBoard().getShipIndex(paramX, paramY);
+		//	Let the computer know too, whoever shot.
+		if (computerShooter != null){
+			int[] sunkShipCells = null;
+			if (result == Game.SUNK || result == Game.WIN){
+				sunkShipCells = game.getShip(shipIndex).getCellIndexes(numberOfSquares);
+			}
+			computerShooter.recordShot(paramX, paramY, result, sunkShipCells);
+		}
+		if (result == Game.MISS){
+			eventQueue.publish(GameEventQueue.SHOT_MISSED, paramX, paramY, shipIndex);
+		}
+		else {
+			eventQueue.publish(GameEventQueue.SHOT_HIT, paramX, paramY, shipIndex);
+			if (result == Game.SUNK || result == Game.WIN){
+				eventQueue.publish(GameEventQueue.SHIP_SUNK, paramX, paramY, shipIndex);
+			}
+			if (result == Game.WIN){
+				eventQueue.publish(GameEventQueue.GAME_WON, paramX, paramY, shipIndex);
+			}
+		}
+		if (!scoreTimer.isRunning()){
+			scoreTimer.start();
+		}
+		return shipIndex >= 0;
 	}
 	/**
-	 * Checks if a certain ship is OK to be placed at its thought location. The check starts at a location (paramX, paramY),
-	 * then iterates through each new GridButton until it has gone through the whole ship length (paramShipLength).
-	 * Depending on if the ship is horizontal or vertical (paramXFactor = 1 or paramYFactor = 1 respectively), only the 
-	 * x- or y-coordinates increase through the iteration.
-	 * 
-	 * @param paramX Start x-coordinate for ship placement
-	 * @param paramY Start y-coordinate for ship placement
-	 * @param paramShipLength Length of ship
-	 * @param paramXFactor Multiplication factor (0 or 1) to be multiplied with x-coordinate increment
-	 * @param paramYFactor Multiplication factor (0 or 1) to be multiplied with y-coordinate increment
-	 * @return Returns a boolean; if current ship is OKToPlace (true or false).
+	 * Lets the ComputerShooter choose a square and shoot at it, pressing its cell as if the user had clicked it, so 
+	 * that it can not be clicked again. Does nothing before ships are placed, or when the game is over.
 	 */
-	private boolean isShipPlacable(int paramX, int paramY, int paramShipLength, int paramXFactor, int paramYFactor){
-		
-		//	Go through ship; check 1 square in each direction
-		//	The method controlledInt() makes sure to never go outside grid
-		canPlaceShipMethodBoolean = true;
-		for (int i = 0; i < paramShipLength; i++){
-			
-			if (grid.get(controlledInt(paramY + i*paramYFactor + 1)).get(controlledInt(paramX + i*paramXFactor)).hasOwnerShip()
-					|| grid.get(controlledInt(paramY + i*paramYFactor - 1)).get(controlledInt(paramX + i*paramXFactor)).hasOwnerShip()
-					|| grid.get(controlledInt(paramY + i*paramYFactor)).get(controlledInt(paramX + i*paramXFactor + 1)).hasOwnerShip()
-					|| grid.get(controlledInt(paramY + i*paramYFactor)).get(controlledInt(paramX + i*paramXFactor - 1)).hasOwnerShip()){
-				canPlaceShipMethodBoolean = false;
-			}
+	private void letComputerShoot(){
+		if (computerShooter == null || game.isOver()){
+			return;
+		}
+		int cell = computerShooter.chooseCell();
+		if (cell == ComputerShooter.NO_CELL){
+			return;
 		}
-		return canPlaceShipMethodBoolean;
+		gridView.pressCell(cell % numberOfSquares, cell / numberOfSquares);
 	}
 	/**
-	 * Checks that the input integer is within the grid boundaries, and corrects it if not.
-	 * 
-	 * @param paramInt Integer value to be checked if within grid boundaries.
-	 * @return Returns the input integer, corrected if needed.
+	 * Darkens the squares of a destroyed ship, and tells the user when all ships are destroyed. The score fields are 
+	 * updated at the end of the batch.
 	 */
-	private int controlledInt(int paramInt){
-		if (paramInt < 0){
-			paramInt = 0;
+	public void handleEvent(int paramType, int paramX, int paramY, int paramShipIndex){
+		if (paramType == GameEventQueue.SHIP_SUNK){
+			int[] shipCells = game.getShip(paramShipIndex).getCellIndexes(numberOfSquares);
+			for (int i = 0; i < shipCells.length; i++){
+				gridView.setCellBackground(shipCells[i] % numberOfSquares, shipCells[i] / numberOfSquares, 
+						Palette.SUNK_COLOR);
+			}
 		}
-		if (paramInt >= numberOfSquares){
-			paramInt = numberOfSquares - 1;
+		else if (paramType == GameEventQueue.GAME_WON){
+			writeMessage(STRING_WIN);
 		}
-		return paramInt;
+	}
+	/**
+	 * Displays the total numbers of hits, misses and destroyed ships.
+	 */
+	public void finishBatch(){
+		hitField.setText(Integer.toString(game.getNumberOfHits()));
+		missField.setText(Integer.toString(game.getNumberOfMisses()));
+		destroyedField.setText(Integer.toString(game.getNumberOfDestroyed()));
+	}
+	/**
+	 * Prints out a string on the message field (JTextField) in the GUI
+	 * 
+	 * @param paramString Text string to be displayed in message field
+	 */
+	private void writeMessage(String paramString){
+		messageField.setText(paramString);
 	}
 	/**
 	 * Action when the reset button is pressed. Resets grid, text fields, and replaces ships
 	 */
 	public void actionPerformed(ActionEvent e){
+		//	Is it time to show the shots of the last frame?
+		if (e.getSource() == scoreTimer){
+			eventQueue.flush();
+		}
+		//	Is it time to validate the text fields?
+		else if (e.getSource() == validationTimer){
+			checkText();
+		}
+		//	Is it time to show placement progress?
+		else if (e.getSource() == progressTimer){
+			if (placementWorker != null){
+				writeMessage(STRING_PLACING + placementWorker.getPlacer().getNumberOfTriesSoFar() + " tries");
+			}
+		}
 		//	Is RESET GRID button clicked?
-		if (e.getSource() == resetGridButton){
-			//	Reset grid.
-			resetGrid(grid, gridPanel);
+		else if (e.getSource() == resetGridButton){
+			//	Validate changes not yet validated first.
+			if (validationTimer.isRunning()){
+				validationTimer.stop();
+				checkText();
+				if (!allInputsValid){
+					return;
+				}
+			}
+			//	Cancel any placement still running.
+			cancelPlacement();
 			//	Reset points.
 			resetFields();
 			//	Reset SHOW SHIPS button
 			showShipsButton.setBackground(BUTTON_UNPRESSED_COLOR);
 			showShipsButtonClicked = false;
-			//	Place new ships.
+			//	Reset grid, and place new ships.
 			placeShips();
 		}
 		//	If not, is SHOW SHIPS button clicked?
 		else if (e.getSource() == showShipsButton){
 			if(!showShipsButtonClicked){
-				System.out.println(STRING_SHOWING_SHIPS);
 				showShipsButton.setBackground(BUTTON_PRESSED_COLOR);
 				showShipsButtonClicked = true;
-				for (int y = 0; y < numberOfSquares; y++){
-					for (int x = 0; x < numberOfSquares; x++){
-						if (grid.get(y).get(x).hasOwnerShip() && grid.get(y).get(x).isEnabled()){
-							grid.get(y).get(x).setCheatBackground();
-						}
-					}
+				Board board = game.getBoard();
+				for (int i = 0; i < board.getNumberOfUnshotShipCells(); i++){
+					int cell = board.getUnshotShipCell(i);
+					gridView.setCheatBackground(cell % numberOfSquares, cell / numberOfSquares);
 				}
 			}
 			else {
-				System.out.println(STRING_HIDING_SHIPS);
 				showShipsButton.setBackground(BUTTON_UNPRESSED_COLOR);
 				showShipsButtonClicked = false;
-				for (int y = 0; y < numberOfSquares; y++){
-					for (int x = 0; x < numberOfSquares; x++){
-						if (grid.get(y).get(x).hasOwnerShip() && grid.get(y).get(x).isEnabled()){
-							grid.get(y).get(x).setDefaultBackground();
-						}
-					}
+				Board board = game.getBoard();
+				for (int i = 0; i < board.getNumberOfUnshotShipCells(); i++){
+					int cell = board.getUnshotShipCell(i);
+					gridView.setDefaultBackground(cell % numberOfSquares, cell / numberOfSquares);
 				}
 			}
 		}
+		//	If not, is COMPUTER SHOT button clicked?
+		else if (e.getSource() == computerShotButton){
+			letComputerShoot();
+		}
 		//	If not, SHOW TITLE buttons is clicked
 		else {
-			setWelcomeGrid(grid, gridPanel);
+			cancelPlacement();
+			//	Drop shots not yet shown, before their game is replaced.
+			resetFields();
+			setWelcomeGrid(gridView);
 			//	Reset SHOW SHIPS button
-				showShipsButton.setBackground(BUTTON_UNPRESSED_COLOR);
-				showShipsButtonClicked = false;
+			showShipsButton.setBackground(BUTTON_UNPRESSED_COLOR);
+			showShipsButtonClicked = false;
 		}
 	}
 	//	Document listener events
 	public void changedUpdate(DocumentEvent event){
-		checkText();
+		markFieldChanged(event.getDocument());
 	}
 	public void insertUpdate(DocumentEvent event){
-		checkText();
+		markFieldChanged(event.getDocument());
 	}
 	public void removeUpdate(DocumentEvent event){
-		checkText();
+		markFieldChanged(event.getDocument());
 	}
 	/**
 	 * changes the grid to a welcome grid temporarily
 	 * 
-	 * @param inputGrid Grid to be changed
-	 * @param paramPanel Panel that holds grid
+	 * @param paramGridView View that shows the grid
 	 */
-	private void setWelcomeGrid(Vector<Vector<GridButton>> paramGrid, JPanel paramPanel){
-		//	Clear panel.
-		paramPanel.removeAll();
-		paramPanel.revalidate();
+	private void setWelcomeGrid(GridView paramGridView){
 		//	Set chosen number of squares.
-		numberOfSquares = 29;
+		numberOfSquares = TitleScreen.SIZE;
 		//	Set new panel size.
 		int gridSpace = 1;
-		paramPanel.setLayout(new GridLayout(
-				numberOfSquares, 
-				numberOfSquares, 
-				gridSpace, 
-				gridSpace));
-		paramGrid.clear();
-		for (int y = 0; y < numberOfSquares; y++){
-			//	Create new row
-			paramGrid.add(new Vector<GridButton>());
-			for (int x = 0; x < numberOfSquares; x++){
-				//	Create new grid buttons and add to panel.
-				paramGrid.get(y).add(new GridButton(this));
-				paramPanel.add(paramGrid.get(y).get(x));
-			}
-		}
-		//	Set individual squares to text color
-		int textX = 3;
-		int textY = 5;
-		int textXStep = 4;
-		writeB(grid, textY, textX);
-		textY -= 3;
-		textX += textXStep;
-		writeA(grid, textY, textX);
-		textY -= 1;
-		textX += textXStep;
-		writeT(grid, textY, textX);
-		textX += textXStep;
-		writeT(grid, textY, textX);
-		textY += 1;
-		textX += textXStep;
-		writeL(grid, textY, textX);
-		textY += 3;
-		textX += textXStep;
-		writeE(grid, textY, textX);
-		//	New row
-		textY = 23;
-		textX = 5;
-		writeS(grid, textY, textX);
-		textY += 1;
-		textX += textXStep;
-		writeH(grid, textY, textX);
-		textX += textXStep;
-		writeI(grid, textY, textX);
-		textX += textXStep;
-		writeP(grid, textY, textX);
-		textY -= 1;
-		textX += textXStep;
-		writeS(grid, textY, textX);
-		//	Add skull
-		writeSkull(grid, 7, 8);
-		
-		//	After clearing and adding new elements, update panel.
-		paramPanel.repaint();
-	}
-	/**
-	 * Writes the letter A on a 5*3 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeA(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+1).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY+1).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX+2).setBackgroundToTextColor();
-	}
-	/**
-	 * Writes the letter B on a 5*3 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeB(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX+1).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY+1).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX+2).setBackgroundToTextColor();
-	}
-	/**
-	 * Writes the letter E on a 5*3 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeE(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX+1).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX+2).setBackgroundToTextColor();
+		game = new Game(new Board(numberOfSquares), new Ship[0], 0);
+		computerShooter = null;
+		gameSeedField.setText("");
+		paramGridView.layOutGrid(numberOfSquares, gridSpace);
+		//	Paint title
+		TitleScreen.paint(paramGridView);
 	}
 	/**
-	 * Writes the letter H on a 5*3 GridButton area.
+	 * SwingWorker that places ships on a new Board, on a worker thread. On a machine with more than one processor 
+	 * core, a PortfolioPlacer races one PlacementSolver per core; otherwise a single PlacementSolver is used. The 
+	 * Board and ships are only used by the worker until it is done, then handed over to the Event Dispatch Thread by 
+	 * finishPlacement().
 	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
+	 * @author Hannes Nyberg
+	 *
 	 */
-	private void writeH(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY+2).get(paramX+1).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+1).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX+2).setBackgroundToTextColor();
-	}
-	/**
-	 * Writes the letter I on a 5*3 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeI(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+1).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX+1).setBackgroundToTextColor();
-	}
-	/**
-	 * Writes the letter L on a 5*3 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeL(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY+4).get(paramX+1).setBackgroundToTextColor();
+	private class PlacementWorker extends SwingWorker<Boolean, Void>{
 		
-		paramGrid.get(paramY+4).get(paramX+2).setBackgroundToTextColor();
-	}
-	/**
-	 * Writes the letter P on a 5*3 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeP(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
+		//	Fields
+		private long requestedSeed;
+		private Board workerBoard;
+		private PortfolioPlacer portfolioPlacer;
+		private ShipPlacer placer;
+		private Ship[] workerShips;
 		
-		paramGrid.get(paramY).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+1).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY+1).get(paramX+2).setBackgroundToTextColor();
-	}
-	/**
-	 * Writes the letter S on a 5*3 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeS(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
-		
-		paramGrid.get(paramY).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX+1).setBackgroundToTextColor();
+		//	Constructor
+		private PlacementWorker(int paramNumberOfSquares, Ship[] paramShips, long paramSeed, boolean paramRaceSearches){
+			workerBoard = new Board(paramNumberOfSquares);
+			workerShips = paramShips;
+			requestedSeed = paramSeed;
+			if (paramRaceSearches && Runtime.getRuntime().availableProcessors() > 1){
+				portfolioPlacer = new PortfolioPlacer(paramNumberOfSquares, new Random(paramSeed));
+				placer = portfolioPlacer;
+			}
+			else {
+				placer = new PlacementSolver(paramNumberOfSquares, 
+						new Random(Game.getStreamSeed(paramSeed, Game.PLACEMENT_STREAM)));
+			}
+			placer.setTimeBudget(PLACEMENT_TIME_BUDGET);
+		}
 		
-		paramGrid.get(paramY).get(paramX+2).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX+2).setBackgroundToTextColor();
-	}
-	/**
-	 * Writes the letter T on a 5*3 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeT(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY).get(paramX).setBackgroundToTextColor();
+		//	Getters
+		private Board getBoard(){
+			return workerBoard;
+		}
+		private Ship[] getShips(){
+			return workerShips;
+		}
+		private long getRequestedSeed(){
+			return requestedSeed;
+		}
+		private long getSeed(){
+			return portfolioPlacer != null ? portfolioPlacer.getSeed() : requestedSeed;
+		}
+		private ShipPlacer getPlacer(){
+			return placer;
+		}
 		
-		paramGrid.get(paramY).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+1).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+2).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX+1).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX+1).setBackgroundToTextColor();
+		//	Worker thread
+		protected Boolean doInBackground(){
+			return placer.placeShips(workerBoard, workerShips);
+		}
 		
-		paramGrid.get(paramY).get(paramX+2).setBackgroundToTextColor();
-	}
-	/**
-	 * Writes a skull painting on a 15*13 GridButton area.
-	 * 
-	 * @param paramGrid	Grid that holds GridButtons
-	 * @param paramY Y-position (outer vector) on grid
-	 * @param paramX X-position (inner vector) on grid.
-	 */
-	private void writeSkull(Vector<Vector<GridButton>> paramGrid, int paramY, int paramX){
-		paramGrid.get(paramY+10).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+12).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+8).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+9).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+13).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+14).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+2).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+5).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+9).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+13).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+6).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+10).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+12).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+0).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+6).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+10).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+12).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+0).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackground(Color.RED);
-		paramGrid.get(paramY+4).get(paramX).setBackground(Color.RED);
-		paramGrid.get(paramY+7).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+8).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+11).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+0).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+8).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+11).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+0).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackground(Color.RED);
-		paramGrid.get(paramY+4).get(paramX).setBackground(Color.RED);
-		paramGrid.get(paramY+7).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+8).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+11).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+0).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+6).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+10).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+12).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+1).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+6).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+10).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+12).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+2).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+3).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+4).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+5).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+9).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+13).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+8).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+9).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+13).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+14).get(paramX).setBackgroundToTextColor();
-		paramX += 1;
-		paramGrid.get(paramY+10).get(paramX).setBackgroundToTextColor();
-		paramGrid.get(paramY+12).get(paramX).setBackgroundToTextColor();
+		//	Event Dispatch Thread
+		protected void done(){
+			if (!isCancelled() && placementWorker == this){
+				finishPlacement(this);
+			}
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,239 @@
+import java.util.Arrays;
+
+/**
+ * Object class Board. A headless model of the battle grid that holds all game state: which ship (if any) owns
+ * each square, and which squares have been shot at. Squares are stored in a flat int array, indexed by
+ * y * numberOfSquares + x, where each value is the owning ship's index plus one (0 for water), with the highest
+ * bit used as a "shot" flag.
+ *
+ * The Board also keeps an index of the ship squares not yet shot at: a list of their cell indexes, and for each such
+ * cell its position in the list, so a cell is added or removed in constant time (removal moves the last cell into
+ * its place). Revealing or hiding the ships then only goes through the ship squares, not the whole grid.
+ *
+ * The GridButtons only show this state; ship placement and shot resolution run against the Board, so boards can
+ * be generated without a display.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class Board {
+
+	//	Constants
+	private final int FIRST_LIST_SIZE = 16;
+	private final int NO_SHIP = -1;
+	private final int SHIP_MASK = 0x7fffffff;
+	private final int SHOT_FLAG = 0x80000000;
+	private final int WATER = 0;
+
+	//	Fields
+	private int numberOfSquares;
+	private int numberOfUnshotShipCells;
+	private int[] cells;
+	private int[] unshotShipCells;
+	private int[] unshotPositions;
+
+	//	Constructor
+	/**
+	 * Creates an empty Board (only water, nothing shot at) of numberOfSquares * numberOfSquares squares.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 */
+	public Board(int paramNumberOfSquares){
+		numberOfSquares = paramNumberOfSquares;
+		cells = new int[numberOfSquares * numberOfSquares];
+		unshotShipCells = new int[Math.min(FIRST_LIST_SIZE, cells.length)];
+		unshotPositions = new int[cells.length];
+		numberOfUnshotShipCells = 0;
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of squares along each side of the grid.
+	 *
+	 * @return Returns the number of squares along each side of the grid.
+	 */
+	public int getNumberOfSquares(){
+		return numberOfSquares;
+	}
+	/**
+	 * Returns the index of the square (x, y) in the flat cell array.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns the cell index of the square.
+	 */
+	public int getCellIndex(int paramX, int paramY){
+		return paramY * numberOfSquares + paramX;
+	}
+	/**
+	 * Returns the number of squares that hold a ship and have not been shot at.
+	 *
+	 * @return Returns the number of unshot ship squares.
+	 */
+	public int getNumberOfUnshotShipCells(){
+		return numberOfUnshotShipCells;
+	}
+	/**
+	 * Returns the cell index of an unshot ship square. The order of the list changes as squares are shot at.
+	 *
+	 * @param paramPosition Position in the list, 0 to getNumberOfUnshotShipCells() - 1.
+	 * @return Returns the cell index of the square.
+	 */
+	public int getUnshotShipCell(int paramPosition){
+		return unshotShipCells[paramPosition];
+	}
+	/**
+	 * Returns true if a ship has been placed on the square (x, y).
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns true if the square has an owner ship.
+	 */
+	public boolean hasShip(int paramX, int paramY){
+		return (cells[getCellIndex(paramX, paramY)] & SHIP_MASK) != WATER;
+	}
+	/**
+	 * Returns the index of the ship placed on the square (x, y), or -1 if there is only water.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns the owner ship's index, or -1.
+	 */
+	public int getShipIndex(int paramX, int paramY){
+		int owner = cells[getCellIndex(paramX, paramY)] & SHIP_MASK;
+		return owner == WATER ? NO_SHIP : owner - 1;
+	}
+	/**
+	 * Returns true if the square (x, y) has been shot at.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns true if the square has been shot at.
+	 */
+	public boolean isShot(int paramX, int paramY){
+		return (cells[getCellIndex(paramX, paramY)] & SHOT_FLAG) != 0;
+	}
+	/**
+	 * Checks if a ship is OK to be placed at its thought location. The ship has to fit within the grid, and none of
+	 * its squares, nor any square directly above, below, left or right of them, may already hold a ship.
+	 * Depending on if the ship is horizontal or vertical (paramXFactor = 1 or paramYFactor = 1 respectively), only the
+	 * x- or y-coordinates increase through the iteration.
+	 *
+	 * @param paramX Start x-coordinate for ship placement
+	 * @param paramY Start y-coordinate for ship placement
+	 * @param paramShipLength Length of ship
+	 * @param paramXFactor Multiplication factor (0 or 1) to be multiplied with x-coordinate increment
+	 * @param paramYFactor Multiplication factor (0 or 1) to be multiplied with y-coordinate increment
+	 * @return Returns true if the ship can be placed.
+	 */
+	public boolean isShipPlacable(int paramX, int paramY, int paramShipLength, int paramXFactor, int paramYFactor){
+		int endX = paramX + (paramShipLength - 1)*paramXFactor;
+		int endY = paramY + (paramShipLength - 1)*paramYFactor;
+		if (paramX < 0 || paramY < 0 || endX >= numberOfSquares || endY >= numberOfSquares){
+			return false;
+		}
+		//	Go through ship; check the square itself and 1 square in each direction
+		for (int i = 0; i < paramShipLength; i++){
+			int x = paramX + i*paramXFactor;
+			int y = paramY + i*paramYFactor;
+			int cell = y * numberOfSquares + x;
+			if ((cells[cell] & SHIP_MASK) != WATER
+					|| (y > 0 && (cells[cell - numberOfSquares] & SHIP_MASK) != WATER)
+					|| (y < numberOfSquares - 1 && (cells[cell + numberOfSquares] & SHIP_MASK) != WATER)
+					|| (x > 0 && (cells[cell - 1] & SHIP_MASK) != WATER)
+					|| (x < numberOfSquares - 1 && (cells[cell + 1] & SHIP_MASK) != WATER)){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//	Setters
+
+	/**
+	 * Places a ship on the Board by setting it as owner of each of its squares. Does not check if placement is OK;
+	 * use isShipPlacable() first.
+	 *
+	 * @param paramShipIndex Index of the ship to be placed.
+	 * @param paramX Start x-coordinate for ship placement
+	 * @param paramY Start y-coordinate for ship placement
+	 * @param paramShipLength Length of ship
+	 * @param paramXFactor 1 if ship is horizontal, else 0
+	 * @param paramYFactor 1 if ship is vertical, else 0
+	 */
+	public void placeShip(int paramShipIndex, int paramX, int paramY, int paramShipLength, int paramXFactor, int paramYFactor){
+		for (int i = 0; i < paramShipLength; i++){
+			int cell = getCellIndex(paramX + i*paramXFactor, paramY + i*paramYFactor);
+			cells[cell] = paramShipIndex + 1;
+			addUnshotShipCell(cell);
+		}
+	}
+	/**
+	 * Removes a ship's trace from the Board, turning its squares back to unshot water.
+	 *
+	 * @param paramX Start x-coordinate of the ship
+	 * @param paramY Start y-coordinate of the ship
+	 * @param paramShipLength Length of ship
+	 * @param paramXFactor 1 if ship is horizontal, else 0
+	 * @param paramYFactor 1 if ship is vertical, else 0
+	 */
+	public void removeShip(int paramX, int paramY, int paramShipLength, int paramXFactor, int paramYFactor){
+		for (int i = 0; i < paramShipLength; i++){
+			int cell = getCellIndex(paramX + i*paramXFactor, paramY + i*paramYFactor);
+			if (cells[cell] != WATER && (cells[cell] & SHOT_FLAG) == 0){
+				removeUnshotShipCell(cell);
+			}
+			cells[cell] = WATER;
+		}
+	}
+	/**
+	 * Marks the square (x, y) as shot at, and returns the index of the ship that was hit, or -1 for a miss.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns the hit ship's index, or -1 if the shot missed.
+	 */
+	public int shoot(int paramX, int paramY){
+		int cell = getCellIndex(paramX, paramY);
+		if (cells[cell] != WATER && (cells[cell] & SHOT_FLAG) == 0){
+			removeUnshotShipCell(cell);
+		}
+		cells[cell] |= SHOT_FLAG;
+		return getShipIndex(paramX, paramY);
+	}
+	/**
+	 * Resets the Board to only water with nothing shot at.
+	 */
+	public void clear(){
+		for (int i = 0; i < cells.length; i++){
+			cells[i] = WATER;
+		}
+		numberOfUnshotShipCells = 0;
+	}
+	/**
+	 * Adds a cell to the end of the list of unshot ship squares, growing the list if needed.
+	 *
+	 * @param paramCell Cell index of the square.
+	 */
+	private void addUnshotShipCell(int paramCell){
+		if (numberOfUnshotShipCells == unshotShipCells.length){
+			unshotShipCells = Arrays.copyOf(unshotShipCells, Math.min(cells.length, unshotShipCells.length * 2));
+		}
+		unshotPositions[paramCell] = numberOfUnshotShipCells;
+		unshotShipCells[numberOfUnshotShipCells] = paramCell;
+		numberOfUnshotShipCells++;
+	}
+	/**
+	 * Removes a cell from the list of unshot ship squares, by moving the last cell of the list into its place.
+	 *
+	 * @param paramCell Cell index of the square; must be in the list.
+	 */
+	private void removeUnshotShipCell(int paramCell){
+		numberOfUnshotShipCells--;
+		int lastCell = unshotShipCells[numberOfUnshotShipCells];
+		int position = unshotPositions[paramCell];
+		unshotShipCells[position] = lastCell;
+		unshotPositions[lastCell] = position;
+	}
+}
@@ -0,0 +1,502 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Object class BoardLibrary. A file of ready boards for one grid size and fleet, in a compact binary format, read
+ * through memory-mapped buffers, so that a board can be loaded from disk in constant time without copying.
+ *
+ * The file starts with a header: MAGIC, VERSION, the grid size, the size of a record, the number of boards, the
+ * library seed, and the fleet (number of ships of each length, from Game.MIN_SHIP_SIZE up). Then come the boards,
+ * one fixed-size record each, so board i starts at the header size plus i times the record size. A record holds
+ * the ships in fleet order, largest first, bit-packed with no gaps: for each ship its start square's cell index, in
+ * as few bits as the grid needs, then one bit that is set if the ship is vertical. The lengths are not stored, as
+ * the fleet order gives them; so the game's fleet on a 10 * 10 grid takes 8 bits per ship and 10 bytes per board.
+ *
+ * Board i of a library is the board that Game.newGame() places with the seed getSeed(i): the library seed plus i
+ * times SEED_STEP. A board loaded from a library is thus the same game, with the same shading and computer shots,
+ * as one placed from its seed; and a single game can be saved as a library of one board, with its seed as the
+ * library seed.
+ *
+ * A library is written by generate(), which places boards on a ForkJoinPool in chunks of BOARDS_PER_CHUNK and
+ * streams the chunks to a temporary file in order while later chunks are being placed, then moves the file into
+ * place. Reading only uses absolute gets on the mapped buffers, so a BoardLibrary may be shared between threads.
+ *
+ * Usage: java BoardLibrary [boards] [threads] [seed] [grid size] [fleet]
+ *
+ * The fleet is a fleet file, or the number of ships of each length from Game.MIN_SHIP_SIZE up (see Fleet).
+ *
+ * The program generates a library in BOARD_DIRECTORY, then loads every board from it, and checks a sample of them
+ * against Game.newGame().
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class BoardLibrary {
+
+	//	Constants
+	public static final String BOARD_DIRECTORY = "boards";
+	public static final int MAGIC = 0x42534c42;
+	public static final long SEED_STEP = 0x9e3779b97f4a7c15L;
+	public static final int VERSION = 2;
+	private static final int BOARDS_PER_CHUNK = 4096;
+	private static final int CHECKED_BOARDS = 1000;
+	private static final int DEFAULT_NUMBER_OF_BOARDS = 1000000;
+	private static final int DEFAULT_NUMBER_OF_SQUARES = 10;
+	private static final int HEADER_SIZE = 36;
+	private static final int MAX_BUFFER_SIZE = 1 << 30;
+
+	//	Fields
+	private int bitsPerShip;
+	private int headerSize;
+	private int numberOfShips;
+	private int numberOfSquares;
+	private int recordSize;
+	private int[] shipNumbers;
+	private long numberOfBoards;
+	private long recordsPerBuffer;
+	private long seed;
+	private MappedByteBuffer[] buffers;
+
+	//	Constructor
+	/**
+	 * Creates a BoardLibrary from a library file's header and mapped records. Use open().
+	 *
+	 * @param paramHeader The header, positioned after MAGIC and VERSION.
+	 * @param paramChannel Channel of the file, for mapping the records.
+	 * @throws IOException If the file can not be mapped, or does not match its header.
+	 */
+	private BoardLibrary(ByteBuffer paramHeader, FileChannel paramChannel) throws IOException {
+		numberOfSquares = paramHeader.getInt();
+		recordSize = paramHeader.getInt();
+		numberOfBoards = paramHeader.getLong();
+		seed = paramHeader.getLong();
+		int numberOfLengths = paramHeader.getInt();
+		if (numberOfSquares < 1 || numberOfLengths < 0 || numberOfLengths > (paramChannel.size() - HEADER_SIZE) / 4
+				|| recordSize < 1 || numberOfBoards < 0){
+			throw new IOException("Damaged board library header");
+		}
+		shipNumbers = new int[numberOfLengths];
+		headerSize = HEADER_SIZE + 4 * numberOfLengths;
+		ByteBuffer fleet = ByteBuffer.allocate(4 * shipNumbers.length);
+		readFully(paramChannel, fleet, HEADER_SIZE);
+		for (int i = 0; i < shipNumbers.length; i++){
+			shipNumbers[i] = fleet.getInt(4 * i);
+			numberOfShips += shipNumbers[i];
+		}
+		bitsPerShip = getBitsPerShip(numberOfSquares);
+		if (recordSize != getRecordSize(numberOfSquares, numberOfShips)
+				|| paramChannel.size() < headerSize + numberOfBoards * recordSize){
+			throw new IOException("Board library does not match its header");
+		}
+		//	Map whole records, at most MAX_BUFFER_SIZE bytes per buffer.
+		recordsPerBuffer = MAX_BUFFER_SIZE / recordSize;
+		buffers = new MappedByteBuffer[(int) ((numberOfBoards + recordsPerBuffer - 1) / recordsPerBuffer)];
+		for (int i = 0; i < buffers.length; i++){
+			long first = i * recordsPerBuffer;
+			long records = Math.min(recordsPerBuffer, numberOfBoards - first);
+			buffers[i] = paramChannel.map(FileChannel.MapMode.READ_ONLY, headerSize + first * recordSize,
+					records * recordSize);
+		}
+	}
+	/**
+	 * Opens a library file and maps its boards. The file is closed again at once; the mapping stays valid for as
+	 * long as the BoardLibrary is used.
+	 *
+	 * @param paramFile The library file.
+	 * @return Returns the BoardLibrary.
+	 * @throws IOException If the file can not be read, or is not a board library.
+	 */
+	public static BoardLibrary open(Path paramFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(paramFile, StandardOpenOption.READ)){
+			if (channel.size() < HEADER_SIZE){
+				throw new IOException("Not a board library: " + paramFile);
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			readFully(channel, header, 0);
+			if (header.getInt() != MAGIC){
+				throw new IOException("Not a board library: " + paramFile);
+			}
+			if (header.getInt() != VERSION){
+				throw new IOException("Unknown board library version: " + paramFile);
+			}
+			return new BoardLibrary(header, channel);
+		}
+	}
+
+	//	Main
+	/**
+	 * Generates a library, then loads every board from it and checks a sample of them against Game.newGame().
+	 *
+	 * @param args Optional number of boards, number of threads, seed, grid size and fleet.
+	 */
+	public static void main(String[] args){
+		long numberOfBoards = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_NUMBER_OF_BOARDS;
+		int numberOfThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+		int numberOfSquares = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_NUMBER_OF_SQUARES;
+		int[] shipNumbers;
+		try {
+			shipNumbers = Fleet.parseArguments(args, 4, Fleet.getDefaultShipNumbers());
+		}
+		catch (IOException e){
+			System.out.println("Could not read fleet: " + e.getMessage());
+			return;
+		}
+		System.out.println("Grid " + numberOfSquares + ", ships " + Fleet.getName(shipNumbers) + ", "
+				+ numberOfBoards + " boards, " + numberOfThreads + " threads, seed " + seed);
+		if (Game.newGame(numberOfSquares, shipNumbers, seed) == null){
+			System.out.println("Ships can not be placed");
+			return;
+		}
+		Path file = Paths.get(BOARD_DIRECTORY, getFileName(numberOfSquares, shipNumbers));
+		ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+		BoardLibrary library;
+		try {
+			long start = System.nanoTime();
+			generate(file, numberOfSquares, shipNumbers, numberOfBoards, seed, pool);
+			double time = (System.nanoTime() - start) / 1e9;
+			System.out.printf("Generated %s in %.2f s: %.0f boards/s, %.1f MB/s, %d bytes per board%n", file, time,
+					numberOfBoards / time, Files.size(file) / time / 1e6,
+					getRecordSize(numberOfSquares, Game.createShips(shipNumbers).length));
+			library = open(file);
+		}
+		catch (IOException e){
+			System.out.println("Could not write " + file + ": " + e.getMessage());
+			return;
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		//	Load every board into one Game, then compare a sample with boards placed from their seeds.
+		Game game = new Game(new Board(numberOfSquares), Game.createShips(shipNumbers), seed);
+		long start = System.nanoTime();
+		long shipSquares = 0;
+		for (long i = 0; i < library.getNumberOfBoards(); i++){
+			game.reset(library, i);
+			shipSquares += game.getBoard().getNumberOfUnshotShipCells();
+		}
+		double time = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Loaded %d boards in %.2f s: %.0f boards/s (%d ship squares)%n",
+				library.getNumberOfBoards(), time, library.getNumberOfBoards() / time, shipSquares);
+		SplittableRandom random = new SplittableRandom(seed);
+		int numberOfChecked = (int) Math.min(CHECKED_BOARDS, library.getNumberOfBoards());
+		for (int i = 0; i < numberOfChecked; i++){
+			long index = random.nextLong(library.getNumberOfBoards());
+			game.reset(library, index);
+			Board placed = Game.newGame(numberOfSquares, shipNumbers, library.getSeed(index)).getBoard();
+			for (int cell = 0; cell < numberOfSquares * numberOfSquares; cell++){
+				int x = cell % numberOfSquares;
+				int y = cell / numberOfSquares;
+				if (placed.getShipIndex(x, y) != game.getBoard().getShipIndex(x, y)){
+					System.out.println("Board " + index + " differs from its seed's board at (" + x + ", " + y + ")");
+					return;
+				}
+			}
+		}
+		System.out.println("Checked " + numberOfChecked + " boards against their seeds");
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of squares along each side of the grid.
+	 *
+	 * @return Returns the number of squares along each side of the grid.
+	 */
+	public int getNumberOfSquares(){
+		return numberOfSquares;
+	}
+	/**
+	 * Returns the number of ships of each length in the fleet.
+	 *
+	 * @return Returns a copy of the ship numbers, from Game.MIN_SHIP_SIZE up.
+	 */
+	public int[] getShipNumbers(){
+		return shipNumbers.clone();
+	}
+	/**
+	 * Returns the number of boards in the library.
+	 *
+	 * @return Returns the number of boards.
+	 */
+	public long getNumberOfBoards(){
+		return numberOfBoards;
+	}
+	/**
+	 * Returns the seed a board was placed with.
+	 *
+	 * @param paramIndex Index of the board.
+	 * @return Returns the board's seed.
+	 */
+	public long getSeed(long paramIndex){
+		return seed + paramIndex * SEED_STEP;
+	}
+	/**
+	 * Returns the name of the library file for a grid size and fleet, such as "10-6x1_4x2_3x3_2x4.boards".
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @return Returns the file name.
+	 */
+	public static String getFileName(int paramNumberOfSquares, int[] paramShipNumbers){
+		return paramNumberOfSquares + "-" + Fleet.getName(paramShipNumbers) + ".boards";
+	}
+	/**
+	 * Returns the number of bits a ship takes in a record: enough for any cell index, plus the orientation bit.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @return Returns the number of bits per ship.
+	 */
+	private static int getBitsPerShip(int paramNumberOfSquares){
+		return 64 - Long.numberOfLeadingZeros((long) paramNumberOfSquares * paramNumberOfSquares - 1) + 1;
+	}
+	/**
+	 * Returns the number of bytes a board takes in a library file.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramNumberOfShips Number of ships in the fleet.
+	 * @return Returns the record size, at least 1.
+	 */
+	private static int getRecordSize(int paramNumberOfSquares, int paramNumberOfShips){
+		long bits = (long) getBitsPerShip(paramNumberOfSquares) * paramNumberOfShips;
+		return (int) Math.max(1, (bits + 7) / 8);
+	}
+
+	//	Setters
+
+	/**
+	 * Loads a board onto a Board and its ships: clears the Board, and places each ship where the record says, with
+	 * no hits. Reads straight from the mapped file and allocates nothing.
+	 *
+	 * @param paramIndex Index of the board.
+	 * @param paramBoard The Board to load onto, of the library's grid size.
+	 * @param paramShips The library's fleet, largest first, as made by Game.createShips().
+	 */
+	public void loadBoard(long paramIndex, Board paramBoard, Ship[] paramShips){
+		if (paramIndex < 0 || paramIndex >= numberOfBoards){
+			throw new IndexOutOfBoundsException("Board " + paramIndex + " of " + numberOfBoards);
+		}
+		if (paramBoard.getNumberOfSquares() != numberOfSquares || paramShips.length != numberOfShips){
+			throw new IllegalArgumentException("Board or fleet does not match the library");
+		}
+		MappedByteBuffer buffer = buffers[(int) (paramIndex / recordsPerBuffer)];
+		int position = (int) (paramIndex % recordsPerBuffer) * recordSize;
+		long mask = (1L << bitsPerShip) - 1;
+		long bits = 0;
+		int numberOfBits = 0;
+		paramBoard.clear();
+		for (int i = 0; i < numberOfShips; i++){
+			while (numberOfBits < bitsPerShip){
+				bits |= (long) (buffer.get(position) & 0xff) << numberOfBits;
+				position++;
+				numberOfBits += 8;
+			}
+			int value = (int) (bits & mask);
+			bits >>>= bitsPerShip;
+			numberOfBits -= bitsPerShip;
+			int cell = value >>> 1;
+			boolean horizontal = (value & 1) == 0;
+			Ship ship = paramShips[i];
+			ship.setStartPosition(cell % numberOfSquares, cell / numberOfSquares);
+			ship.setHorizontal(horizontal);
+			ship.resetHits();
+			paramBoard.placeShip(i, cell % numberOfSquares, cell / numberOfSquares, ship.getShipLength(),
+					horizontal ? 1 : 0, horizontal ? 0 : 1);
+		}
+	}
+	/**
+	 * Writes a Game's board as a record.
+	 *
+	 * @param paramBuffer Buffer to write to.
+	 * @param paramPosition Position of the record in the buffer.
+	 * @param paramGame The Game, with its fleet placed.
+	 * @param paramBitsPerShip Number of bits per ship.
+	 */
+	private static void writeBoard(ByteBuffer paramBuffer, int paramPosition, Game paramGame, int paramBitsPerShip){
+		int numberOfSquares = paramGame.getNumberOfSquares();
+		long bits = 0;
+		int numberOfBits = 0;
+		int position = paramPosition;
+		for (int i = 0; i < paramGame.getNumberOfShips(); i++){
+			Ship ship = paramGame.getShip(i);
+			long cell = ship.getStartY() * numberOfSquares + ship.getStartX();
+			bits |= (cell << 1 | (ship.isShipHorizontal() ? 0 : 1)) << numberOfBits;
+			numberOfBits += paramBitsPerShip;
+			while (numberOfBits >= 8){
+				paramBuffer.put(position, (byte) bits);
+				position++;
+				bits >>>= 8;
+				numberOfBits -= 8;
+			}
+		}
+		if (numberOfBits > 0){
+			paramBuffer.put(position, (byte) bits);
+		}
+	}
+	/**
+	 * Places boards with Game.newGame() seeds on a ForkJoinPool and writes them to a library file, in order, as they
+	 * are placed. The file is written under a temporary name, then moved into place.
+	 *
+	 * @param paramFile The library file.
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @param paramNumberOfBoards Number of boards.
+	 * @param paramSeed Library seed; board i is placed with paramSeed + i * SEED_STEP.
+	 * @param paramPool The pool to place boards on.
+	 * @throws IOException If the file can not be written.
+	 */
+	public static void generate(Path paramFile, int paramNumberOfSquares, int[] paramShipNumbers,
+			long paramNumberOfBoards, long paramSeed, ForkJoinPool paramPool) throws IOException {
+		int numberOfShips = Game.createShips(paramShipNumbers).length;
+		int recordSize = getRecordSize(paramNumberOfSquares, numberOfShips);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 4 * paramShipNumbers.length);
+		header.putInt(MAGIC).putInt(VERSION).putInt(paramNumberOfSquares).putInt(recordSize);
+		header.putLong(paramNumberOfBoards).putLong(paramSeed).putInt(paramShipNumbers.length);
+		for (int i = 0; i < paramShipNumbers.length; i++){
+			header.putInt(paramShipNumbers[i]);
+		}
+		header.flip();
+
+		if (paramFile.toAbsolutePath().getParent() != null){
+			Files.createDirectories(paramFile.toAbsolutePath().getParent());
+		}
+		Path temporaryFile = paramFile.resolveSibling(paramFile.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+			writeFully(channel, header);
+			//	Keep a few chunks ahead of the one being written, so every worker is busy placing.
+			ArrayDeque<ForkJoinTask<ByteBuffer>> chunks = new ArrayDeque<ForkJoinTask<ByteBuffer>>();
+			int maxNumberOfChunks = 2 * paramPool.getParallelism();
+			long next = 0;
+			while (next < paramNumberOfBoards || !chunks.isEmpty()){
+				while (next < paramNumberOfBoards && chunks.size() < maxNumberOfChunks){
+					int count = (int) Math.min(BOARDS_PER_CHUNK, paramNumberOfBoards - next);
+					chunks.add(paramPool.submit(new ChunkTask(paramNumberOfSquares, paramShipNumbers, recordSize,
+							paramSeed, next, count)));
+					next += count;
+				}
+				writeFully(channel, chunks.poll().join());
+			}
+			channel.force(true);
+		}
+		Files.move(temporaryFile, paramFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	/**
+	 * Saves one Game as a library of one board, with the game's seed as the library seed.
+	 *
+	 * @param paramFile The library file.
+	 * @param paramShipNumbers Number of ships of each length in the Game's fleet, from Game.MIN_SHIP_SIZE up.
+	 * @param paramGame The Game, with its fleet placed as by Game.newGame() with its seed.
+	 * @throws IOException If the file can not be written.
+	 */
+	public static void save(Path paramFile, int[] paramShipNumbers, Game paramGame) throws IOException {
+		int numberOfSquares = paramGame.getNumberOfSquares();
+		int recordSize = getRecordSize(numberOfSquares, paramGame.getNumberOfShips());
+		ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + 4 * paramShipNumbers.length + recordSize);
+		file.putInt(MAGIC).putInt(VERSION).putInt(numberOfSquares).putInt(recordSize);
+		file.putLong(1).putLong(paramGame.getSeed()).putInt(paramShipNumbers.length);
+		for (int i = 0; i < paramShipNumbers.length; i++){
+			file.putInt(paramShipNumbers[i]);
+		}
+		writeBoard(file, file.position(), paramGame, getBitsPerShip(numberOfSquares));
+		if (paramFile.toAbsolutePath().getParent() != null){
+			Files.createDirectories(paramFile.toAbsolutePath().getParent());
+		}
+		Path temporaryFile = paramFile.resolveSibling(paramFile.getFileName() + ".tmp");
+		Files.write(temporaryFile, file.array());
+		Files.move(temporaryFile, paramFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	/**
+	 * Writes all of a buffer to a channel.
+	 *
+	 * @param paramChannel Channel to write to.
+	 * @param paramBuffer Buffer to write, from its position to its limit.
+	 * @throws IOException If the channel can not be written.
+	 */
+	private static void writeFully(FileChannel paramChannel, ByteBuffer paramBuffer) throws IOException {
+		while (paramBuffer.hasRemaining()){
+			paramChannel.write(paramBuffer);
+		}
+	}
+	/**
+	 * Fills a buffer from a channel, then flips it for reading.
+	 *
+	 * @param paramChannel Channel to read from.
+	 * @param paramBuffer Buffer to fill.
+	 * @param paramPosition Position in the channel to read from.
+	 * @throws IOException If the channel ends before the buffer is full, or can not be read.
+	 */
+	private static void readFully(FileChannel paramChannel, ByteBuffer paramBuffer, long paramPosition)
+			throws IOException {
+		long position = paramPosition;
+		while (paramBuffer.hasRemaining()){
+			int read = paramChannel.read(paramBuffer, position);
+			if (read < 0){
+				throw new IOException("Board library ends too soon");
+			}
+			position += read;
+		}
+		paramBuffer.flip();
+	}
+
+	/**
+	 * Places one chunk of a library's boards, from their seeds, with one Game, and returns them as records.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private static class ChunkTask extends RecursiveTask<ByteBuffer> {
+
+		//	Constants
+		private static final long serialVersionUID = 1L;
+
+		//	Fields
+		private int count;
+		private int numberOfSquares;
+		private int recordSize;
+		private int[] shipNumbers;
+		private long first;
+		private long seed;
+
+		//	Constructor
+		private ChunkTask(int paramNumberOfSquares, int[] paramShipNumbers, int paramRecordSize, long paramSeed,
+				long paramFirst, int paramCount){
+			numberOfSquares = paramNumberOfSquares;
+			shipNumbers = paramShipNumbers;
+			recordSize = paramRecordSize;
+			seed = paramSeed;
+			first = paramFirst;
+			count = paramCount;
+		}
+
+		//	Worker thread
+		protected ByteBuffer compute(){
+			ByteBuffer records = ByteBuffer.allocate(count * recordSize);
+			int bitsPerShip = getBitsPerShip(numberOfSquares);
+			Game game = Game.newGame(numberOfSquares, shipNumbers, seed + first * SEED_STEP);
+			if (game == null){
+				throw new IllegalArgumentException("Ships can not be placed");
+			}
+			for (int i = 0; i < count; i++){
+				if (i > 0 && !game.reset(seed + (first + i) * SEED_STEP)){
+					throw new IllegalArgumentException("Ships can not be placed");
+				}
+				writeBoard(records, i * recordSize, game, bitsPerShip);
+			}
+			return records;
+		}
+	}
+}
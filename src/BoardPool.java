@@ -0,0 +1,223 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Object class BoardPool. Keeps ready Games, with all ships placed, for the grid sizes and fleets that have been
+ * asked for lately, so that RESET GRID can usually take a Game at once instead of placing ships from scratch.
+ *
+ * Boards are kept per key (grid size and number of ships of each length), in a map with room for a bounded number
+ * of keys; when it is full, the key that was least recently asked for is dropped with its Boards. A daemon thread
+ * keeps placing ships with a PlacementSolver until every key has a few Boards ready. A key whose fleet could not be
+ * placed (or took longer than the time budget) is given up, and gets no more Boards until it is asked for again.
+ *
+ * Each Game is placed with a seed of its own, drawn from a SplittableRandom, and shuffled with the seed's placement
+ * stream; so Game.newGame() with the same grid size, fleet and seed gives the same Board.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class BoardPool {
+
+	//	Fields
+	private AtomicLong numberOfHits;
+	private AtomicLong numberOfMisses;
+	private int boardsPerKey;
+	private long timeBudget;
+	private LinkedHashMap<String, PoolEntry> entries;
+	private SplittableRandom seedRandom;
+	private Thread producer;
+
+	//	Constructor
+	/**
+	 * Creates an empty BoardPool. The producer thread is started on the first call to takeGame().
+	 *
+	 * @param paramMaxNumberOfKeys Maximum number of grid size and fleet combinations to keep Boards for.
+	 * @param paramBoardsPerKey Number of Boards to keep ready for each key.
+	 * @param paramTimeBudget Time budget for placing ships on one Board, in milliseconds.
+	 */
+	public BoardPool(final int paramMaxNumberOfKeys, int paramBoardsPerKey, long paramTimeBudget){
+		boardsPerKey = paramBoardsPerKey;
+		timeBudget = paramTimeBudget;
+		numberOfHits = new AtomicLong();
+		numberOfMisses = new AtomicLong();
+		seedRandom = new SplittableRandom();
+		//	Access ordered, so that the first entry is the least recently used.
+		entries = new LinkedHashMap<String, PoolEntry>(16, 0.75f, true){
+			protected boolean removeEldestEntry(Map.Entry<String, PoolEntry> paramEldest){
+				return size() > paramMaxNumberOfKeys;
+			}
+		};
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of times takeGame() had a ready Game.
+	 *
+	 * @return Returns the number of hits.
+	 */
+	public long getNumberOfHits(){
+		return numberOfHits.get();
+	}
+	/**
+	 * Returns the number of times takeGame() had no ready Game.
+	 *
+	 * @return Returns the number of misses.
+	 */
+	public long getNumberOfMisses(){
+		return numberOfMisses.get();
+	}
+	/**
+	 * Returns the number of Boards ready, for all keys.
+	 *
+	 * @return Returns the number of ready Boards.
+	 */
+	public synchronized int getNumberOfReadyBoards(){
+		int numberOfReadyBoards = 0;
+		for (PoolEntry entry : entries.values()){
+			numberOfReadyBoards += entry.games.size();
+		}
+		return numberOfReadyBoards;
+	}
+
+	//	Setters
+
+	/**
+	 * Takes a ready Game for a grid size and fleet out of the pool, if there is one. Either way the key is marked as
+	 * recently used, and the producer is woken up to place ships for it.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @return Returns a Game with all ships placed and nothing shot at, or null if none was ready.
+	 */
+	public synchronized Game takeGame(int paramNumberOfSquares, int[] paramShipNumbers){
+		String key = paramNumberOfSquares + ":" + Arrays.toString(paramShipNumbers);
+		PoolEntry entry = entries.get(key);
+		if (entry == null){
+			entry = new PoolEntry(paramNumberOfSquares, paramShipNumbers.clone());
+			entries.put(key, entry);
+		}
+		entry.givenUp = false;
+		Game game = entry.games.poll();
+		if (game != null){
+			numberOfHits.incrementAndGet();
+		}
+		else {
+			numberOfMisses.incrementAndGet();
+		}
+		GameMetrics.recordBoardPoolTake(game != null);
+		startProducer();
+		notifyAll();
+		return game;
+	}
+	/**
+	 * Starts the producer thread, if it is not running already.
+	 */
+	private void startProducer(){
+		if (producer == null){
+			producer = new Thread(new Runnable(){
+				public void run(){
+					produceBoards();
+				}
+			}, "BoardPool");
+			producer.setDaemon(true);
+			producer.setPriority(Thread.MIN_PRIORITY);
+			producer.start();
+		}
+	}
+	/**
+	 * Runs on the producer thread. Waits for a key that needs more Games, places ships on a new Board for it with a
+	 * new seed, and adds the Game to the key's ready Games. Ships are placed outside the lock, so takeGame() never
+	 * waits for a placement.
+	 */
+	private void produceBoards(){
+		PlacementSolver solver = null;
+		Random placementRandom = new Random();
+		int solverSquares = 0;
+		while (true){
+			PoolEntry entry;
+			synchronized (this){
+				entry = findEntryToFill();
+				while (entry == null){
+					try {
+						wait();
+					}
+					catch (InterruptedException e){
+						return;
+					}
+					entry = findEntryToFill();
+				}
+			}
+			if (solver == null || solverSquares != entry.numberOfSquares){
+				solver = new PlacementSolver(entry.numberOfSquares, placementRandom);
+				solver.setTimeBudget(timeBudget);
+				//	Background fills are counted apart, so that placement latencies are those a game waits for.
+				solver.setRecorded(false);
+				solverSquares = entry.numberOfSquares;
+			}
+			long seed;
+			synchronized (this){
+				seed = seedRandom.nextLong();
+			}
+			placementRandom.setSeed(Game.getStreamSeed(seed, Game.PLACEMENT_STREAM));
+			Board board = new Board(entry.numberOfSquares);
+			Ship[] ships = Game.createShips(entry.shipNumbers);
+			boolean placed = solver.placeShips(board, ships);
+			if (placed){
+				GameMetrics.recordBoardPoolFill();
+			}
+			synchronized (this){
+				if (placed){
+					entry.games.add(new Game(board, ships, seed));
+				}
+				else {
+					entry.givenUp = true;
+				}
+			}
+		}
+	}
+	/**
+	 * Returns the most recently used key that needs more Games, or null if none does.
+	 *
+	 * @return Returns an entry to place ships for, or null.
+	 */
+	private PoolEntry findEntryToFill(){
+		PoolEntry entryToFill = null;
+		Iterator<PoolEntry> iterator = entries.values().iterator();
+		while (iterator.hasNext()){
+			PoolEntry entry = iterator.next();
+			if (!entry.givenUp && entry.games.size() < boardsPerKey){
+				entryToFill = entry;
+			}
+		}
+		return entryToFill;
+	}
+
+	/**
+	 * The ready Games of one key, and whether the producer has given up on it.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private static class PoolEntry {
+
+		//	Fields
+		private boolean givenUp;
+		private int numberOfSquares;
+		private int[] shipNumbers;
+		private ArrayDeque<Game> games;
+
+		//	Constructor
+		private PoolEntry(int paramNumberOfSquares, int[] paramShipNumbers){
+			numberOfSquares = paramNumberOfSquares;
+			shipNumbers = paramShipNumbers;
+			games = new ArrayDeque<Game>();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+import java.awt.Color;
+import java.awt.GridLayout;
+import java.util.Arrays;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+
+/**
+ * Object class ButtonGridView. Shows the battle grid as a panel of GridButtons, one for each square, laid out by a
+ * grid layout.
+ *
+ * The GridButtons are kept between layouts: if the size is unchanged, the ones on the panel are only reset in place,
+ * and otherwise only the difference is added to or removed from the end of the panel. New buttons are only created
+ * when the grid is larger than it has ever been.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class ButtonGridView implements GridView {
+
+	//	Fields
+	private Battleships battleShipProgram;
+	private int numberOfShownButtons;
+	private int numberOfSquares;
+	private GridButton[] buttonPool;
+	private GridButton[][] grid;
+	private JPanel gridPanel;
+
+	//	Constructor
+	/**
+	 * Creates an empty ButtonGridView.
+	 *
+	 * @param paramBattleShip The main class, Battleships. Necessary for the GridButtons to resolve shots.
+	 */
+	public ButtonGridView(Battleships paramBattleShip){
+		battleShipProgram = paramBattleShip;
+		gridPanel = new JPanel(new GridLayout(1, 1));
+		buttonPool = new GridButton[0];
+		grid = new GridButton[0][0];
+		numberOfShownButtons = 0;
+	}
+
+	//	Getters
+
+	public JComponent getComponent(){
+		return gridPanel;
+	}
+
+	//	Setters
+
+	/**
+	 * Lays out the GridButtons, all reset. The grid layout places the panel's buttons row by row, so each button is
+	 * moved to the square matching its place on the panel.
+	 */
+	public void layOutGrid(int paramNumberOfSquares, int paramGridSpace){
+		numberOfSquares = paramNumberOfSquares;
+		int numberOfButtons = numberOfSquares * numberOfSquares;
+		//	Grow pool if needed.
+		if (buttonPool.length < numberOfButtons){
+			int oldLength = buttonPool.length;
+			buttonPool = Arrays.copyOf(buttonPool, numberOfButtons);
+			for (int i = oldLength; i < numberOfButtons; i++){
+				buttonPool[i] = new GridButton(battleShipProgram, 0, 0);
+			}
+		}
+		//	Add or remove the difference, at the end of the panel.
+		boolean sizeChanged = numberOfButtons != numberOfShownButtons;
+		for (int i = numberOfShownButtons; i < numberOfButtons; i++){
+			gridPanel.add(buttonPool[i]);
+		}
+		for (int i = numberOfShownButtons - 1; i >= numberOfButtons; i--){
+			gridPanel.remove(i);
+		}
+		numberOfShownButtons = numberOfButtons;
+		GridLayout layout = (GridLayout) gridPanel.getLayout();
+		if (sizeChanged || layout.getHgap() != paramGridSpace){
+			layout.setRows(numberOfSquares);
+			layout.setColumns(numberOfSquares);
+			layout.setHgap(paramGridSpace);
+			layout.setVgap(paramGridSpace);
+			grid = new GridButton[numberOfSquares][numberOfSquares];
+		}
+		//	Reset buttons in place, and move them to their squares.
+		for (int y = 0; y < numberOfSquares; y++){
+			for (int x = 0; x < numberOfSquares; x++){
+				GridButton button = buttonPool[y * numberOfSquares + x];
+				button.setGridPosition(x, y);
+				button.resetButton();
+				grid[y][x] = button;
+			}
+		}
+		//	Only a new size needs a new layout pass.
+		if (sizeChanged){
+			gridPanel.revalidate();
+		}
+		gridPanel.repaint();
+	}
+	public void setGridEnabled(boolean paramEnabled){
+		for (int y = 0; y < numberOfSquares; y++){
+			for (int x = 0; x < numberOfSquares; x++){
+				grid[y][x].setEnabled(paramEnabled);
+			}
+		}
+	}
+	public void pressCell(int paramX, int paramY){
+		grid[paramY][paramX].pressGridButton();
+	}
+	public void setDefaultBackground(int paramX, int paramY){
+		grid[paramY][paramX].setDefaultBackground();
+	}
+	public void setBackgroundToTextColor(int paramX, int paramY){
+		grid[paramY][paramX].setBackgroundToTextColor();
+	}
+	public void setCheatBackground(int paramX, int paramY){
+		grid[paramY][paramX].setCheatBackground();
+	}
+	public void setCellBackground(int paramX, int paramY, Color paramColor){
+		grid[paramY][paramX].setBackground(paramColor);
+	}
+}
@@ -0,0 +1,191 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+
+import javax.swing.JComponent;
+
+/**
+ * Object class CanvasGridView. Shows the battle grid as one component that paints every cell itself, instead of one
+ * GridButton per square, so large grids need no more than an array of colors and a single paint. Cells are laid out
+ * the way a grid layout lays out buttons: equal size, a gap between them, and the leftover pixels split around the
+ * edges. A mouse press is mapped to the cell under it by its coordinates; presses on the gaps are ignored.
+ *
+ * The cells use the same colors as GridButtons, from the shared Palette.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class CanvasGridView extends JComponent implements GridView {
+
+	//	Constants
+	private static final long serialVersionUID = 1L;
+
+	//	Fields
+	private Battleships battleShipProgram;
+	private boolean gridEnabled;
+	private boolean[] pressed;
+	private int gridSpace;
+	private int numberOfSquares;
+	private Color[] cellColors;
+
+	//	Constructor
+	/**
+	 * Creates an empty CanvasGridView, listening to its own mouse presses.
+	 *
+	 * @param paramBattleShip The main class, Battleships. Necessary for resolving shots on the Board.
+	 */
+	public CanvasGridView(Battleships paramBattleShip){
+		battleShipProgram = paramBattleShip;
+		cellColors = new Color[0];
+		pressed = new boolean[0];
+		gridEnabled = true;
+		setOpaque(true);
+		addMouseListener(new MouseAdapter(){
+			public void mousePressed(MouseEvent paramEvent){
+				pressCellAt(paramEvent.getX(), paramEvent.getY());
+			}
+		});
+	}
+
+	//	Getters
+
+	public JComponent getComponent(){
+		return this;
+	}
+	/**
+	 * Returns the width and height of each cell, in pixels.
+	 *
+	 * @return Returns the cell size.
+	 */
+	private int getCellSize(){
+		int size = Math.min(getWidth(), getHeight());
+		return Math.max(1, (size - (numberOfSquares - 1) * gridSpace) / numberOfSquares);
+	}
+	/**
+	 * Returns the x-offset of the first column, in pixels, so that the cells are centered.
+	 *
+	 * @param paramCellSize Cell size in pixels.
+	 * @return Returns the x-offset.
+	 */
+	private int getOffsetX(int paramCellSize){
+		return (getWidth() - numberOfSquares * paramCellSize - (numberOfSquares - 1) * gridSpace) / 2;
+	}
+	/**
+	 * Returns the y-offset of the first row, in pixels, so that the cells are centered.
+	 *
+	 * @param paramCellSize Cell size in pixels.
+	 * @return Returns the y-offset.
+	 */
+	private int getOffsetY(int paramCellSize){
+		return (getHeight() - numberOfSquares * paramCellSize - (numberOfSquares - 1) * gridSpace) / 2;
+	}
+
+	//	Setters
+
+	public void layOutGrid(int paramNumberOfSquares, int paramGridSpace){
+		numberOfSquares = paramNumberOfSquares;
+		gridSpace = paramGridSpace;
+		int numberOfCells = numberOfSquares * numberOfSquares;
+		if (cellColors.length != numberOfCells){
+			cellColors = new Color[numberOfCells];
+			pressed = new boolean[numberOfCells];
+		}
+		Arrays.fill(pressed, false);
+		for (int i = 0; i < numberOfCells; i++){
+			cellColors[i] = Palette.nextWaterColor();
+		}
+		gridEnabled = true;
+		repaint();
+	}
+	public void setGridEnabled(boolean paramEnabled){
+		gridEnabled = paramEnabled;
+	}
+	public void setDefaultBackground(int paramX, int paramY){
+		setCellBackground(paramX, paramY, Palette.nextWaterColor());
+	}
+	public void setBackgroundToTextColor(int paramX, int paramY){
+		setCellBackground(paramX, paramY, Palette.nextTextColor());
+	}
+	public void setCheatBackground(int paramX, int paramY){
+		setCellBackground(paramX, paramY, Palette.nextCheatColor());
+	}
+	public void setCellBackground(int paramX, int paramY, Color paramColor){
+		cellColors[paramY * numberOfSquares + paramX] = paramColor;
+		//	Repaint only the cell.
+		int cellSize = getCellSize();
+		repaint(getOffsetX(cellSize) + paramX * (cellSize + gridSpace),
+				getOffsetY(cellSize) + paramY * (cellSize + gridSpace), cellSize, cellSize);
+	}
+	public void pressCell(int paramX, int paramY){
+		if (pressed[paramY * numberOfSquares + paramX]){
+			return;
+		}
+		pressed[paramY * numberOfSquares + paramX] = true;
+		if (battleShipProgram.shootAt(paramX, paramY)){
+			setCellBackground(paramX, paramY, Palette.SHIP_COLOR);
+		}
+		else {
+			setCellBackground(paramX, paramY, Palette.MISS_COLOR);
+		}
+	}
+	/**
+	 * Called on a mouse press. Finds the cell under the mouse, and if the grid is enabled, presses it.
+	 *
+	 * @param paramMouseX X-coordinate of the mouse, in pixels.
+	 * @param paramMouseY Y-coordinate of the mouse, in pixels.
+	 */
+	private void pressCellAt(int paramMouseX, int paramMouseY){
+		if (!gridEnabled || numberOfSquares == 0){
+			return;
+		}
+		int cellSize = getCellSize();
+		int pitch = cellSize + gridSpace;
+		int fromLeft = paramMouseX - getOffsetX(cellSize);
+		int fromTop = paramMouseY - getOffsetY(cellSize);
+		if (fromLeft < 0 || fromTop < 0 || fromLeft % pitch >= cellSize || fromTop % pitch >= cellSize){
+			return;
+		}
+		int x = fromLeft / pitch;
+		int y = fromTop / pitch;
+		if (x >= numberOfSquares || y >= numberOfSquares){
+			return;
+		}
+		pressCell(x, y);
+	}
+
+	//	Painting
+	/**
+	 * Paints the background (seen in the gaps), then every cell that is within the area to be painted.
+	 */
+	protected void paintComponent(Graphics paramGraphics){
+		Graphics2D graphics = (Graphics2D) paramGraphics;
+		Rectangle clip = graphics.getClipBounds();
+		if (clip == null){
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		graphics.setColor(getBackground());
+		graphics.fillRect(clip.x, clip.y, clip.width, clip.height);
+		if (numberOfSquares == 0){
+			return;
+		}
+		int cellSize = getCellSize();
+		int pitch = cellSize + gridSpace;
+		int offsetX = getOffsetX(cellSize);
+		int offsetY = getOffsetY(cellSize);
+		//	Only go through the rows and columns that touch the clip.
+		int firstX = Math.max(0, (clip.x - offsetX) / pitch);
+		int lastX = Math.min(numberOfSquares - 1, (clip.x + clip.width - offsetX) / pitch);
+		int firstY = Math.max(0, (clip.y - offsetY) / pitch);
+		int lastY = Math.min(numberOfSquares - 1, (clip.y + clip.height - offsetY) / pitch);
+		for (int y = firstY; y <= lastY; y++){
+			for (int x = firstX; x <= lastX; x++){
+				graphics.setColor(cellColors[y * numberOfSquares + x]);
+				graphics.fillRect(offsetX + x * pitch, offsetY + y * pitch, cellSize, cellSize);
+			}
+		}
+	}
+}
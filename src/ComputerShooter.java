@@ -0,0 +1,366 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Object class ComputerShooter. A computer player that chooses where to shoot by hunting and targeting with a
+ * probability-density map: for every square, it counts the ways the ships still afloat could lie over it, given all
+ * shots so far and the rule that no ship touches another (no ship square directly above, below, left or right of
+ * another ship's square, as Board.isShipPlacable() demands). While no hit is left open it hunts, counting only the
+ * placements that cover no hit; once a ship is hit, it targets, counting only the placements that cover hits,
+ * weighted by how many. It then shoots at the unknown square with the highest count, picking at random among equals.
+ *
+ * The map is not counted again from scratch after each shot. The shooter keeps, for every possible placement of
+ * every ship length, whether it is still possible and how many hits it covers, and the count of each square is kept
+ * as a sum over placements. A shot only changes the placements that cover the square or touch it, so only those
+ * are looked at again; choosing a square is one pass over the grid.
+ *
+ * A sunk ship is known as a whole: its squares, and the squares touching it, which can then only be water.
+ *
+ * The placements and counts of a new game are kept, so reset() starts a new game of the same grid size and fleet by
+ * copying them back, without counting them again or making new arrays.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class ComputerShooter {
+
+	//	Constants
+	public static final int NO_CELL = -1;
+	private static final byte UNKNOWN = 0;
+	private static final byte WATER = 1;
+	private static final byte HIT = 2;
+	private static final byte SUNK = 3;
+	private final int IMPOSSIBLE = -1;
+
+	//	Fields
+	private int numberOfCells;
+	private int numberOfOpenHits;
+	private int numberOfSquares;
+	private byte[] cellStates;
+	private int[] remainingShips;
+	private int[][] freshHuntDensity;
+	private int[][] freshPlacementStates;
+	private int[][] huntDensity;
+	private int[][] placementStates;
+	private int[][] targetDensity;
+	private Random random;
+
+	//	Constructor
+	/**
+	 * Creates a ComputerShooter for a new game, where no square has been shot at yet.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @param paramRandom Randomizer used to choose among equally good squares.
+	 */
+	public ComputerShooter(int paramNumberOfSquares, int[] paramShipNumbers, Random paramRandom){
+		numberOfSquares = paramNumberOfSquares;
+		numberOfCells = numberOfSquares * numberOfSquares;
+		random = paramRandom;
+		remainingShips = paramShipNumbers.clone();
+		cellStates = new byte[numberOfCells];
+		numberOfOpenHits = 0;
+		int numberOfTypes = remainingShips.length;
+		placementStates = new int[numberOfTypes][];
+		huntDensity = new int[numberOfTypes][];
+		targetDensity = new int[numberOfTypes][];
+		//	Every placement within the grid is possible, and covers no hits. Lengths without ships are left out.
+		for (int type = 0; type < numberOfTypes; type++){
+			if (remainingShips[type] == 0){
+				continue;
+			}
+			placementStates[type] = new int[2 * numberOfCells];
+			huntDensity[type] = new int[numberOfCells];
+			targetDensity[type] = new int[numberOfCells];
+			Arrays.fill(placementStates[type], IMPOSSIBLE);
+			for (int cell = 0; cell < numberOfCells; cell++){
+				updatePlacement(type, 0, cell % numberOfSquares, cell / numberOfSquares);
+				updatePlacement(type, 1, cell % numberOfSquares, cell / numberOfSquares);
+			}
+		}
+		freshPlacementStates = new int[numberOfTypes][];
+		freshHuntDensity = new int[numberOfTypes][];
+		for (int type = 0; type < numberOfTypes; type++){
+			if (placementStates[type] != null){
+				freshPlacementStates[type] = placementStates[type].clone();
+				freshHuntDensity[type] = huntDensity[type].clone();
+			}
+		}
+	}
+
+	//	Getters
+
+	/**
+	 * Chooses the square to shoot at next: the unknown square that the most placements of the remaining ships cover,
+	 * counting placements over open hits while there are any.
+	 *
+	 * @return Returns the cell index (y * numberOfSquares + x) of the square, or NO_CELL if every square is known.
+	 */
+	public int chooseCell(){
+		int bestCell = NO_CELL;
+		if (numberOfOpenHits > 0){
+			bestCell = chooseCell(targetDensity);
+		}
+		if (bestCell == NO_CELL){
+			bestCell = chooseCell(huntDensity);
+		}
+		return bestCell;
+	}
+	/**
+	 * Returns the unknown square with the highest count in a density map, weighted by the number of ships of each
+	 * length left. Squares with a count of 0 are only chosen if no square has more, and only when hunting.
+	 *
+	 * @param paramDensity Density map to choose by, one row per ship length.
+	 * @return Returns the cell index of the square, or NO_CELL.
+	 */
+	private int chooseCell(int[][] paramDensity){
+		int bestCell = NO_CELL;
+		long bestScore = paramDensity == targetDensity ? 0 : -1;
+		int numberOfEquals = 0;
+		for (int cell = 0; cell < numberOfCells; cell++){
+			if (cellStates[cell] != UNKNOWN){
+				continue;
+			}
+			long score = 0;
+			for (int type = 0; type < remainingShips.length; type++){
+				if (remainingShips[type] > 0){
+					score += (long) remainingShips[type] * paramDensity[type][cell];
+				}
+			}
+			if (score > bestScore){
+				bestScore = score;
+				bestCell = cell;
+				numberOfEquals = 1;
+			}
+			else if (score == bestScore && bestCell != NO_CELL){
+				//	Keep each of the equals with the same chance.
+				numberOfEquals++;
+				if (random.nextInt(numberOfEquals) == 0){
+					bestCell = cell;
+				}
+			}
+		}
+		return bestCell;
+	}
+	/**
+	 * Returns true if the square is within the grid and is a hit or part of a sunk ship.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns true if a ship is known to be on the square.
+	 */
+	private boolean isKnownShip(int paramX, int paramY){
+		if (paramX < 0 || paramY < 0 || paramX >= numberOfSquares || paramY >= numberOfSquares){
+			return false;
+		}
+		byte state = cellStates[paramY * numberOfSquares + paramX];
+		return state == HIT || state == SUNK;
+	}
+
+	//	Setters
+
+	/**
+	 * Starts over for a new game, where no square has been shot at yet, with the same grid size and fleet as the game
+	 * the shooter was made for, such as the same Game after Game.reset().
+	 *
+	 * @param paramGame The new Game.
+	 */
+	public void reset(Game paramGame){
+		Arrays.fill(remainingShips, 0);
+		for (int i = 0; i < paramGame.getNumberOfShips(); i++){
+			remainingShips[paramGame.getShip(i).getShipLength() - Game.MIN_SHIP_SIZE]++;
+		}
+		Arrays.fill(cellStates, UNKNOWN);
+		numberOfOpenHits = 0;
+		for (int type = 0; type < remainingShips.length; type++){
+			if (placementStates[type] != null){
+				System.arraycopy(freshPlacementStates[type], 0, placementStates[type], 0, 2 * numberOfCells);
+				System.arraycopy(freshHuntDensity[type], 0, huntDensity[type], 0, numberOfCells);
+				Arrays.fill(targetDensity[type], 0);
+			}
+		}
+	}
+	/**
+	 * Chooses a square, shoots at it in a Game, and takes the result into account.
+	 *
+	 * @param paramGame The Game to shoot in; the same game the shooter was made for.
+	 * @return Returns the Game's result of the shot, or Game.ALREADY_SHOT if every square is known.
+	 */
+	public int shoot(Game paramGame){
+		int cell = chooseCell();
+		if (cell == NO_CELL){
+			return Game.ALREADY_SHOT;
+		}
+		int x = cell % numberOfSquares;
+		int y = cell / numberOfSquares;
+		int result = paramGame.shoot(x, y);
+		int[] sunkShipCells = null;
+		if (result == Game.SUNK || result == Game.WIN){
+			int shipIndex = paramGame.getBoard().getShipIndex(x, y);
+			sunkShipCells = paramGame.getShip(shipIndex).getCellIndexes(numberOfSquares);
+		}
+		recordShot(x, y, result, sunkShipCells);
+		return result;
+	}
+	/**
+	 * Takes the result of a shot into account, whoever fired it, and updates the placements it changes.
+	 *
+	 * @param paramX X-position of the square shot at.
+	 * @param paramY Y-position of the square shot at.
+	 * @param paramResult The Game's result of the shot: Game.MISS, HIT, SUNK, WIN or ALREADY_SHOT.
+	 * @param paramSunkShipCells Cell indexes of the ship sunk by the shot, if it sank one; else null.
+	 */
+	public void recordShot(int paramX, int paramY, int paramResult, int[] paramSunkShipCells){
+		int cell = paramY * numberOfSquares + paramX;
+		if (paramResult == Game.ALREADY_SHOT || cellStates[cell] != UNKNOWN){
+			return;
+		}
+		if (paramResult == Game.MISS){
+			setCellState(cell, WATER);
+			return;
+		}
+		setCellState(cell, HIT);
+		numberOfOpenHits++;
+		if (paramSunkShipCells != null){
+			sinkShip(paramSunkShipCells);
+		}
+	}
+	/**
+	 * Marks the squares of a sunk ship as sunk, and every unknown square touching it as water, then counts the ship
+	 * as no longer afloat.
+	 *
+	 * @param paramSunkShipCells Cell indexes of the sunk ship.
+	 */
+	private void sinkShip(int[] paramSunkShipCells){
+		for (int i = 0; i < paramSunkShipCells.length; i++){
+			setCellState(paramSunkShipCells[i], SUNK);
+			numberOfOpenHits--;
+		}
+		for (int i = 0; i < paramSunkShipCells.length; i++){
+			int x = paramSunkShipCells[i] % numberOfSquares;
+			int y = paramSunkShipCells[i] / numberOfSquares;
+			setWaterIfUnknown(x - 1, y);
+			setWaterIfUnknown(x + 1, y);
+			setWaterIfUnknown(x, y - 1);
+			setWaterIfUnknown(x, y + 1);
+		}
+		remainingShips[paramSunkShipCells.length - Game.MIN_SHIP_SIZE]--;
+	}
+	/**
+	 * Marks a square as water, if it is within the grid and not known yet.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 */
+	private void setWaterIfUnknown(int paramX, int paramY){
+		if (paramX >= 0 && paramY >= 0 && paramX < numberOfSquares && paramY < numberOfSquares
+				&& cellStates[paramY * numberOfSquares + paramX] == UNKNOWN){
+			setCellState(paramY * numberOfSquares + paramX, WATER);
+		}
+	}
+	/**
+	 * Changes what is known of a square, and updates every placement that covers the square or touches it, for every
+	 * ship length still afloat.
+	 *
+	 * @param paramCell Cell index of the square.
+	 * @param paramState UNKNOWN, WATER, HIT or SUNK.
+	 */
+	private void setCellState(int paramCell, byte paramState){
+		cellStates[paramCell] = paramState;
+		int x = paramCell % numberOfSquares;
+		int y = paramCell / numberOfSquares;
+		for (int type = 0; type < remainingShips.length; type++){
+			if (remainingShips[type] == 0){
+				continue;
+			}
+			int shipLength = type + Game.MIN_SHIP_SIZE;
+			for (int orientation = 0; orientation < 2; orientation++){
+				int xFactor = 1 - orientation;
+				int yFactor = orientation;
+				//	The square right before the start, or right after the end.
+				updatePlacement(type, orientation, x + xFactor, y + yFactor);
+				updatePlacement(type, orientation, x - shipLength*xFactor, y - shipLength*yFactor);
+				for (int i = 0; i < shipLength; i++){
+					//	The square itself, or the square beside it on either side.
+					int startX = x - i*xFactor;
+					int startY = y - i*yFactor;
+					updatePlacement(type, orientation, startX, startY);
+					updatePlacement(type, orientation, startX - yFactor, startY - xFactor);
+					updatePlacement(type, orientation, startX + yFactor, startY + xFactor);
+				}
+			}
+		}
+	}
+	/**
+	 * Works out again if a placement is possible and how many hits it covers, and if that changed, moves its
+	 * contribution in the density maps. A placement is possible if none of its squares is water or sunk, and no square
+	 * touching it is a hit or sunk (that would be another ship touching it, or the same ship being longer). A ship of
+	 * length 1 is the same both ways, so it only has horizontal placements.
+	 *
+	 * @param paramType Ship length minus Game.MIN_SHIP_SIZE.
+	 * @param paramOrientation 0 for horizontal, 1 for vertical.
+	 * @param paramStartX X-position of the start square; may be outside the grid.
+	 * @param paramStartY Y-position of the start square; may be outside the grid.
+	 */
+	private void updatePlacement(int paramType, int paramOrientation, int paramStartX, int paramStartY){
+		int shipLength = paramType + Game.MIN_SHIP_SIZE;
+		int xFactor = 1 - paramOrientation;
+		int yFactor = paramOrientation;
+		int endX = paramStartX + (shipLength - 1)*xFactor;
+		int endY = paramStartY + (shipLength - 1)*yFactor;
+		if (paramStartX < 0 || paramStartY < 0 || endX >= numberOfSquares || endY >= numberOfSquares
+				|| (shipLength == 1 && paramOrientation == 1)){
+			return;
+		}
+		int newState = 0;
+		if (isKnownShip(paramStartX - xFactor, paramStartY - yFactor) || isKnownShip(endX + xFactor, endY + yFactor)){
+			newState = IMPOSSIBLE;
+		}
+		for (int i = 0; i < shipLength && newState != IMPOSSIBLE; i++){
+			int x = paramStartX + i*xFactor;
+			int y = paramStartY + i*yFactor;
+			byte state = cellStates[y * numberOfSquares + x];
+			if (state == WATER || state == SUNK
+					|| isKnownShip(x - yFactor, y - xFactor) || isKnownShip(x + yFactor, y + xFactor)){
+				newState = IMPOSSIBLE;
+			}
+			else if (state == HIT){
+				newState++;
+			}
+		}
+		int placement = paramOrientation * numberOfCells + paramStartY * numberOfSquares + paramStartX;
+		int oldState = placementStates[paramType][placement];
+		if (newState == oldState){
+			return;
+		}
+		placementStates[paramType][placement] = newState;
+		int startCell = paramStartY * numberOfSquares + paramStartX;
+		int step = yFactor * numberOfSquares + xFactor;
+		addToDensity(paramType, startCell, step, shipLength, oldState, -1);
+		addToDensity(paramType, startCell, step, shipLength, newState, 1);
+	}
+	/**
+	 * Adds (or takes away) one placement's contribution to the density maps: 1 per square to the hunt map if it
+	 * covers no hits, or its number of hits per square to the target map.
+	 *
+	 * @param paramType Ship length minus Game.MIN_SHIP_SIZE.
+	 * @param paramStartCell Cell index of the start square.
+	 * @param paramStep Cell index step between squares: 1 if horizontal, numberOfSquares if vertical.
+	 * @param paramShipLength Length of ship.
+	 * @param paramState IMPOSSIBLE, or the number of hits the placement covers.
+	 * @param paramSign 1 to add, -1 to take away.
+	 */
+	private void addToDensity(int paramType, int paramStartCell, int paramStep, int paramShipLength, int paramState,
+			int paramSign){
+		if (paramState == IMPOSSIBLE){
+			return;
+		}
+		int[] density = paramState == 0 ? huntDensity[paramType] : targetDensity[paramType];
+		int weight = paramState == 0 ? paramSign : paramSign * paramState;
+		int cell = paramStartCell;
+		for (int i = 0; i < paramShipLength; i++){
+			density[cell] += weight;
+			cell += paramStep;
+		}
+	}
+}
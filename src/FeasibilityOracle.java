@@ -0,0 +1,156 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Object class FeasibilityOracle. Tells, quickly enough to be asked on every key stroke, if a fleet can be placed
+ * on an empty grid without any ship touching another.
+ *
+ * A fleet is known to be infeasible if it breaks one of the bounds that PlacementSolver also uses, here worked out
+ * for an empty grid: the ship squares and the water squares next to them have to fit on the grid, no block of 2 * 2
+ * squares can hold more than 2 ship squares, and for each length, the ships of at least that length have to fit into
+ * the rows and columns. A fleet is known to be feasible
+ * if a greedy packing (each ship, largest first, on the first square where it fits, horizontal before vertical)
+ * places all ships. Anything else is unknown, until a PlacementSolver has either placed the fleet or proved that it
+ * can not be placed, and the result is recorded here.
+ *
+ * All answers are remembered, for a bounded number of grid size and fleet combinations; when full, the least
+ * recently asked for is forgotten.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class FeasibilityOracle {
+
+	//	Constants
+	public static final int FEASIBLE = 1;
+	public static final int INFEASIBLE = -1;
+	public static final int UNKNOWN = 0;
+
+	//	Fields
+	private LinkedHashMap<String, Integer> results;
+
+	//	Constructor
+	/**
+	 * Creates a FeasibilityOracle that remembers answers for a bounded number of grid size and fleet combinations.
+	 *
+	 * @param paramMaxNumberOfResults Maximum number of answers to remember.
+	 */
+	public FeasibilityOracle(final int paramMaxNumberOfResults){
+		results = new LinkedHashMap<String, Integer>(16, 0.75f, true){
+			protected boolean removeEldestEntry(Map.Entry<String, Integer> paramEldest){
+				return size() > paramMaxNumberOfResults;
+			}
+		};
+	}
+
+	//	Getters
+
+	/**
+	 * Returns if a fleet can be placed on an empty grid.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @return Returns FEASIBLE, INFEASIBLE or UNKNOWN.
+	 */
+	public synchronized int checkFleet(int paramNumberOfSquares, int[] paramShipNumbers){
+		String key = paramNumberOfSquares + ":" + Arrays.toString(paramShipNumbers);
+		Integer result = results.get(key);
+		if (result == null){
+			if (!isWithinBounds(paramNumberOfSquares, paramShipNumbers)){
+				result = INFEASIBLE;
+			}
+			else if (canPackGreedily(paramNumberOfSquares, paramShipNumbers)){
+				result = FEASIBLE;
+			}
+			else {
+				result = UNKNOWN;
+			}
+			results.put(key, result);
+		}
+		return result;
+	}
+	/**
+	 * Checks the bounds for an empty grid of n * n squares. Every square next to a ship is water or outside the grid;
+	 * a ship of length L has 2L + 2 such neighbours, and a water square can be next to at most 4 ship squares, so for
+	 * S ship squares and k ships, 2S + 2k can not exceed 4 times the water squares plus the 4n edges of the grid. Ships
+	 * may touch only at corners, so a block of 2 * 2 squares holds at most 2 ship squares, and S can not exceed 2 per
+	 * block when the grid is split into such blocks (the blocks along the edges of an odd grid being smaller). And a
+	 * row or column of n squares fits (n + 1) / (L + 1) ships of length L, so the ships of at least length L can be no
+	 * more than 2n times that.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @return Returns false if the fleet can not be placed.
+	 */
+	private boolean isWithinBounds(int paramNumberOfSquares, int[] paramShipNumbers){
+		long shipSquares = 0;
+		long numberOfShips = 0;
+		for (int i = paramShipNumbers.length - 1; i >= 0; i--){
+			int shipLength = Game.MIN_SHIP_SIZE + i;
+			shipSquares += (long) paramShipNumbers[i] * shipLength;
+			numberOfShips += paramShipNumbers[i];
+			long lineCapacity = (paramNumberOfSquares + 1) / (shipLength + 1);
+			if (paramShipNumbers[i] > 0 && numberOfShips > 2L * paramNumberOfSquares * lineCapacity){
+				return false;
+			}
+		}
+		long totalSquares = (long) paramNumberOfSquares * paramNumberOfSquares;
+		long fullBlocks = (long) (paramNumberOfSquares / 2) * (paramNumberOfSquares / 2);
+		long blockSquares = 2 * fullBlocks + (paramNumberOfSquares % 2 == 1 ? 2L * paramNumberOfSquares - 1 : 0);
+		return shipSquares <= totalSquares
+				&& shipSquares <= blockSquares
+				&& 2 * shipSquares + 2 * numberOfShips <= 4 * (totalSquares - shipSquares) + 4L * paramNumberOfSquares;
+	}
+	/**
+	 * Places the ships largest first, each on the first square (row by row) where it fits, horizontal before
+	 * vertical. A square where a ship did not fit only gets fuller, so each ship of the same length as the one before
+	 * goes on from that one's square, and a fleet of hundreds of ships takes one pass over the grid per length.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @return Returns true if all ships were placed.
+	 */
+	private boolean canPackGreedily(int paramNumberOfSquares, int[] paramShipNumbers){
+		Board board = new Board(paramNumberOfSquares);
+		int shipIndex = 0;
+		for (int i = paramShipNumbers.length - 1; i >= 0; i--){
+			int shipLength = Game.MIN_SHIP_SIZE + i;
+			int cell = 0;
+			for (int j = 0; j < paramShipNumbers[i]; j++){
+				boolean placed = false;
+				for (; cell < paramNumberOfSquares * paramNumberOfSquares && !placed; cell++){
+					int x = cell % paramNumberOfSquares;
+					int y = cell / paramNumberOfSquares;
+					if (board.isShipPlacable(x, y, shipLength, 1, 0)){
+						board.placeShip(shipIndex, x, y, shipLength, 1, 0);
+						placed = true;
+					}
+					else if (board.isShipPlacable(x, y, shipLength, 0, 1)){
+						board.placeShip(shipIndex, x, y, shipLength, 0, 1);
+						placed = true;
+					}
+				}
+				if (!placed){
+					return false;
+				}
+				shipIndex++;
+			}
+		}
+		return true;
+	}
+
+	//	Setters
+
+	/**
+	 * Records the result of a finished search: placed, or proved impossible. Searches that were stopped prove
+	 * nothing, and should not be recorded.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @param paramFeasible True if the ships were placed, false if they were proved impossible to place.
+	 */
+	public synchronized void recordResult(int paramNumberOfSquares, int[] paramShipNumbers, boolean paramFeasible){
+		results.put(paramNumberOfSquares + ":" + Arrays.toString(paramShipNumbers), paramFeasible ? FEASIBLE : INFEASIBLE);
+	}
+}
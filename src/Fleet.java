@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class Fleet. Reads and names fleets. Everywhere else a fleet is an int array holding the number of ships of each
+ * length, from Game.MIN_SHIP_SIZE up, as long as its longest ship needs; any length of at least MIN_SHIP_SIZE may
+ * have any number of ships, and whether they fit is up to the grid they are placed on.
+ *
+ * A fleet file is a text file with one "length count" pair per line, such as "6 1" for one ship of length 6. Blank
+ * lines, and anything after a '#', are ignored; a length given twice has its counts added up. The game's default
+ * fleet would be:
+ *
+ *   # length count
+ *   6 1
+ *   4 2
+ *   3 3
+ *   2 4
+ *
+ * The command-line programs take a fleet either as the name of a fleet file, or as the number of ships of each
+ * length from MIN_SHIP_SIZE up (see parseArguments()).
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class Fleet {
+
+	//	Constants
+	private static final char COMMENT = '#';
+	private static final int[] DEFAULT_SHIP_NUMBERS = {0, 4, 3, 2, 0, 1};
+	private static final int MAX_DIGITS = 9;
+
+	//	Getters
+
+	/**
+	 * Returns the game's default fleet: four 2-ships, three 3-ships, two 4-ships and one 6-ship.
+	 *
+	 * @return Returns a new array of the number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 */
+	public static int[] getDefaultShipNumbers(){
+		return DEFAULT_SHIP_NUMBERS.clone();
+	}
+	/**
+	 * Returns the number of ships in a fleet.
+	 *
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @return Returns the number of ships.
+	 */
+	public static int getNumberOfShips(int[] paramShipNumbers){
+		int numberOfShips = 0;
+		for (int i = 0; i < paramShipNumbers.length; i++){
+			numberOfShips += paramShipNumbers[i];
+		}
+		return numberOfShips;
+	}
+	/**
+	 * Returns the length of the longest ship in a fleet.
+	 *
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @return Returns the longest length, or 0 if the fleet has no ships.
+	 */
+	public static int getMaxShipLength(int[] paramShipNumbers){
+		for (int i = paramShipNumbers.length - 1; i >= 0; i--){
+			if (paramShipNumbers[i] > 0){
+				return Game.MIN_SHIP_SIZE + i;
+			}
+		}
+		return 0;
+	}
+	/**
+	 * Returns a short name for a fleet, for file names and printouts: "length x count" for each length that has
+	 * ships, longest first, such as "6x1_4x2_3x3_2x4" for the default fleet. Lengths without ships do not change the
+	 * name, so fleets that only differ by trailing zeroes have the same name.
+	 *
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @return Returns the name, or "none" if the fleet has no ships.
+	 */
+	public static String getName(int[] paramShipNumbers){
+		StringBuilder name = new StringBuilder();
+		for (int i = paramShipNumbers.length - 1; i >= 0; i--){
+			if (paramShipNumbers[i] > 0){
+				name.append(name.length() == 0 ? "" : "_").append(Game.MIN_SHIP_SIZE + i).append('x')
+						.append(paramShipNumbers[i]);
+			}
+		}
+		return name.length() == 0 ? "none" : name.toString();
+	}
+
+	//	Methods
+	/**
+	 * Reads a fleet file.
+	 *
+	 * @param paramFile The fleet file.
+	 * @return Returns the number of ships of each length, from Game.MIN_SHIP_SIZE up to the longest ship.
+	 * @throws IOException If the file can not be read, or has a line that is not a length and a count.
+	 */
+	public static int[] load(Path paramFile) throws IOException {
+		return parse(Files.readAllLines(paramFile, StandardCharsets.UTF_8), paramFile.toString());
+	}
+	/**
+	 * Parses the lines of a fleet file.
+	 *
+	 * @param paramLines The lines.
+	 * @param paramSource Where the lines came from, for the message.
+	 * @return Returns the number of ships of each length, from Game.MIN_SHIP_SIZE up to the longest ship.
+	 * @throws IOException If a line is not a length and a count.
+	 */
+	public static int[] parse(List<String> paramLines, String paramSource) throws IOException {
+		int[] shipNumbers = new int[0];
+		for (int i = 0; i < paramLines.size(); i++){
+			String line = paramLines.get(i);
+			int comment = line.indexOf(COMMENT);
+			if (comment >= 0){
+				line = line.substring(0, comment);
+			}
+			line = line.trim();
+			if (line.isEmpty()){
+				continue;
+			}
+			String[] words = line.split("\\s+");
+			int shipLength = words.length == 2 ? parseNumber(words[0]) : -1;
+			int count = words.length == 2 ? parseNumber(words[1]) : -1;
+			if (shipLength < Game.MIN_SHIP_SIZE || count < 0){
+				throw new IOException("Not a length and a count, on line " + (i + 1) + " of " + paramSource + ": "
+						+ paramLines.get(i));
+			}
+			if (shipLength - Game.MIN_SHIP_SIZE >= shipNumbers.length){
+				shipNumbers = Arrays.copyOf(shipNumbers, shipLength - Game.MIN_SHIP_SIZE + 1);
+			}
+			shipNumbers[shipLength - Game.MIN_SHIP_SIZE] += count;
+		}
+		return shipNumbers;
+	}
+	/**
+	 * Parses the fleet at the end of a command line. If the first fleet argument is a number, the arguments from
+	 * there on are the number of ships of each length, from Game.MIN_SHIP_SIZE up, and lengths past the last
+	 * argument have no ships. Otherwise it is the name of a fleet file. The default is used only without fleet
+	 * arguments.
+	 *
+	 * @param args The command-line arguments.
+	 * @param paramFirst Index of the first fleet argument.
+	 * @param paramDefault The fleet to use without fleet arguments.
+	 * @return Returns the number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @throws IOException If the fleet file can not be read.
+	 */
+	public static int[] parseArguments(String[] args, int paramFirst, int[] paramDefault) throws IOException {
+		if (args.length <= paramFirst){
+			return paramDefault.clone();
+		}
+		if (parseNumber(args[paramFirst]) < 0){
+			return load(Paths.get(args[paramFirst]));
+		}
+		int[] shipNumbers = new int[args.length - paramFirst];
+		for (int i = paramFirst; i < args.length; i++){
+			shipNumbers[i - paramFirst] = Integer.parseInt(args[i]);
+		}
+		return shipNumbers;
+	}
+	/**
+	 * Parses a number of 0 or more, without exceptions.
+	 *
+	 * @param paramText Text to parse.
+	 * @return Returns the number, or -1 if the text is not 1 to MAX_DIGITS digits.
+	 */
+	private static int parseNumber(String paramText){
+		if (paramText.isEmpty() || paramText.length() > MAX_DIGITS){
+			return -1;
+		}
+		int value = 0;
+		for (int i = 0; i < paramText.length(); i++){
+			char digit = paramText.charAt(i);
+			if (digit < '0' || digit > '9'){
+				return -1;
+			}
+			value = value * 10 + (digit - '0');
+		}
+		return value;
+	}
+}
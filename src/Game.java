@@ -0,0 +1,328 @@
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Object class Game. One game of Battleships without any window: a Board with a fleet placed on it, and the shots
+ * fired at it. shoot() tells what a shot did (MISS, HIT, SUNK or WIN), and the numbers of hits, misses and destroyed
+ * ships are kept as plain counters, so a shot allocates nothing. Bots and simulations can play games with it at full
+ * speed; the Swing game, Battleships, is just one more client that shows the results.
+ *
+ * A fleet is given as the number of ships of each length, from MIN_SHIP_SIZE up, for any lengths and counts (see
+ * Fleet); whether it fits is up to the grid.
+ *
+ * A Game made by newGame() keeps its own PlacementSolver and Random, and reset() places the same fleet again on the
+ * same Board, with the solver's scratch arrays kept from game to game. So many games in a row can be played on the
+ * same objects; a reset only makes a few small ones, for the seeds of its streams and for the JFR events of
+ * GameMetrics.
+ *
+ * Every game has a seed. A SplittableRandom seeded with it is split into one stream per use: placement of the ships
+ * (which also chooses their orientations), the shading of the grid, and the ComputerShooter. So a board is fully
+ * determined by its grid size, fleet and seed, and using one stream more or less never changes the others. Stream 1
+ * is not used, so that the other streams, and the boards of old seeds, stay as they were.
+ *
+ * A Game can also be reset to a board from a BoardLibrary, which reads it straight from a file placed earlier, with
+ * the seed it was placed with; this works for any Game of the library's grid size and fleet.
+ *
+ * A Game can be given a ShotJournal, which then gets the start of every game (its seed and where its ships are) and
+ * every shot fired, so that the game can be replayed later with ShotReplay.
+ *
+ * A Game is not thread safe; each thread should play its own.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class Game {
+
+	//	Constants
+	public static final int ALREADY_SHOT = -1;
+	public static final int MISS = 0;
+	public static final int HIT = 1;
+	public static final int SUNK = 2;
+	public static final int WIN = 3;
+	public static final int MIN_SHIP_SIZE = 1;
+	public static final int PLACEMENT_STREAM = 0;
+	public static final int SHADE_STREAM = 2;
+	public static final int SHOOTER_STREAM = 3;
+
+	//	Fields
+	private boolean counted = true;
+	private int numberOfDestroyed;
+	private int numberOfHits;
+	private int numberOfMisses;
+	private int numberOfSquares;
+	private long seed;
+	private Board board;
+	private PlacementSolver solver;
+	private Random placementRandom;
+	private ShotJournal journal;
+	private Ship[] ships;
+
+	//	Constructor
+	/**
+	 * Creates a Game on a Board that already has its ships placed, with nothing shot at yet.
+	 *
+	 * @param paramBoard Board with the ships placed on it.
+	 * @param paramShips The ships placed on the Board, in the order of their indexes on it.
+	 * @param paramSeed Seed the ships were placed with.
+	 */
+	public Game(Board paramBoard, Ship[] paramShips, long paramSeed){
+		board = paramBoard;
+		ships = paramShips;
+		seed = paramSeed;
+		numberOfSquares = board.getNumberOfSquares();
+	}
+	/**
+	 * Creates a Game, and places a fleet on a new Board with a PlacementSolver, using the streams of a seed.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from MIN_SHIP_SIZE up.
+	 * @param paramSeed Seed of the game.
+	 * @return Returns the new Game, or null if the ships can not be placed.
+	 */
+	public static Game newGame(int paramNumberOfSquares, int[] paramShipNumbers, long paramSeed){
+		Game game = new Game(new Board(paramNumberOfSquares), createShips(paramShipNumbers), paramSeed);
+		game.placementRandom = new Random();
+		game.solver = new PlacementSolver(paramNumberOfSquares, game.placementRandom);
+		if (!game.reset(paramSeed)){
+			return null;
+		}
+		return game;
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the Board the game is played on.
+	 *
+	 * @return Returns the Board.
+	 */
+	public Board getBoard(){
+		return board;
+	}
+	/**
+	 * Returns the seed the ships were placed with.
+	 *
+	 * @return Returns the seed.
+	 */
+	public long getSeed(){
+		return seed;
+	}
+	/**
+	 * Returns the seed of one stream of a game seed: the first value of the stream'th SplittableRandom split off a
+	 * SplittableRandom seeded with the game seed.
+	 *
+	 * @param paramSeed Seed of the game.
+	 * @param paramStream PLACEMENT_STREAM, SHADE_STREAM or SHOOTER_STREAM.
+	 * @return Returns the seed of the stream.
+	 */
+	public static long getStreamSeed(long paramSeed, int paramStream){
+		SplittableRandom gameRandom = new SplittableRandom(paramSeed);
+		SplittableRandom stream = gameRandom.split();
+		for (int i = 0; i < paramStream; i++){
+			stream = gameRandom.split();
+		}
+		return stream.nextLong();
+	}
+	/**
+	 * Returns the number of squares along each side of the grid.
+	 *
+	 * @return Returns the number of squares along each side of the grid.
+	 */
+	public int getNumberOfSquares(){
+		return numberOfSquares;
+	}
+	/**
+	 * Returns the number of ships in the fleet.
+	 *
+	 * @return Returns the number of ships.
+	 */
+	public int getNumberOfShips(){
+		return ships.length;
+	}
+	/**
+	 * Returns a ship of the fleet.
+	 *
+	 * @param paramShipIndex Index of the ship on the Board.
+	 * @return Returns the Ship.
+	 */
+	public Ship getShip(int paramShipIndex){
+		return ships[paramShipIndex];
+	}
+	/**
+	 * Returns the number of shots that hit a ship.
+	 *
+	 * @return Returns the number of hits.
+	 */
+	public int getNumberOfHits(){
+		return numberOfHits;
+	}
+	/**
+	 * Returns the number of shots that missed.
+	 *
+	 * @return Returns the number of misses.
+	 */
+	public int getNumberOfMisses(){
+		return numberOfMisses;
+	}
+	/**
+	 * Returns the number of ships destroyed.
+	 *
+	 * @return Returns the number of destroyed ships.
+	 */
+	public int getNumberOfDestroyed(){
+		return numberOfDestroyed;
+	}
+	/**
+	 * Returns the number of shots fired, not counting shots at squares already shot at.
+	 *
+	 * @return Returns the number of shots.
+	 */
+	public int getNumberOfShots(){
+		return numberOfHits + numberOfMisses;
+	}
+	/**
+	 * Returns true if every ship has been destroyed.
+	 *
+	 * @return Returns true if the game is over.
+	 */
+	public boolean isOver(){
+		return numberOfDestroyed == ships.length;
+	}
+	/**
+	 * Creates ships for a fleet, largest first, the order the placers expect.
+	 *
+	 * @param paramShipNumbers Number of ships of each length, from MIN_SHIP_SIZE up.
+	 * @return Returns the ships, largest first.
+	 */
+	public static Ship[] createShips(int[] paramShipNumbers){
+		int totalNumberOfShips = 0;
+		for (int i = 0; i < paramShipNumbers.length; i++){
+			totalNumberOfShips += paramShipNumbers[i];
+		}
+		Ship[] fleet = new Ship[totalNumberOfShips];
+		int shipCounter = 0;
+		for (int i = paramShipNumbers.length - 1; i >= 0; i--){
+			for (int j = 0; j < paramShipNumbers[i]; j++){
+				fleet[shipCounter] = new Ship(shipCounter, MIN_SHIP_SIZE + i);
+				shipCounter++;
+			}
+		}
+		return fleet;
+	}
+
+	//	Setters
+
+	/**
+	 * Shoots at the square (x, y). A shot at a square already shot at changes nothing.
+	 *
+	 * @param paramX X-position of the square.
+	 * @param paramY Y-position of the square.
+	 * @return Returns MISS, HIT, SUNK if the hit destroyed a ship, WIN if it destroyed the last ship, or
+	 * ALREADY_SHOT.
+	 */
+	public int shoot(int paramX, int paramY){
+		if (board.isShot(paramX, paramY)){
+			return ALREADY_SHOT;
+		}
+		int shipIndex = board.shoot(paramX, paramY);
+		if (counted){
+			GameMetrics.recordShot();
+		}
+		int result;
+		if (shipIndex < 0){
+			numberOfMisses++;
+			result = MISS;
+		}
+		else if (!ships[shipIndex].hitShip()){
+			numberOfHits++;
+			result = HIT;
+		}
+		else {
+			numberOfHits++;
+			numberOfDestroyed++;
+			result = isOver() ? WIN : SUNK;
+		}
+		if (journal != null){
+			journal.recordShot(board.getCellIndex(paramX, paramY), result);
+		}
+		return result;
+	}
+	/**
+	 * Sets whether the shots fired at this Game are counted in GameMetrics, as they are by default. Shots that only
+	 * replay old ones, as by ShotReplay, should not be.
+	 *
+	 * @param paramCounted False to leave the shots out of GameMetrics.
+	 */
+	public void setCounted(boolean paramCounted){
+		counted = paramCounted;
+	}
+	/**
+	 * Sets the ShotJournal this game and every later one (after reset()) is written to, and writes the start of this
+	 * game to it. Should be set before any shot is fired.
+	 *
+	 * @param paramJournal The journal, or null for none.
+	 */
+	public void setJournal(ShotJournal paramJournal){
+		journal = paramJournal;
+		if (journal != null){
+			journal.startGame(this);
+		}
+	}
+	/**
+	 * Starts a new game with the same fleet on the same Board: clears the Board and the counters, and places the
+	 * ships again. Only for Games made by newGame(). The time it takes is recorded in GameMetrics.
+	 *
+	 * @param paramSeed Seed of the new game.
+	 * @return Returns true if the ships were placed.
+	 */
+	public boolean reset(long paramSeed){
+		return reset(paramSeed, this);
+	}
+	/**
+	 * Starts a new game with the same fleet on the same Board, like reset(long), but places the ships with the
+	 * PlacementSolver and Random of another Game. Many Games played on one thread, such as the sessions of a
+	 * GameServer, can thus share one solver instead of keeping one each; the board is the same as if it had been
+	 * placed by this Game.
+	 *
+	 * @param paramSeed Seed of the new game.
+	 * @param paramPlacer A Game made by newGame(), of the same grid size, that is not used on another thread.
+	 * @return Returns true if the ships were placed.
+	 */
+	public boolean reset(long paramSeed, Game paramPlacer){
+		GameMetrics.ResetEvent event = GameMetrics.beginReset();
+		seed = paramSeed;
+		paramPlacer.placementRandom.setSeed(getStreamSeed(seed, PLACEMENT_STREAM));
+		board.clear();
+		for (int i = 0; i < ships.length; i++){
+			ships[i].resetHits();
+		}
+		numberOfHits = 0;
+		numberOfMisses = 0;
+		numberOfDestroyed = 0;
+		boolean placed = paramPlacer.solver.placeShips(board, ships);
+		if (placed && journal != null){
+			journal.startGame(this);
+		}
+		GameMetrics.endReset(event, numberOfSquares, seed, placed);
+		return placed;
+	}
+	/**
+	 * Starts a new game with a board from a BoardLibrary: clears the counters, and loads the board onto this Game's
+	 * Board and ships. The library must be for this Game's grid size and fleet.
+	 *
+	 * @param paramLibrary The BoardLibrary.
+	 * @param paramIndex Index of the board in the library.
+	 */
+	public void reset(BoardLibrary paramLibrary, long paramIndex){
+		GameMetrics.ResetEvent event = GameMetrics.beginReset();
+		seed = paramLibrary.getSeed(paramIndex);
+		numberOfHits = 0;
+		numberOfMisses = 0;
+		numberOfDestroyed = 0;
+		paramLibrary.loadBoard(paramIndex, board, ships);
+		if (journal != null){
+			journal.startGame(this);
+		}
+		GameMetrics.endReset(event, numberOfSquares, seed, true);
+	}
+}
@@ -0,0 +1,23 @@
+/**
+ * Interface for consumers of game events. A GameEventQueue hands its pending events to each listener one by one,
+ * then tells it that the batch is done, so a listener can count during the batch and update its view once at the end.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public interface GameEventListener {
+
+	/**
+	 * Handles one event.
+	 *
+	 * @param paramType Type of event: GameEventQueue.SHOT_MISSED, SHOT_HIT, SHIP_SUNK or GAME_WON.
+	 * @param paramX X-position of the square shot at.
+	 * @param paramY Y-position of the square shot at.
+	 * @param paramShipIndex Index of the ship hit or sunk, or -1 for a miss.
+	 */
+	public void handleEvent(int paramType, int paramX, int paramY, int paramShipIndex);
+	/**
+	 * Called after the last event of a batch.
+	 */
+	public void finishBatch();
+}
@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+
+/**
+ * Object class GameEventQueue. Carries game events (a shot missed, a shot hit, a ship was sunk, the game was won)
+ * from where they happen to the GameEventListeners that show or log them, in batches. Events are written into a
+ * preallocated ring buffer of primitive arrays, so publishing allocates nothing; flush() hands all pending events to
+ * each listener in order, then ends the batch. If the buffer is full, it is flushed at once, so no event is ever lost.
+ *
+ * The queue is not thread safe; it is meant to be used from one thread, the Event Dispatch Thread in the game.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class GameEventQueue {
+
+	//	Constants
+	public static final int SHOT_MISSED = 0;
+	public static final int SHOT_HIT = 1;
+	public static final int SHIP_SUNK = 2;
+	public static final int GAME_WON = 3;
+
+	//	Fields
+	private int mask;
+	private long head;
+	private long tail;
+	private int[] types;
+	private int[] xs;
+	private int[] ys;
+	private int[] shipIndexes;
+	private ArrayList<GameEventListener> listeners;
+
+	//	Constructor
+	/**
+	 * Creates an empty GameEventQueue.
+	 *
+	 * @param paramCapacity Number of events the buffer holds; rounded up to a power of two.
+	 */
+	public GameEventQueue(int paramCapacity){
+		int capacity = Integer.highestOneBit(Math.max(1, paramCapacity - 1)) << 1;
+		mask = capacity - 1;
+		types = new int[capacity];
+		xs = new int[capacity];
+		ys = new int[capacity];
+		shipIndexes = new int[capacity];
+		listeners = new ArrayList<GameEventListener>();
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of events published but not yet flushed.
+	 *
+	 * @return Returns the number of pending events.
+	 */
+	public int getNumberOfPendingEvents(){
+		return (int) (tail - head);
+	}
+
+	//	Setters
+
+	/**
+	 * Adds a listener, which will get all events flushed from now on.
+	 *
+	 * @param paramListener Listener to add.
+	 */
+	public void addListener(GameEventListener paramListener){
+		listeners.add(paramListener);
+	}
+	/**
+	 * Adds an event to the queue, flushing first if the buffer is full.
+	 *
+	 * @param paramType Type of event: SHOT_MISSED, SHOT_HIT, SHIP_SUNK or GAME_WON.
+	 * @param paramX X-position of the square shot at.
+	 * @param paramY Y-position of the square shot at.
+	 * @param paramShipIndex Index of the ship hit or sunk, or -1 for a miss.
+	 */
+	public void publish(int paramType, int paramX, int paramY, int paramShipIndex){
+		if (tail - head > mask){
+			flush();
+		}
+		int slot = (int) tail & mask;
+		types[slot] = paramType;
+		xs[slot] = paramX;
+		ys[slot] = paramY;
+		shipIndexes[slot] = paramShipIndex;
+		tail++;
+	}
+	/**
+	 * Hands all pending events to every listener, in the order they were published, then ends the batch for every
+	 * listener. Does nothing if no events are pending.
+	 */
+	public void flush(){
+		if (head == tail){
+			return;
+		}
+		long end = tail;
+		for (int i = 0; i < listeners.size(); i++){
+			GameEventListener listener = listeners.get(i);
+			for (long event = head; event < end; event++){
+				int slot = (int) event & mask;
+				listener.handleEvent(types[slot], xs[slot], ys[slot], shipIndexes[slot]);
+			}
+		}
+		head = end;
+		for (int i = 0; i < listeners.size(); i++){
+			listeners.get(i).finishBatch();
+		}
+	}
+	/**
+	 * Drops all pending events without handing them to the listeners.
+	 */
+	public void clear(){
+		head = tail;
+	}
+}
@@ -0,0 +1,546 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Object class GameMetrics. Counts what placing ships and shooting costs, in the whole program: placements (placed,
+ * proved impossible, or stopped), with their tries, backtracks and give-ups, the latency of each placement and of
+ * each new game, BoardPool hits, misses and boards placed, and shots fired. A placement is one call to a ShipPlacer
+ * for a game: a PlacementSolver's search, or a PortfolioPlacer's race as a whole, whose racing searches are not
+ * counted one by one. Boards a BoardPool places in the background are only counted as pool fills, so that the
+ * placement latencies are those a game waits for. The counters are LongAdders and the latency histograms have one
+ * atomic bucket per power of two nanoseconds, so recording is cheap from any thread.
+ *
+ * The counters are exported in two ways, both for standard JDK tooling. register() makes them an MXBean on the
+ * platform MBean server, named OBJECT_NAME. And every placement and new game is a JFR event (PlacementEvent,
+ * ResetEvent), with a periodic ShotRateEvent every second; JFR only records them while a recording is running, for
+ * example one started with -XX:StartFlightRecording or jcmd.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class GameMetrics implements GameMetricsMXBean {
+
+	//	Constants
+	public static final String OBJECT_NAME = "Battleships:type=GameMetrics";
+	private static final int NUMBER_OF_BUCKETS = 64;
+	private static final long RATE_WINDOW = 1000000000L;
+	private static final GameMetrics METRICS = new GameMetrics();
+
+	//	Fields
+	private static boolean registered;
+	private double shotsPerSecond;
+	private long rateSampleShots;
+	private long rateSampleTime;
+	private AtomicLongArray placementLatencies;
+	private AtomicLongArray resetLatencies;
+	private LongAdder numberOfBacktracks;
+	private LongAdder numberOfBoardPoolFills;
+	private LongAdder numberOfBoardPoolHits;
+	private LongAdder numberOfBoardPoolMisses;
+	private LongAdder numberOfFailedPlacements;
+	private LongAdder numberOfGiveUps;
+	private LongAdder numberOfPlacements;
+	private LongAdder numberOfResets;
+	private LongAdder numberOfShots;
+	private LongAdder numberOfStoppedPlacements;
+	private LongAdder numberOfTries;
+	private LongAdder totalPlacementLatency;
+	private LongAdder totalResetLatency;
+
+	//	Constructor
+	/**
+	 * Creates the GameMetrics, with every counter at zero. There is only one, METRICS.
+	 */
+	private GameMetrics(){
+		placementLatencies = new AtomicLongArray(NUMBER_OF_BUCKETS);
+		resetLatencies = new AtomicLongArray(NUMBER_OF_BUCKETS);
+		numberOfBacktracks = new LongAdder();
+		numberOfBoardPoolFills = new LongAdder();
+		numberOfBoardPoolHits = new LongAdder();
+		numberOfBoardPoolMisses = new LongAdder();
+		numberOfFailedPlacements = new LongAdder();
+		numberOfGiveUps = new LongAdder();
+		numberOfPlacements = new LongAdder();
+		numberOfResets = new LongAdder();
+		numberOfShots = new LongAdder();
+		numberOfStoppedPlacements = new LongAdder();
+		numberOfTries = new LongAdder();
+		totalPlacementLatency = new LongAdder();
+		totalResetLatency = new LongAdder();
+		rateSampleTime = System.nanoTime();
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the GameMetrics of the program.
+	 *
+	 * @return Returns the GameMetrics.
+	 */
+	public static GameMetrics getMetrics(){
+		return METRICS;
+	}
+	/**
+	 * Returns a percentile of sorted values, such as the latencies or shot counts of a benchmark run. Not one of the
+	 * program's counters, but shared by the programs that print their own measurements next to them.
+	 *
+	 * @param paramSorted Sorted values.
+	 * @param paramPercentile Percentile, 0 to 100.
+	 * @return Returns the value at the percentile, or 0 if there are no values.
+	 */
+	public static long getPercentile(long[] paramSorted, double paramPercentile){
+		if (paramSorted.length == 0){
+			return 0;
+		}
+		int index = (int) Math.ceil(paramPercentile / 100.0 * paramSorted.length) - 1;
+		return paramSorted[Math.max(0, Math.min(paramSorted.length - 1, index))];
+	}
+	/**
+	 * Returns the number of fleets placed.
+	 *
+	 * @return Returns the number of placements that placed every ship.
+	 */
+	public long getNumberOfPlacements(){
+		return numberOfPlacements.sum();
+	}
+	/**
+	 * Returns the number of placements that proved a fleet can not be placed.
+	 *
+	 * @return Returns the number of failed placements.
+	 */
+	public long getNumberOfFailedPlacements(){
+		return numberOfFailedPlacements.sum();
+	}
+	/**
+	 * Returns the number of placements that were stopped, or ran out of time, before they could finish.
+	 *
+	 * @return Returns the number of stopped placements.
+	 */
+	public long getNumberOfStoppedPlacements(){
+		return numberOfStoppedPlacements.sum();
+	}
+	/**
+	 * Returns the number of placements of single ships tried, by all placements.
+	 *
+	 * @return Returns the number of tries.
+	 */
+	public long getNumberOfTries(){
+		return numberOfTries.sum();
+	}
+	/**
+	 * Returns the number of times an already placed ship had to be taken back, by all placements.
+	 *
+	 * @return Returns the number of backtracks.
+	 */
+	public long getNumberOfBacktracks(){
+		return numberOfBacktracks.sum();
+	}
+	/**
+	 * Returns the number of times a random search gave up and was restarted with new shuffles.
+	 *
+	 * @return Returns the number of give-ups.
+	 */
+	public long getNumberOfGiveUps(){
+		return numberOfGiveUps.sum();
+	}
+	/**
+	 * Returns the mean time of a placement, whatever its outcome.
+	 *
+	 * @return Returns the mean placement latency, in milliseconds.
+	 */
+	public double getPlacementLatencyMean(){
+		long placements = getNumberOfPlacements() + getNumberOfFailedPlacements() + getNumberOfStoppedPlacements();
+		return totalPlacementLatency.sum() / 1e6 / Math.max(1, placements);
+	}
+	/**
+	 * Returns the median time of a placement, rounded up to a power of two nanoseconds.
+	 *
+	 * @return Returns the median placement latency, in milliseconds.
+	 */
+	public double getPlacementLatencyMedian(){
+		return getPercentile(placementLatencies, 50);
+	}
+	/**
+	 * Returns the 99th percentile time of a placement, rounded up to a power of two nanoseconds.
+	 *
+	 * @return Returns the 99th percentile placement latency, in milliseconds.
+	 */
+	public double getPlacementLatency99thPercentile(){
+		return getPercentile(placementLatencies, 99);
+	}
+	/**
+	 * Returns the number of placements per latency bucket: bucket i counts the placements that took less than 2^i
+	 * nanoseconds, but at least 2^(i - 1).
+	 *
+	 * @return Returns the placement latency histogram.
+	 */
+	public long[] getPlacementLatencyHistogram(){
+		return getHistogram(placementLatencies);
+	}
+	/**
+	 * Returns the number of new games asked for, whether or not their fleet could be placed.
+	 *
+	 * @return Returns the number of resets.
+	 */
+	public long getNumberOfResets(){
+		return numberOfResets.sum();
+	}
+	/**
+	 * Returns the mean time from asking for a new game until its fleet is placed.
+	 *
+	 * @return Returns the mean reset latency, in milliseconds.
+	 */
+	public double getResetLatencyMean(){
+		return totalResetLatency.sum() / 1e6 / Math.max(1, getNumberOfResets());
+	}
+	/**
+	 * Returns the median time from asking for a new game until its fleet is placed, rounded up to a power of two
+	 * nanoseconds.
+	 *
+	 * @return Returns the median reset latency, in milliseconds.
+	 */
+	public double getResetLatencyMedian(){
+		return getPercentile(resetLatencies, 50);
+	}
+	/**
+	 * Returns the 99th percentile time from asking for a new game until its fleet is placed, rounded up to a power
+	 * of two nanoseconds.
+	 *
+	 * @return Returns the 99th percentile reset latency, in milliseconds.
+	 */
+	public double getResetLatency99thPercentile(){
+		return getPercentile(resetLatencies, 99);
+	}
+	/**
+	 * Returns the number of resets per latency bucket, as for getPlacementLatencyHistogram().
+	 *
+	 * @return Returns the reset latency histogram.
+	 */
+	public long[] getResetLatencyHistogram(){
+		return getHistogram(resetLatencies);
+	}
+	/**
+	 * Returns the number of times a BoardPool had a ready game.
+	 *
+	 * @return Returns the number of board pool hits.
+	 */
+	public long getNumberOfBoardPoolHits(){
+		return numberOfBoardPoolHits.sum();
+	}
+	/**
+	 * Returns the number of times a BoardPool had no ready game.
+	 *
+	 * @return Returns the number of board pool misses.
+	 */
+	public long getNumberOfBoardPoolMisses(){
+		return numberOfBoardPoolMisses.sum();
+	}
+	/**
+	 * Returns the number of boards placed in the background by BoardPools, which are not counted as placements.
+	 *
+	 * @return Returns the number of board pool fills.
+	 */
+	public long getNumberOfBoardPoolFills(){
+		return numberOfBoardPoolFills.sum();
+	}
+	/**
+	 * Returns the number of shots fired in all games, not counting shots at squares already shot at.
+	 *
+	 * @return Returns the number of shots.
+	 */
+	public long getNumberOfShots(){
+		return numberOfShots.sum();
+	}
+	/**
+	 * Returns the number of shots fired per second. The rate is measured between two samples at least RATE_WINDOW
+	 * apart: if the last sample is older than that, a new one is taken, and the rate since the last one is kept.
+	 * Every reader (JMX clients and the ShotRateEvent) shares the samples.
+	 *
+	 * @return Returns the number of shots per second, over the last second or more.
+	 */
+	public synchronized double getShotsPerSecond(){
+		long now = System.nanoTime();
+		long elapsed = now - rateSampleTime;
+		if (elapsed >= RATE_WINDOW){
+			long shots = numberOfShots.sum();
+			shotsPerSecond = (shots - rateSampleShots) * 1e9 / elapsed;
+			rateSampleShots = shots;
+			rateSampleTime = now;
+		}
+		return shotsPerSecond;
+	}
+	/**
+	 * Returns a copy of a latency histogram.
+	 *
+	 * @param paramBuckets Buckets of the histogram.
+	 * @return Returns the number of latencies in each bucket.
+	 */
+	private static long[] getHistogram(AtomicLongArray paramBuckets){
+		long[] histogram = new long[NUMBER_OF_BUCKETS];
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++){
+			histogram[i] = paramBuckets.get(i);
+		}
+		return histogram;
+	}
+	/**
+	 * Returns a percentile of a latency histogram: the upper bound of the bucket that holds it.
+	 *
+	 * @param paramBuckets Buckets of the histogram.
+	 * @param paramPercentile Percentile, 0 to 100.
+	 * @return Returns the percentile, in milliseconds, or 0 if nothing was recorded.
+	 */
+	private static double getPercentile(AtomicLongArray paramBuckets, double paramPercentile){
+		long[] histogram = getHistogram(paramBuckets);
+		long count = 0;
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++){
+			count += histogram[i];
+		}
+		if (count == 0){
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(count * paramPercentile / 100));
+		long seen = 0;
+		int bucket = 0;
+		while (seen + histogram[bucket] < rank){
+			seen += histogram[bucket];
+			bucket++;
+		}
+		return Math.scalb(1.0, bucket) / 1e6;
+	}
+	/**
+	 * Returns the histogram bucket of a latency: the number of bits needed to write it.
+	 *
+	 * @param paramNanos Latency, in nanoseconds.
+	 * @return Returns the bucket index.
+	 */
+	private static int getBucket(long paramNanos){
+		return Math.min(NUMBER_OF_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, paramNanos)));
+	}
+
+	//	Setters
+
+	/**
+	 * Registers the GameMetrics as an MXBean on the platform MBean server, and its ShotRateEvent with JFR. Does
+	 * nothing if already registered. The counters count whether or not they are registered; programs that want
+	 * them watched call this once at start.
+	 */
+	public static synchronized void register(){
+		if (registered){
+			return;
+		}
+		registered = true;
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(METRICS, new ObjectName(OBJECT_NAME));
+		}
+		catch (JMException e){
+			//	Registered already, by another class loader; its counters are the ones shown.
+			e.printStackTrace();
+		}
+		FlightRecorder.addPeriodicEvent(ShotRateEvent.class, new Runnable(){
+			public void run(){
+				ShotRateEvent event = new ShotRateEvent();
+				event.numberOfShots = METRICS.getNumberOfShots();
+				event.shotsPerSecond = METRICS.getShotsPerSecond();
+				event.commit();
+			}
+		});
+	}
+	/**
+	 * Starts timing a placement. The ShipPlacer hands the returned event to endPlacement() when done.
+	 *
+	 * @return Returns the PlacementEvent of the placement, begun now.
+	 */
+	public static PlacementEvent beginPlacement(){
+		PlacementEvent event = new PlacementEvent();
+		event.begin();
+		event.beginTime = System.nanoTime();
+		return event;
+	}
+	/**
+	 * Records a finished placement, and commits its PlacementEvent if JFR is recording it.
+	 *
+	 * @param paramEvent The event from beginPlacement().
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramNumberOfShips Number of ships in the fleet.
+	 * @param paramPlaced True if every ship was placed.
+	 * @param paramStopped True if the placement was stopped, or ran out of time.
+	 * @param paramTries Number of placements tried.
+	 * @param paramBacktracks Number of ships taken back.
+	 * @param paramGiveUps Number of random searches given up and restarted.
+	 */
+	public static void endPlacement(PlacementEvent paramEvent, int paramNumberOfSquares, int paramNumberOfShips,
+			boolean paramPlaced, boolean paramStopped, long paramTries, long paramBacktracks, long paramGiveUps){
+		long latency = System.nanoTime() - paramEvent.beginTime;
+		if (paramPlaced){
+			METRICS.numberOfPlacements.increment();
+		}
+		else if (paramStopped){
+			METRICS.numberOfStoppedPlacements.increment();
+		}
+		else {
+			METRICS.numberOfFailedPlacements.increment();
+		}
+		METRICS.numberOfTries.add(paramTries);
+		METRICS.numberOfBacktracks.add(paramBacktracks);
+		METRICS.numberOfGiveUps.add(paramGiveUps);
+		METRICS.totalPlacementLatency.add(latency);
+		METRICS.placementLatencies.incrementAndGet(getBucket(latency));
+		paramEvent.end();
+		if (paramEvent.shouldCommit()){
+			paramEvent.numberOfSquares = paramNumberOfSquares;
+			paramEvent.numberOfShips = paramNumberOfShips;
+			paramEvent.placed = paramPlaced;
+			paramEvent.stopped = paramStopped;
+			paramEvent.numberOfTries = paramTries;
+			paramEvent.numberOfBacktracks = paramBacktracks;
+			paramEvent.numberOfGiveUps = paramGiveUps;
+			paramEvent.commit();
+		}
+	}
+	/**
+	 * Starts timing a new game, from when it is asked for. The caller hands the returned event to endReset() when
+	 * its fleet is placed.
+	 *
+	 * @return Returns the ResetEvent of the new game, begun now.
+	 */
+	public static ResetEvent beginReset(){
+		ResetEvent event = new ResetEvent();
+		event.begin();
+		event.beginTime = System.nanoTime();
+		return event;
+	}
+	/**
+	 * Records a new game with its fleet placed (or not), and commits its ResetEvent if JFR is recording it.
+	 *
+	 * @param paramEvent The event from beginReset().
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramSeed Seed of the new game.
+	 * @param paramPlaced True if every ship was placed.
+	 */
+	public static void endReset(ResetEvent paramEvent, int paramNumberOfSquares, long paramSeed, boolean paramPlaced){
+		long latency = System.nanoTime() - paramEvent.beginTime;
+		METRICS.numberOfResets.increment();
+		METRICS.totalResetLatency.add(latency);
+		METRICS.resetLatencies.incrementAndGet(getBucket(latency));
+		paramEvent.end();
+		if (paramEvent.shouldCommit()){
+			paramEvent.numberOfSquares = paramNumberOfSquares;
+			paramEvent.seed = paramSeed;
+			paramEvent.placed = paramPlaced;
+			paramEvent.commit();
+		}
+	}
+	/**
+	 * Records a BoardPool being asked for a Game.
+	 *
+	 * @param paramHit True if the pool had a ready Game.
+	 */
+	public static void recordBoardPoolTake(boolean paramHit){
+		if (paramHit){
+			METRICS.numberOfBoardPoolHits.increment();
+		}
+		else {
+			METRICS.numberOfBoardPoolMisses.increment();
+		}
+	}
+	/**
+	 * Records a board placed in the background by a BoardPool.
+	 */
+	public static void recordBoardPoolFill(){
+		METRICS.numberOfBoardPoolFills.increment();
+	}
+	/**
+	 * Records a shot fired at a square not shot at before.
+	 */
+	public static void recordShot(){
+		METRICS.numberOfShots.increment();
+	}
+
+	/**
+	 * JFR event of one placement, lasting as long as the placement.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	@Name("battleships.Placement")
+	@Label("Placement")
+	@Description("A placement of a fleet for a game, by a PlacementSolver or a PortfolioPlacer")
+	@Category("Battleships")
+	@StackTrace(false)
+	public static class PlacementEvent extends Event {
+
+		//	Fields
+		private transient long beginTime;
+		@Label("Grid Size")
+		private int numberOfSquares;
+		@Label("Ships")
+		private int numberOfShips;
+		@Label("Placed")
+		private boolean placed;
+		@Label("Stopped")
+		private boolean stopped;
+		@Label("Tries")
+		private long numberOfTries;
+		@Label("Backtracks")
+		private long numberOfBacktracks;
+		@Label("Give-ups")
+		private long numberOfGiveUps;
+	}
+
+	/**
+	 * JFR event of one new game, lasting from when it was asked for until its fleet was placed.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	@Name("battleships.Reset")
+	@Label("Reset")
+	@Description("A new game, until its fleet is placed")
+	@Category("Battleships")
+	@StackTrace(false)
+	public static class ResetEvent extends Event {
+
+		//	Fields
+		private transient long beginTime;
+		@Label("Grid Size")
+		private int numberOfSquares;
+		@Label("Seed")
+		private long seed;
+		@Label("Placed")
+		private boolean placed;
+	}
+
+	/**
+	 * Periodic JFR event with the number of shots fired, in total and per second.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	@Name("battleships.ShotRate")
+	@Label("Shot Rate")
+	@Description("Shots fired in all games")
+	@Category("Battleships")
+	@Period("1 s")
+	@StackTrace(false)
+	public static class ShotRateEvent extends Event {
+
+		//	Fields
+		@Label("Shots")
+		private long numberOfShots;
+		@Label("Shots per Second")
+		private double shotsPerSecond;
+	}
+}
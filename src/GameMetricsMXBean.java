@@ -0,0 +1,133 @@
+/**
+ * Management interface of GameMetrics, as seen over JMX (for example in JConsole or VisualVM, under
+ * Battleships:type=GameMetrics). Counts are totals since the program started; latencies are in milliseconds.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public interface GameMetricsMXBean {
+
+	/**
+	 * Returns the number of fleets placed.
+	 *
+	 * @return Returns the number of placements that placed every ship.
+	 */
+	public long getNumberOfPlacements();
+	/**
+	 * Returns the number of placements that proved a fleet can not be placed.
+	 *
+	 * @return Returns the number of failed placements.
+	 */
+	public long getNumberOfFailedPlacements();
+	/**
+	 * Returns the number of placements that were stopped, or ran out of time, before they could finish.
+	 *
+	 * @return Returns the number of stopped placements.
+	 */
+	public long getNumberOfStoppedPlacements();
+	/**
+	 * Returns the number of placements of single ships tried, by all placements.
+	 *
+	 * @return Returns the number of tries.
+	 */
+	public long getNumberOfTries();
+	/**
+	 * Returns the number of times an already placed ship had to be taken back, by all placements.
+	 *
+	 * @return Returns the number of backtracks.
+	 */
+	public long getNumberOfBacktracks();
+	/**
+	 * Returns the number of times a random search gave up and was restarted with new shuffles.
+	 *
+	 * @return Returns the number of give-ups.
+	 */
+	public long getNumberOfGiveUps();
+	/**
+	 * Returns the mean time of a placement, whatever its outcome.
+	 *
+	 * @return Returns the mean placement latency, in milliseconds.
+	 */
+	public double getPlacementLatencyMean();
+	/**
+	 * Returns the median time of a placement, rounded up to a power of two nanoseconds.
+	 *
+	 * @return Returns the median placement latency, in milliseconds.
+	 */
+	public double getPlacementLatencyMedian();
+	/**
+	 * Returns the 99th percentile time of a placement, rounded up to a power of two nanoseconds.
+	 *
+	 * @return Returns the 99th percentile placement latency, in milliseconds.
+	 */
+	public double getPlacementLatency99thPercentile();
+	/**
+	 * Returns the number of placements per latency bucket: bucket i counts the placements that took less than 2^i
+	 * nanoseconds, but at least 2^(i - 1).
+	 *
+	 * @return Returns the placement latency histogram.
+	 */
+	public long[] getPlacementLatencyHistogram();
+	/**
+	 * Returns the number of new games asked for, whether or not their fleet could be placed.
+	 *
+	 * @return Returns the number of resets.
+	 */
+	public long getNumberOfResets();
+	/**
+	 * Returns the mean time from asking for a new game until its fleet is placed.
+	 *
+	 * @return Returns the mean reset latency, in milliseconds.
+	 */
+	public double getResetLatencyMean();
+	/**
+	 * Returns the median time from asking for a new game until its fleet is placed, rounded up to a power of two
+	 * nanoseconds.
+	 *
+	 * @return Returns the median reset latency, in milliseconds.
+	 */
+	public double getResetLatencyMedian();
+	/**
+	 * Returns the 99th percentile time from asking for a new game until its fleet is placed, rounded up to a power
+	 * of two nanoseconds.
+	 *
+	 * @return Returns the 99th percentile reset latency, in milliseconds.
+	 */
+	public double getResetLatency99thPercentile();
+	/**
+	 * Returns the number of resets per latency bucket, as for getPlacementLatencyHistogram().
+	 *
+	 * @return Returns the reset latency histogram.
+	 */
+	public long[] getResetLatencyHistogram();
+	/**
+	 * Returns the number of times a BoardPool had a ready game.
+	 *
+	 * @return Returns the number of board pool hits.
+	 */
+	public long getNumberOfBoardPoolHits();
+	/**
+	 * Returns the number of times a BoardPool had no ready game.
+	 *
+	 * @return Returns the number of board pool misses.
+	 */
+	public long getNumberOfBoardPoolMisses();
+	/**
+	 * Returns the number of boards placed in the background by BoardPools, which are not counted as placements.
+	 *
+	 * @return Returns the number of board pool fills.
+	 */
+	public long getNumberOfBoardPoolFills();
+	/**
+	 * Returns the number of shots fired in all games, not counting shots at squares already shot at.
+	 *
+	 * @return Returns the number of shots.
+	 */
+	public long getNumberOfShots();
+	/**
+	 * Returns the number of shots fired per second, over the last second or more.
+	 *
+	 * @return Returns the number of shots per second.
+	 */
+	public double getShotsPerSecond();
+}
@@ -0,0 +1,666 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Object class GameServer. Hosts games of Battleships over TCP, headless, for as many connections at once as the
+ * operating system allows: every connection is a session with a Game of its own, played with a line protocol.
+ *
+ * The server runs a few event loops, each a thread with a java.nio Selector; the first one also accepts new
+ * connections, and hands them out to the loops in turn. A session never blocks its loop: it reads whatever has
+ * arrived, answers every complete line, and writes as much as the socket takes, waiting for the socket to be
+ * writable before it reads more if its output is full. Every loop places ships with one PlacementSolver, shared by
+ * its sessions (see Game.reset(long, Game)), and draws the seeds of its games from a SplittableRandom of its own.
+ * So a session holds just its Game (a Board and its ships) and two small buffers, INPUT_SIZE and OUTPUT_SIZE bytes;
+ * a line that does not fit in the input buffer is an error, and ends the session. Requests and answers are parsed
+ * and written straight from and to the buffers, so answering a shot allocates nothing. A new game reuses the
+ * session's Game and the loop's solver, and only makes the few small objects of Game.reset().
+ *
+ * The protocol is plain text, one ASCII line per request and per answer, ending in '\n':
+ * on connecting, and after "NEW", the server places a new game and answers "READY [grid size] [number of ships]";
+ * "SHOT [x] [y]" is answered by "MISS", "HIT", "SUNK", "WIN [shots] [seed]" when the last ship sinks, "AGAIN" for a
+ * square already shot at, or "OVER" if the game is already won;
+ * "QUIT" is answered by "BYE", and the server closes the connection;
+ * anything else is answered by "ERROR". A client may send many requests without waiting for the answers.
+ *
+ * Usage: java GameServer [port] [threads] [seed] [grid size] [fleet]
+ *
+ * The fleet is a fleet file, or the number of ships of each length from Game.MIN_SHIP_SIZE up (see Fleet).
+ *
+ * A failing connection only ends its own session: if accepting fails (most often because the process is out of file
+ * descriptors), the first loop logs it and stops accepting for ACCEPT_BACKOFF milliseconds, the pending connections
+ * waiting in the backlog meanwhile, and a session whose handling fails is closed, without ending its loop.
+ *
+ * The program serves until it is killed, and prints the number of sessions and requests every STATUS_INTERVAL.
+ * LoadTestClient plays many games against it at once, and measures throughput and latency.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class GameServer {
+
+	//	Constants
+	public static final int DEFAULT_PORT = 7010;
+	private static final long ACCEPT_BACKOFF = 100;
+	private static final int BACKLOG = 4096;
+	private static final int DEFAULT_NUMBER_OF_SQUARES = 10;
+	private static final int INPUT_SIZE = 128;
+	private static final int MAX_ANSWER_SIZE = 48;
+	private static final int OUTPUT_SIZE = 512;
+	private static final long STATUS_INTERVAL = 5000;
+	private static final byte[] AGAIN = getAscii("AGAIN\n");
+	private static final byte[] BYE = getAscii("BYE\n");
+	private static final byte[] ERROR = getAscii("ERROR\n");
+	private static final byte[] HIT = getAscii("HIT\n");
+	private static final byte[] MISS = getAscii("MISS\n");
+	private static final byte[] NEW = getAscii("NEW");
+	private static final byte[] OVER = getAscii("OVER\n");
+	private static final byte[] QUIT = getAscii("QUIT");
+	private static final byte[] READY = getAscii("READY ");
+	private static final byte[] SHOT = getAscii("SHOT ");
+	private static final byte[] SUNK = getAscii("SUNK\n");
+	private static final byte[] WIN = getAscii("WIN ");
+
+	//	Fields
+	private volatile boolean running;
+	private int numberOfShips;
+	private int numberOfSquares;
+	private int[] shipNumbers;
+	private AtomicInteger numberOfSessions;
+	private LongAdder numberOfGames;
+	private LongAdder numberOfRequests;
+	private EventLoop[] loops;
+	private ServerSocketChannel serverChannel;
+
+	//	Constructor
+	/**
+	 * Creates a GameServer, and opens its Selectors. Nothing is listened to until start() is called.
+	 *
+	 * @param paramNumberOfLoops Number of event loops (threads).
+	 * @param paramNumberOfSquares Number of squares along each side of every game's grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up; must be placeable.
+	 * @param paramSeed Seed the seeds of all games are drawn from.
+	 * @throws IOException If a Selector can not be opened.
+	 */
+	public GameServer(int paramNumberOfLoops, int paramNumberOfSquares, int[] paramShipNumbers, long paramSeed)
+			throws IOException {
+		numberOfSquares = paramNumberOfSquares;
+		shipNumbers = paramShipNumbers.clone();
+		numberOfShips = Game.createShips(shipNumbers).length;
+		numberOfSessions = new AtomicInteger();
+		numberOfGames = new LongAdder();
+		numberOfRequests = new LongAdder();
+		SplittableRandom seedRandom = new SplittableRandom(paramSeed);
+		loops = new EventLoop[Math.max(1, paramNumberOfLoops)];
+		for (int i = 0; i < loops.length; i++){
+			Game placer = Game.newGame(numberOfSquares, shipNumbers, paramSeed);
+			if (placer == null){
+				throw new IllegalArgumentException("Ships can not be placed");
+			}
+			loops[i] = new EventLoop(i, placer, seedRandom.split());
+		}
+	}
+
+	//	Main
+	/**
+	 * Runs a GameServer until the program is killed, printing its status now and then.
+	 *
+	 * @param args Optional port, number of threads, seed, grid size and fleet.
+	 */
+	public static void main(String[] args){
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int numberOfThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+		int numberOfSquares = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_NUMBER_OF_SQUARES;
+		int[] shipNumbers;
+		try {
+			shipNumbers = Fleet.parseArguments(args, 4, Fleet.getDefaultShipNumbers());
+		}
+		catch (IOException e){
+			System.out.println("Could not read fleet: " + e.getMessage());
+			return;
+		}
+		GameMetrics.register();
+		GameServer server;
+		try {
+			server = new GameServer(numberOfThreads, numberOfSquares, shipNumbers, seed);
+			server.start(new InetSocketAddress(port));
+		}
+		catch (IOException | IllegalArgumentException e){
+			System.out.println("Could not start server: " + e.getMessage());
+			return;
+		}
+		System.out.println("Listening on port " + server.getPort() + ", " + numberOfThreads + " threads, grid "
+				+ numberOfSquares + ", ships " + Fleet.getName(shipNumbers) + ", seed " + seed);
+		long lastRequests = 0;
+		long lastTime = System.nanoTime();
+		while (true){
+			try {
+				Thread.sleep(STATUS_INTERVAL);
+			}
+			catch (InterruptedException e){
+				break;
+			}
+			long requests = server.getNumberOfRequests();
+			long time = System.nanoTime();
+			System.out.printf("%d sessions, %d games, %d requests, %.0f requests/s%n", server.getNumberOfSessions(),
+					server.getNumberOfGames(), requests, (requests - lastRequests) * 1e9 / (time - lastTime));
+			lastRequests = requests;
+			lastTime = time;
+		}
+		server.stop();
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the port the server listens on, which is useful if it was started on port 0.
+	 *
+	 * @return Returns the port, or -1 if the server is not listening.
+	 */
+	public int getPort(){
+		if (serverChannel == null){
+			return -1;
+		}
+		return serverChannel.socket().getLocalPort();
+	}
+	/**
+	 * Returns the number of sessions open.
+	 *
+	 * @return Returns the number of sessions.
+	 */
+	public int getNumberOfSessions(){
+		return numberOfSessions.get();
+	}
+	/**
+	 * Returns the number of games started, in all sessions.
+	 *
+	 * @return Returns the number of games.
+	 */
+	public long getNumberOfGames(){
+		return numberOfGames.sum();
+	}
+	/**
+	 * Returns the number of request lines answered, in all sessions.
+	 *
+	 * @return Returns the number of requests.
+	 */
+	public long getNumberOfRequests(){
+		return numberOfRequests.sum();
+	}
+	/**
+	 * Returns the ASCII bytes of a String.
+	 *
+	 * @param paramText Text of ASCII characters.
+	 * @return Returns the bytes.
+	 */
+	private static byte[] getAscii(String paramText){
+		return paramText.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	//	Setters
+
+	/**
+	 * Starts listening, and starts the event loops.
+	 *
+	 * @param paramAddress Address to listen on; port 0 for any free port.
+	 * @throws IOException If the address can not be listened on.
+	 */
+	public void start(InetSocketAddress paramAddress) throws IOException {
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+		serverChannel.bind(paramAddress, BACKLOG);
+		serverChannel.configureBlocking(false);
+		loops[0].acceptKey = serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+		running = true;
+		for (int i = 0; i < loops.length; i++){
+			Thread thread = new Thread(loops[i], "GameServer-" + i);
+			thread.start();
+		}
+	}
+	/**
+	 * Stops the event loops, which close every session, and stops listening.
+	 */
+	public void stop(){
+		running = false;
+		for (int i = 0; i < loops.length; i++){
+			loops[i].selector.wakeup();
+		}
+	}
+	/**
+	 * Writes a number, in decimal, to a buffer.
+	 *
+	 * @param paramBuffer Buffer to write to.
+	 * @param paramNumber The number.
+	 */
+	private static void putNumber(ByteBuffer paramBuffer, long paramNumber){
+		if (paramNumber < 0){
+			paramBuffer.put((byte) '-');
+		}
+		//	Digits from the last one, as negative numbers, so that Long.MIN_VALUE works too.
+		long rest = paramNumber < 0 ? paramNumber : -paramNumber;
+		int start = paramBuffer.position();
+		do {
+			paramBuffer.put((byte) ('0' - rest % 10));
+			rest /= 10;
+		} while (rest != 0);
+		for (int i = start, j = paramBuffer.position() - 1; i < j; i++, j--){
+			byte digit = paramBuffer.get(i);
+			paramBuffer.put(i, paramBuffer.get(j));
+			paramBuffer.put(j, digit);
+		}
+	}
+
+	/**
+	 * One event loop: a thread with a Selector, serving the sessions handed to it, and, for the first loop,
+	 * accepting new connections.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private class EventLoop implements Runnable {
+
+		//	Fields
+		private int index;
+		private boolean acceptPaused;
+		private int nextLoop;
+		private long acceptPausedUntil;
+		private Game placer;
+		private SelectionKey acceptKey;
+		private Selector selector;
+		private SplittableRandom seedRandom;
+		private ConcurrentLinkedQueue<SocketChannel> newChannels;
+
+		//	Constructor
+		private EventLoop(int paramIndex, Game paramPlacer, SplittableRandom paramSeedRandom) throws IOException {
+			index = paramIndex;
+			placer = paramPlacer;
+			seedRandom = paramSeedRandom;
+			selector = Selector.open();
+			newChannels = new ConcurrentLinkedQueue<SocketChannel>();
+		}
+
+		//	Worker thread
+		public void run(){
+			try {
+				while (running){
+					if (!acceptPaused){
+						selector.select();
+					}
+					else {
+						selector.select(Math.max(1, (acceptPausedUntil - System.nanoTime()) / 1000000));
+						if (System.nanoTime() - acceptPausedUntil >= 0){
+							acceptPaused = false;
+							acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+						}
+					}
+					SocketChannel channel = newChannels.poll();
+					while (channel != null){
+						startSession(channel);
+						channel = newChannels.poll();
+					}
+					Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext()){
+						SelectionKey key = keys.next();
+						keys.remove();
+						if (!key.isValid()){
+							continue;
+						}
+						if (key.isAcceptable()){
+							acceptConnections();
+						}
+						else {
+							Session session = (Session) key.attachment();
+							try {
+								session.handle(key.readyOps());
+							}
+							catch (RuntimeException e){
+								//	A session that fails in any way is closed; the loop serves the others.
+								e.printStackTrace();
+								session.close();
+							}
+						}
+					}
+				}
+			}
+			catch (IOException e){
+				e.printStackTrace();
+			}
+			finally {
+				for (SelectionKey key : selector.keys()){
+					if (key.attachment() instanceof Session){
+						((Session) key.attachment()).close();
+					}
+				}
+				try {
+					selector.close();
+					if (index == 0){
+						serverChannel.close();
+					}
+				}
+				catch (IOException e){
+					e.printStackTrace();
+				}
+			}
+		}
+		/**
+		 * Accepts every pending connection, and hands each one to the next loop in turn. A connection that can not be
+		 * set up is closed; if accepting fails, accepting is paused for ACCEPT_BACKOFF milliseconds.
+		 */
+		private void acceptConnections(){
+			while (true){
+				SocketChannel channel;
+				try {
+					channel = serverChannel.accept();
+				}
+				catch (IOException e){
+					System.out.println("Could not accept, pausing for " + ACCEPT_BACKOFF + " ms: " + e.getMessage());
+					acceptKey.interestOps(0);
+					acceptPaused = true;
+					acceptPausedUntil = System.nanoTime() + ACCEPT_BACKOFF * 1000000;
+					return;
+				}
+				if (channel == null){
+					return;
+				}
+				try {
+					channel.configureBlocking(false);
+					channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				}
+				catch (IOException e){
+					System.out.println("Could not set up connection: " + e.getMessage());
+					try {
+						channel.close();
+					}
+					catch (IOException f){
+						//	Nothing more to do with a connection that could not even be closed.
+					}
+					continue;
+				}
+				EventLoop loop = loops[nextLoop];
+				nextLoop = (nextLoop + 1) % loops.length;
+				loop.newChannels.add(channel);
+				loop.selector.wakeup();
+			}
+		}
+		/**
+		 * Starts a session on a new connection, with its first game.
+		 *
+		 * @param paramChannel The connection.
+		 */
+		private void startSession(SocketChannel paramChannel){
+			Session session = new Session(this, paramChannel);
+			numberOfSessions.incrementAndGet();
+			try {
+				session.key = paramChannel.register(selector, SelectionKey.OP_READ, session);
+				session.startGame();
+				session.flush();
+				session.updateInterest();
+			}
+			catch (IOException e){
+				session.close();
+			}
+		}
+	}
+
+	/**
+	 * One connection, with its Game and buffers.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private class Session {
+
+		//	Fields
+		private boolean closed;
+		private boolean closing;
+		private int parsePosition;
+		private ByteBuffer input;
+		private ByteBuffer output;
+		private EventLoop loop;
+		private Game game;
+		private SelectionKey key;
+		private SocketChannel channel;
+
+		//	Constructor
+		private Session(EventLoop paramLoop, SocketChannel paramChannel){
+			loop = paramLoop;
+			channel = paramChannel;
+			input = ByteBuffer.allocate(INPUT_SIZE);
+			output = ByteBuffer.allocate(OUTPUT_SIZE);
+			game = new Game(new Board(numberOfSquares), Game.createShips(shipNumbers), 0);
+		}
+
+		//	Methods
+		/**
+		 * Handles a ready connection: writes what is waiting, reads what has arrived, answers the complete lines,
+		 * and writes the answers; again and again while the output buffer fills up and the socket takes it all.
+		 *
+		 * @param paramReadyOps The ready operations of the session's key.
+		 */
+		private void handle(int paramReadyOps){
+			try {
+				if ((paramReadyOps & SelectionKey.OP_WRITE) != 0){
+					flush();
+				}
+				if ((paramReadyOps & SelectionKey.OP_READ) != 0 && channel.read(input) < 0){
+					close();
+					return;
+				}
+				boolean linesLeft = answerLines();
+				flush();
+				while (linesLeft && output.remaining() >= MAX_ANSWER_SIZE){
+					linesLeft = answerLines();
+					flush();
+				}
+				if (closing && output.position() == 0){
+					close();
+					return;
+				}
+				updateInterest();
+			}
+			catch (IOException e){
+				close();
+			}
+		}
+		/**
+		 * Answers every complete line in the input buffer, as long as the output buffer has room for an answer.
+		 * A line longer than the input buffer is answered by ERROR, and the session is closed.
+		 *
+		 * @return Returns true if complete lines are left, because the output buffer is full.
+		 */
+		private boolean answerLines(){
+			input.flip();
+			boolean lineFound = true;
+			while (lineFound && !closing && output.remaining() >= MAX_ANSWER_SIZE){
+				int end = input.position();
+				while (end < input.limit() && input.get(end) != '\n'){
+					end++;
+				}
+				lineFound = end < input.limit();
+				if (lineFound){
+					answerLine(input.position(), end);
+					input.position(end + 1);
+				}
+			}
+			if (!lineFound && input.position() == 0 && input.limit() == input.capacity()){
+				output.put(ERROR);
+				closing = true;
+				input.clear();
+				return false;
+			}
+			input.compact();
+			return lineFound && !closing;
+		}
+		/**
+		 * Answers one request line.
+		 *
+		 * @param paramStart Position of the line's first byte in the input buffer.
+		 * @param paramEnd Position of the '\n' ending the line.
+		 */
+		private void answerLine(int paramStart, int paramEnd){
+			numberOfRequests.increment();
+			int end = paramEnd > paramStart && input.get(paramEnd - 1) == '\r' ? paramEnd - 1 : paramEnd;
+			if (startsWith(paramStart, end, SHOT)){
+				parsePosition = paramStart + SHOT.length;
+				int x = parseNumber(end);
+				if (x >= 0 && parsePosition < end && input.get(parsePosition) == ' '){
+					parsePosition++;
+					int y = parseNumber(end);
+					if (y >= 0 && parsePosition == end && x < numberOfSquares && y < numberOfSquares){
+						answerShot(x, y);
+						return;
+					}
+				}
+				output.put(ERROR);
+			}
+			else if (end - paramStart == NEW.length && startsWith(paramStart, end, NEW)){
+				startGame();
+			}
+			else if (end - paramStart == QUIT.length && startsWith(paramStart, end, QUIT)){
+				output.put(BYE);
+				closing = true;
+			}
+			else {
+				output.put(ERROR);
+			}
+		}
+		/**
+		 * Shoots at a square, and writes the answer.
+		 *
+		 * @param paramX X-position of the square.
+		 * @param paramY Y-position of the square.
+		 */
+		private void answerShot(int paramX, int paramY){
+			if (game.isOver()){
+				output.put(OVER);
+				return;
+			}
+			int result = game.shoot(paramX, paramY);
+			if (result == Game.MISS){
+				output.put(MISS);
+			}
+			else if (result == Game.HIT){
+				output.put(HIT);
+			}
+			else if (result == Game.SUNK){
+				output.put(SUNK);
+			}
+			else if (result == Game.WIN){
+				output.put(WIN);
+				putNumber(output, game.getNumberOfShots());
+				output.put((byte) ' ');
+				putNumber(output, game.getSeed());
+				output.put((byte) '\n');
+			}
+			else {
+				output.put(AGAIN);
+			}
+		}
+		/**
+		 * Places a new game, with the next seed of the loop, and writes READY.
+		 */
+		private void startGame(){
+			game.reset(loop.seedRandom.nextLong(), loop.placer);
+			numberOfGames.increment();
+			output.put(READY);
+			putNumber(output, numberOfSquares);
+			output.put((byte) ' ');
+			putNumber(output, numberOfShips);
+			output.put((byte) '\n');
+		}
+		/**
+		 * Checks if a line in the input buffer starts with a word.
+		 *
+		 * @param paramStart Position of the line's first byte.
+		 * @param paramEnd Position after the line's last byte.
+		 * @param paramWord The word.
+		 * @return Returns true if the line starts with the word.
+		 */
+		private boolean startsWith(int paramStart, int paramEnd, byte[] paramWord){
+			if (paramEnd - paramStart < paramWord.length){
+				return false;
+			}
+			for (int i = 0; i < paramWord.length; i++){
+				if (input.get(paramStart + i) != paramWord[i]){
+					return false;
+				}
+			}
+			return true;
+		}
+		/**
+		 * Parses a number of at most 9 digits in the input buffer, from parsePosition, which is moved past it.
+		 *
+		 * @param paramEnd Position after the line's last byte.
+		 * @return Returns the number, or -1 if there is none.
+		 */
+		private int parseNumber(int paramEnd){
+			int number = 0;
+			int digits = 0;
+			while (parsePosition < paramEnd && digits < 10){
+				int digit = input.get(parsePosition) - '0';
+				if (digit < 0 || digit > 9){
+					break;
+				}
+				number = number * 10 + digit;
+				digits++;
+				parsePosition++;
+			}
+			return digits > 0 && digits < 10 ? number : -1;
+		}
+		/**
+		 * Writes as much of the output buffer as the socket takes.
+		 *
+		 * @throws IOException If the connection fails.
+		 */
+		private void flush() throws IOException {
+			output.flip();
+			channel.write(output);
+			output.compact();
+		}
+		/**
+		 * Waits for the socket to be writable while answers are waiting, and reads only while there is room for
+		 * answers.
+		 */
+		private void updateInterest(){
+			int ops = 0;
+			if (output.position() > 0){
+				ops |= SelectionKey.OP_WRITE;
+			}
+			if (!closing && output.remaining() >= MAX_ANSWER_SIZE){
+				ops |= SelectionKey.OP_READ;
+			}
+			key.interestOps(ops);
+		}
+		/**
+		 * Closes the connection. Does nothing if closed already.
+		 */
+		private void close(){
+			if (closed){
+				return;
+			}
+			closed = true;
+			numberOfSessions.decrementAndGet();
+			if (key != null){
+				key.cancel();
+			}
+			try {
+				channel.close();
+			}
+			catch (IOException e){
+				//	Nothing more to do with a connection that could not even be closed.
+			}
+		}
+	}
+}
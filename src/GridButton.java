@@ -1,124 +1,100 @@
-import java.awt.Color;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.Random;
 
 import javax.swing.JButton;
 
 /**
  * Object class that extends the JButton and implements action listener. The main class Battleships creates
- * a grid of GridButtons before placing ships. Each GridButton can have a ship as owner, but can also be without one.
- * When clicked on, that action listener changes the button's color and returns data to the main program and the possible
- * owner ship.
+ * a grid of GridButtons, one for each square on the Board. The GridButton holds no game state of its own; it only
+ * knows its position and shows the Board's state for that square. GridButtons are kept and reused when the grid is
+ * reset, so a button may be moved to another square. All colors come from the shared Palette. When clicked on, that action listener tells the
+ * main program to shoot at the square, and changes the button's color depending on if it was a hit or a miss.
  * 
  * @author Hannes Nyberg
  *
  */
 public class GridButton extends JButton implements ActionListener{
 	
-	//	Constants
-	private final Color MISS_COLOR = new Color(0.7f,0.1f,0.1f);
-	private final Color SHIP_COLOR = new Color(0.1f,0.7f,0.1f);
-	
 	//	Fields
 	private Battleships battleShipProgram;
-	private boolean hasOwnerShip;
-	private Random random;
-	private Ship ownerShip;
+	private int gridX;
+	private int gridY;
 
 	/**
-	 * Creates a GridButton with boolean for owner ship (false as default), a default color and an action listener.
-	 * The constructor needs the main class Battleships as an argument to be able to send data if there is a hit or miss
+	 * Creates a GridButton for the square (x, y), with a default color and an action listener.
+	 * The constructor needs the main class Battleships as an argument to be able to shoot at the square
 	 * when action listener is called.
 	 * 
-	 * @param paramBattleShip The main class, Battleships. Necessary for some communication hits and misses.
+	 * @param paramBattleShip The main class, Battleships. Necessary for resolving shots on the Board.
+	 * @param paramX X-position of the square on the Board.
+	 * @param paramY Y-position of the square on the Board.
 	 */
 	//	Constructor
-	public GridButton(Battleships paramBattleShip){
-		hasOwnerShip = false;
+	public GridButton(Battleships paramBattleShip, int paramX, int paramY){
 		battleShipProgram = paramBattleShip;
-		random = new Random();
+		gridX = paramX;
+		gridY = paramY;
 		setDefaultBackground();
 		addActionListener(this);
 	}
 	
-	//	Getters
-	
-	/**
-	 * Returns true if GridButton has an owner ship.
-	 * 
-	 * @return Returns true if GridButton has an owner ship.
-	 */
-	public boolean hasOwnerShip(){
-		return hasOwnerShip;
-	}
-	
 	//	Setters
 	
-	/**
-	 * Sets an owner ship to the GridButton.
-	 * 
-	 * @param paramShip The Ship to be the GridButtons new owner.
-	 */
-	public void setOwnerShip(Ship paramShip){
-		ownerShip = paramShip;
-		hasOwnerShip = true;
-	}
 	/**
 	 * Includes actions that occur when the object is pressed. Disables button function.
-	 * If the object has owner ship, adds "hits" to owner ship and to main program, and changes
-	 * objects color to a "hit" color. If no owner ship, adds "misses" to main program and changes 
-	 * button color to a "miss" color.
+	 * Lets the main program shoot at the square (which counts hits, misses and destroyed ships), then changes
+	 * the object's color to a "hit" color or a "miss" color. Does nothing if the button was already pressed.
 	 */
-	private void pressGridButton(){
+	public void pressGridButton(){
+		if (!isEnabled()){
+			return;
+		}
 		setEnabled(false);
-		if (hasOwnerShip){
-			ownerShip.hitShip(); //	includes checkIfDestroyed()
-			battleShipProgram.addHits();
-			setBackground(SHIP_COLOR);
+		if (battleShipProgram.shootAt(gridX, gridY)){
+			setBackground(Palette.SHIP_COLOR);
 		}
 		else {
-			battleShipProgram.addMisses();
-			setBackground(MISS_COLOR);
+			setBackground(Palette.MISS_COLOR);
 		}
 	}
 	/**
 	 * Changes the GridButton's color to default ("water") color.
 	 */
 	public void setDefaultBackground(){
-		setBackground(new Color(0.05f, 0.05f, (0.3f + random.nextFloat()*0.5f)));
+		setBackground(Palette.nextWaterColor());
 	}
 	/**
 	 * Changes the GridButton's color to a shade of white/grey, for text/picture purposes.
 	 */
 	public void setBackgroundToTextColor(){
-		float randomFloat = random.nextFloat();
-		setBackground(new Color(
-				0.7f + randomFloat*0.2f,
-				0.7f + randomFloat*0.2f,
-				0.7f + randomFloat*0.2f)
-		);
+		setBackground(Palette.nextTextColor());
 	}
 	/**
 	 * Changes the GridButton's color to a "hit" color
 	 */
 	public void setShipBackground(){
-		setBackground(SHIP_COLOR);
+		setBackground(Palette.SHIP_COLOR);
 	}
 	/**
 	 * Changes the GridButton's color to a hinting turquoise color tone.
 	 */
 	public void setCheatBackground(){
-		setBackground(new Color(
-				0.2f, 
-				0.4f + random.nextFloat()*0.2f, 
-				0.2f + random.nextFloat()*0.2f));
+		setBackground(Palette.nextCheatColor());
+	}
+	/**
+	 * Moves the GridButton to another square, when the grid is laid out again with another size.
+	 * 
+	 * @param paramX X-position of the square on the Board.
+	 * @param paramY Y-position of the square on the Board.
+	 */
+	public void setGridPosition(int paramX, int paramY){
+		gridX = paramX;
+		gridY = paramY;
 	}
 	/**
 	 * Resets the GridButton's data. Works similar as the constructor.
 	 */
 	public void resetButton(){
-		hasOwnerShip = false;
 		setEnabled(true);
 		setDefaultBackground();
 	}
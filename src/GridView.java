@@ -0,0 +1,71 @@
+import java.awt.Color;
+
+import javax.swing.JComponent;
+
+/**
+ * Interface for the view of the battle grid: a square of cells, each with a background color, that the user clicks
+ * on to shoot. A cell that is clicked on shoots at its square through the main program, then shows a "hit" or a
+ * "miss" color and can not be clicked again until the grid is laid out again.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public interface GridView {
+
+	/**
+	 * Returns the Swing component that shows the grid.
+	 *
+	 * @return Returns the component to add to a panel.
+	 */
+	public JComponent getComponent();
+	/**
+	 * Lays out a grid of numberOfSquares * numberOfSquares cells, all enabled and with default ("water") color.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramGridSpace Space between cells, in pixels.
+	 */
+	public void layOutGrid(int paramNumberOfSquares, int paramGridSpace);
+	/**
+	 * Enables or disables clicking on all cells.
+	 *
+	 * @param paramEnabled True to enable the cells.
+	 */
+	public void setGridEnabled(boolean paramEnabled);
+	/**
+	 * Presses a cell as if it had been clicked: shoots at its square through the main program, shows a "hit" or a
+	 * "miss" color, and keeps the cell from being clicked again. Does nothing if the cell was already pressed.
+	 *
+	 * @param paramX X-position of the cell.
+	 * @param paramY Y-position of the cell.
+	 */
+	public void pressCell(int paramX, int paramY);
+	/**
+	 * Changes a cell's color to default ("water") color.
+	 *
+	 * @param paramX X-position of the cell.
+	 * @param paramY Y-position of the cell.
+	 */
+	public void setDefaultBackground(int paramX, int paramY);
+	/**
+	 * Changes a cell's color to a shade of white/grey, for text/picture purposes.
+	 *
+	 * @param paramX X-position of the cell.
+	 * @param paramY Y-position of the cell.
+	 */
+	public void setBackgroundToTextColor(int paramX, int paramY);
+	/**
+	 * Changes a cell's color to a hinting turquoise color tone.
+	 *
+	 * @param paramX X-position of the cell.
+	 * @param paramY Y-position of the cell.
+	 */
+	public void setCheatBackground(int paramX, int paramY);
+	/**
+	 * Changes a cell's color to any color.
+	 *
+	 * @param paramX X-position of the cell.
+	 * @param paramY Y-position of the cell.
+	 * @param paramColor Color to show.
+	 */
+	public void setCellBackground(int paramX, int paramY, Color paramColor);
+}
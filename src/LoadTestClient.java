@@ -0,0 +1,365 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Command-line program that load-tests a GameServer: it opens many connections at once, from one thread with a
+ * java.nio Selector, and plays games on all of them for a while, then prints the number of answers and games per
+ * second, and the latency of the answers (from sending a request to reading its answer) in percentiles.
+ *
+ * Every connection plays like the random strategy of StrategySimulation: it shoots at every square once, in an
+ * order shuffled for each game, one request at a time, and asks for a new game when it wins. Connections are opened
+ * at most MAX_CONNECTING at a time, so that the server's backlog is not overrun, and the measurement starts once
+ * every connection is open (or has failed). Latencies are counted per microsecond, up to MAX_LATENCY.
+ *
+ * Usage: java LoadTestClient [connections] [seconds] [port] [host] [seed]
+ *
+ * Tens of thousands of connections need as many file descriptors, in this program and in the server (ulimit -n),
+ * and as many free local ports.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class LoadTestClient {
+
+	//	Constants
+	private static final int DEFAULT_NUMBER_OF_CONNECTIONS = 1000;
+	private static final int DEFAULT_SECONDS = 10;
+	private static final int BUFFER_SIZE = 128;
+	private static final int MAX_CONNECTING = 256;
+	private static final int MAX_LATENCY = 1000000;
+	private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+	//	Fields
+	private int numberOfConnecting;
+	private int numberOfFailed;
+	private int numberOfOpen;
+	private long numberOfAnswers;
+	private long numberOfErrors;
+	private long numberOfGames;
+	private boolean measuring;
+	private long[] latencyCounts;
+	private Selector selector;
+	private SplittableRandom random;
+
+	//	Constructor
+	private LoadTestClient(long paramSeed) throws IOException {
+		selector = Selector.open();
+		random = new SplittableRandom(paramSeed);
+		latencyCounts = new long[MAX_LATENCY + 1];
+	}
+
+	//	Main
+	/**
+	 * Runs the load test, and prints the results.
+	 *
+	 * @param args Optional number of connections, seconds to measure, port, host and seed.
+	 */
+	public static void main(String[] args){
+		int numberOfConnections = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_CONNECTIONS;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+		int port = args.length > 2 ? Integer.parseInt(args[2]) : GameServer.DEFAULT_PORT;
+		String host = args.length > 3 ? args[3] : "localhost";
+		long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+		try {
+			LoadTestClient client = new LoadTestClient(seed);
+			client.run(new InetSocketAddress(host, port), numberOfConnections, seconds * 1000000000L);
+		}
+		catch (IOException e){
+			System.out.println("Load test failed: " + e.getMessage());
+		}
+	}
+
+	//	Methods
+	/**
+	 * Opens the connections, plays on all of them for the given time, and prints the results.
+	 *
+	 * @param paramAddress Address of the server.
+	 * @param paramNumberOfConnections Number of connections.
+	 * @param paramTime Time to measure, in nanoseconds.
+	 * @throws IOException If the Selector fails.
+	 */
+	private void run(InetSocketAddress paramAddress, int paramNumberOfConnections, long paramTime)
+			throws IOException {
+		long start = System.nanoTime();
+		int numberOfStarted = 0;
+		while (numberOfOpen + numberOfFailed < paramNumberOfConnections){
+			while (numberOfStarted < paramNumberOfConnections && numberOfConnecting < MAX_CONNECTING){
+				connect(paramAddress);
+				numberOfStarted++;
+			}
+			handleReady(100);
+		}
+		System.out.printf("%d connections open, %d failed, in %.2f s%n", numberOfOpen, numberOfFailed,
+				(System.nanoTime() - start) / 1e9);
+
+		measuring = true;
+		start = System.nanoTime();
+		long end = start + paramTime;
+		long now = start;
+		while (now < end && numberOfOpen > 0){
+			handleReady(Math.max(1, (end - now) / 1000000));
+			now = System.nanoTime();
+		}
+		measuring = false;
+		double time = (now - start) / 1e9;
+		System.out.printf("%d answers in %.2f s: %.0f answers/s, %.0f games/s, %d errors, %d connections left%n",
+				numberOfAnswers, time, numberOfAnswers / time, numberOfGames / time, numberOfErrors, numberOfOpen);
+		StringBuilder line = new StringBuilder("Latency in microseconds:");
+		for (int i = 0; i < PERCENTILES.length; i++){
+			line.append(String.format(" p%s %d", PERCENTILES[i] == 100 ? "max" : String.valueOf(PERCENTILES[i])
+					.replace(".0", ""), getPercentile(PERCENTILES[i])));
+		}
+		System.out.println(line);
+		for (SelectionKey key : selector.keys()){
+			key.channel().close();
+		}
+		selector.close();
+	}
+	/**
+	 * Starts opening one connection.
+	 *
+	 * @param paramAddress Address of the server.
+	 */
+	private void connect(InetSocketAddress paramAddress){
+		SocketChannel channel = null;
+		try {
+			channel = SocketChannel.open();
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			Connection connection = new Connection(channel);
+			if (channel.connect(paramAddress)){
+				connection.connected = true;
+				channel.register(selector, SelectionKey.OP_READ, connection);
+				numberOfOpen++;
+			}
+			else {
+				channel.register(selector, SelectionKey.OP_CONNECT, connection);
+				numberOfConnecting++;
+			}
+		}
+		catch (IOException e){
+			numberOfFailed++;
+			if (channel != null){
+				try {
+					channel.close();
+				}
+				catch (IOException f){
+					//	Closed either way.
+				}
+			}
+		}
+	}
+	/**
+	 * Waits for ready connections, and handles them.
+	 *
+	 * @param paramTimeout Time to wait at most, in milliseconds.
+	 * @throws IOException If the Selector fails.
+	 */
+	private void handleReady(long paramTimeout) throws IOException {
+		selector.select(paramTimeout);
+		Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+		while (keys.hasNext()){
+			SelectionKey key = keys.next();
+			keys.remove();
+			if (key.isValid()){
+				((Connection) key.attachment()).handle(key);
+			}
+		}
+	}
+	/**
+	 * Returns a percentile of the latencies counted.
+	 *
+	 * @param paramPercentile Percentile, 0 to 100.
+	 * @return Returns the latency, in microseconds.
+	 */
+	private long getPercentile(double paramPercentile){
+		long count = 0;
+		for (int i = 0; i <= MAX_LATENCY; i++){
+			count += latencyCounts[i];
+		}
+		long rank = Math.max(1, (long) Math.ceil(count * paramPercentile / 100));
+		long seen = 0;
+		for (int i = 0; i <= MAX_LATENCY; i++){
+			seen += latencyCounts[i];
+			if (seen >= rank){
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * One connection to the server, playing one game after another.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private class Connection {
+
+		//	Fields
+		private boolean connected;
+		private int next;
+		private int numberOfSquares;
+		private long sendTime;
+		private int[] order;
+		private ByteBuffer input;
+		private ByteBuffer output;
+		private SocketChannel channel;
+
+		//	Constructor
+		private Connection(SocketChannel paramChannel){
+			channel = paramChannel;
+			input = ByteBuffer.allocate(BUFFER_SIZE);
+			output = ByteBuffer.allocate(BUFFER_SIZE);
+			order = new int[0];
+		}
+
+		//	Methods
+		/**
+		 * Handles a ready connection: finishes connecting, writes what is waiting, or reads and answers lines.
+		 *
+		 * @param paramKey The connection's key.
+		 */
+		private void handle(SelectionKey paramKey){
+			try {
+				if (!connected){
+					if (!channel.finishConnect()){
+						return;
+					}
+					connected = true;
+					numberOfConnecting--;
+					numberOfOpen++;
+					sendTime = System.nanoTime();
+					paramKey.interestOps(SelectionKey.OP_READ);
+					return;
+				}
+				if (paramKey.isWritable()){
+					flush(paramKey);
+				}
+				if (paramKey.isReadable()){
+					if (channel.read(input) < 0){
+						throw new IOException("Closed by server");
+					}
+					input.flip();
+					int start = input.position();
+					for (int i = start; i < input.limit(); i++){
+						if (input.get(i) == '\n'){
+							handleLine(start);
+							start = i + 1;
+						}
+					}
+					input.position(start);
+					input.compact();
+					flush(paramKey);
+				}
+			}
+			catch (IOException | CancelledKeyException e){
+				//	The key may be cancelled already, so the connection's own state tells what it was.
+				if (connected){
+					numberOfOpen--;
+				}
+				else {
+					numberOfConnecting--;
+					numberOfFailed++;
+				}
+				paramKey.cancel();
+				try {
+					channel.close();
+				}
+				catch (IOException f){
+					//	Closed either way.
+				}
+			}
+		}
+		/**
+		 * Handles one answer from the server, and sends the next request.
+		 *
+		 * @param paramStart Position of the answer's first byte in the input buffer.
+		 */
+		private void handleLine(int paramStart){
+			if (measuring){
+				long latency = (System.nanoTime() - sendTime) / 1000;
+				latencyCounts[(int) Math.min(MAX_LATENCY, latency)]++;
+				numberOfAnswers++;
+			}
+			byte first = input.get(paramStart);
+			if (first == 'R'){
+				//	READY [grid size] [number of ships]: shuffle the squares for a new game.
+				int size = 0;
+				for (int i = paramStart + 6; input.get(i) >= '0' && input.get(i) <= '9'; i++){
+					size = size * 10 + input.get(i) - '0';
+				}
+				if (size != numberOfSquares){
+					numberOfSquares = size;
+					order = new int[size * size];
+				}
+				for (int i = 0; i < order.length; i++){
+					int j = random.nextInt(i + 1);
+					order[i] = order[j];
+					order[j] = i;
+				}
+				next = 0;
+				sendShot();
+			}
+			else if (first == 'W'){
+				if (measuring){
+					numberOfGames++;
+				}
+				sendLine("NEW");
+			}
+			else if (first == 'M' || first == 'H' || first == 'S' || first == 'A'){
+				sendShot();
+			}
+			else {
+				numberOfErrors++;
+				sendLine("NEW");
+			}
+		}
+		/**
+		 * Sends a shot at the next square in the game's order, or asks for a new game if none is left.
+		 */
+		private void sendShot(){
+			if (next == order.length){
+				numberOfErrors++;
+				sendLine("NEW");
+				return;
+			}
+			int cell = order[next];
+			next++;
+			sendLine("SHOT " + cell % numberOfSquares + " " + cell / numberOfSquares);
+		}
+		/**
+		 * Puts a request line into the output buffer, and starts its latency clock.
+		 *
+		 * @param paramLine The request, without '\n'.
+		 */
+		private void sendLine(String paramLine){
+			for (int i = 0; i < paramLine.length(); i++){
+				output.put((byte) paramLine.charAt(i));
+			}
+			output.put((byte) '\n');
+			sendTime = System.nanoTime();
+		}
+		/**
+		 * Writes as much of the output buffer as the socket takes, waiting for it to be writable if any is left.
+		 *
+		 * @param paramKey The connection's key.
+		 * @throws IOException If the connection fails.
+		 */
+		private void flush(SelectionKey paramKey) throws IOException {
+			output.flip();
+			channel.write(output);
+			output.compact();
+			paramKey.interestOps(output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+					: SelectionKey.OP_READ);
+		}
+	}
+}
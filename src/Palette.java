@@ -0,0 +1,97 @@
+import java.awt.Color;
+
+/**
+ * Class Palette. Holds every color the grid is painted with, made once and shared by all GridButtons and
+ * CanvasGridViews, so recoloring a square never creates a Color. The water, text and cheat colors come in
+ * NUMBER_OF_SHADES random-looking shades each, the same shades GridButton used to make with its own Random; which
+ * shade a square gets is picked by a shared xorshift generator, which can be seeded so that a game's shading can be
+ * repeated.
+ *
+ * The generator is not thread safe; the palette is only meant to be used from the Event Dispatch Thread.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class Palette {
+
+	//	Constants
+	public static final Color MISS_COLOR = new Color(0.7f,0.1f,0.1f);
+	public static final Color SHIP_COLOR = new Color(0.1f,0.7f,0.1f);
+	public static final Color SUNK_COLOR = new Color(0.05f,0.4f,0.05f);
+	private static final int NUMBER_OF_SHADES = 64;	//	power of two
+	private static final int SHADE_MASK = NUMBER_OF_SHADES - 1;
+	private static final int CHEAT_STEPS = 8;	//	square root of NUMBER_OF_SHADES
+	private static final int DEFAULT_SHADE_STATE = 0x2545F491;
+	private static final Color[] WATER_COLORS = new Color[NUMBER_OF_SHADES];
+	private static final Color[] TEXT_COLORS = new Color[NUMBER_OF_SHADES];
+	private static final Color[] CHEAT_COLORS = new Color[NUMBER_OF_SHADES];
+
+	//	Fields
+	private static int shadeState = DEFAULT_SHADE_STATE;
+
+	//	Make shades
+	static {
+		for (int i = 0; i < NUMBER_OF_SHADES; i++){
+			float shade = (i + 0.5f) / NUMBER_OF_SHADES;
+			WATER_COLORS[i] = new Color(0.05f, 0.05f, 0.3f + shade*0.5f);
+			TEXT_COLORS[i] = new Color(0.7f + shade*0.2f, 0.7f + shade*0.2f, 0.7f + shade*0.2f);
+			CHEAT_COLORS[i] = new Color(
+					0.2f,
+					0.4f + ((i / CHEAT_STEPS) + 0.5f) / CHEAT_STEPS * 0.2f,
+					0.2f + ((i % CHEAT_STEPS) + 0.5f) / CHEAT_STEPS * 0.2f);
+		}
+	}
+
+	//	Constructor
+	private Palette(){
+	}
+
+	//	Getters
+
+	/**
+	 * Returns a default ("water") color: a random shade of blue.
+	 *
+	 * @return Returns a shared Color.
+	 */
+	public static Color nextWaterColor(){
+		return WATER_COLORS[nextShade()];
+	}
+	/**
+	 * Returns a color for text/picture purposes: a random shade of white/grey.
+	 *
+	 * @return Returns a shared Color.
+	 */
+	public static Color nextTextColor(){
+		return TEXT_COLORS[nextShade()];
+	}
+	/**
+	 * Returns a hinting color: a random turquoise tone.
+	 *
+	 * @return Returns a shared Color.
+	 */
+	public static Color nextCheatColor(){
+		return CHEAT_COLORS[nextShade()];
+	}
+	/**
+	 * Seeds the shared generator, so that the same seed gives the same shades in the same order.
+	 *
+	 * @param paramSeed Seed; the shade stream of the game.
+	 */
+	public static void setSeed(long paramSeed){
+		shadeState = (int) (paramSeed ^ (paramSeed >>> 32));
+		if (shadeState == 0){
+			shadeState = DEFAULT_SHADE_STATE;
+		}
+	}
+	/**
+	 * Steps the shared xorshift generator, and returns a shade index from its high bits.
+	 *
+	 * @return Returns a shade index, 0 to NUMBER_OF_SHADES - 1.
+	 */
+	private static int nextShade(){
+		shadeState ^= shadeState << 13;
+		shadeState ^= shadeState >>> 17;
+		shadeState ^= shadeState << 5;
+		return (shadeState >>> 24) & SHADE_MASK;
+	}
+}
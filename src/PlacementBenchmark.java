@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Command-line program that benchmarks ship placement, headless. It has three modes.
+ *
+ * The matrix mode places fleets on every grid size from MIN_NUMBER_OF_SQUARES to MAX_NUMBER_OF_SQUARES, for three
+ * kinds of fleets: the game's default fleet, a dense fleet covering DENSE_COVERAGE of the grid, and a fleet covering
+ * NEAR_INFEASIBLE_COVERAGE, close to what can fit at all. Each fleet is placed a number of times by a single
+ * PlacementSolver with a time budget, and the program prints throughput (placed boards per second), latency
+ * percentiles, allocation per placement and per second, and the share of runs that placed all ships.
+ *
+ * The portfolio mode places the same hard fleet many times with a single PlacementSolver and with a
+ * PortfolioPlacer, and prints latency percentiles for both, so the effect of racing several seeded searches on the
+ * slow tail can be seen.
+ *
+ * The large mode places thousands of ships on a SparseBoard of a million squares or more with a SparsePlacer, then
+ * fires random shots at it, and prints placement time, shots per second, and how much memory the board uses.
+ *
+ * Usage: java PlacementBenchmark matrix [runs] [time budget in ms]
+ *        java PlacementBenchmark large [grid size] [number of ships] [number of shots]
+ *        java PlacementBenchmark [runs] [searches] [grid size] [fleet]
+ *
+ * The fleet is a fleet file, or the number of ships of each length from Game.MIN_SHIP_SIZE up (see Fleet).
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class PlacementBenchmark {
+
+	//	Constants
+	private static final double DENSE_COVERAGE = 0.30;
+	private static final double NEAR_INFEASIBLE_COVERAGE = 0.40;
+	private static final int DEFAULT_LARGE_NUMBER_OF_SHIPS = 5000;
+	private static final int DEFAULT_LARGE_NUMBER_OF_SHOTS = 1000000;
+	private static final int DEFAULT_LARGE_NUMBER_OF_SQUARES = 1000;
+	private static final int DEFAULT_NUMBER_OF_RUNS = 200;
+	private static final int DEFAULT_NUMBER_OF_SQUARES = 10;
+	private static final int DEFAULT_MATRIX_RUNS = 50;
+	private static final int DEFAULT_TIME_BUDGET = 200;	//	milliseconds
+	private static final int[] DEFAULT_SHIP_NUMBERS = {0, 0, 0, 0, 3, 5};
+	private static final int[] GAME_SHIP_NUMBERS = Fleet.getDefaultShipNumbers();
+	private static final int MIN_NUMBER_OF_SQUARES = 10;
+	private static final int MAX_NUMBER_OF_SQUARES = 30;
+	private static final int WARMUP_RUNS = 20;
+
+	//	Main
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args "matrix" with optional number of runs and time budget, or optional number of runs, number of
+	 * searches to race, grid size and fleet.
+	 */
+	public static void main(String[] args){
+		if (args.length > 0 && args[0].equals("matrix")){
+			int numberOfRuns = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MATRIX_RUNS;
+			int timeBudget = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TIME_BUDGET;
+			runMatrix(numberOfRuns, timeBudget);
+		}
+		else if (args.length > 0 && args[0].equals("large")){
+			int numberOfSquares = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_LARGE_NUMBER_OF_SQUARES;
+			int numberOfShips = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_LARGE_NUMBER_OF_SHIPS;
+			int numberOfShots = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_LARGE_NUMBER_OF_SHOTS;
+			runLarge(numberOfSquares, numberOfShips, numberOfShots);
+		}
+		else {
+			runPortfolioComparison(args);
+		}
+	}
+
+	//	Methods
+	/**
+	 * Compares latency percentiles of a single PlacementSolver and a PortfolioPlacer on one fleet.
+	 *
+	 * @param args Optional number of runs, number of searches to race, grid size and fleet.
+	 */
+	private static void runPortfolioComparison(String[] args){
+		int numberOfRuns = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_RUNS;
+		int numberOfSearches = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int numberOfSquares = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUMBER_OF_SQUARES;
+		int[] shipNumbers;
+		try {
+			shipNumbers = Fleet.parseArguments(args, 3, DEFAULT_SHIP_NUMBERS);
+		}
+		catch (IOException e){
+			System.out.println("Could not read fleet: " + e.getMessage());
+			return;
+		}
+		System.out.println("Grid " + numberOfSquares + ", ships " + Fleet.getName(shipNumbers) + ", "
+				+ numberOfRuns + " runs, " + numberOfSearches + " searches, "
+				+ Runtime.getRuntime().availableProcessors() + " cores");
+
+		Random random = new Random();
+		long[] single = measure(new PlacementSolver(numberOfSquares, random), numberOfSquares, shipNumbers, numberOfRuns);
+		long[] portfolio = measure(new PortfolioPlacer(numberOfSquares, random, numberOfSearches),
+				numberOfSquares, shipNumbers, numberOfRuns);
+		printPercentiles("PlacementSolver", single);
+		printPercentiles("PortfolioPlacer", portfolio);
+		System.out.printf("p99 latency: %.1f%% of single search%n",
+				100.0 * GameMetrics.getPercentile(portfolio, 99) / Math.max(1, GameMetrics.getPercentile(single, 99)));
+	}
+	/**
+	 * Benchmarks every grid size with the default, dense and near infeasible fleets, and prints one line per case.
+	 *
+	 * @param paramNumberOfRuns Number of measured runs per case.
+	 * @param paramTimeBudget Time budget per placement, in milliseconds.
+	 */
+	private static void runMatrix(int paramNumberOfRuns, int paramTimeBudget){
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadID = Thread.currentThread().getId();
+		Random random = new Random();
+		String[] fleetNames = {"default", "dense", "near-infeasible"};
+		System.out.printf("%4s %-16s %-20s %10s %9s %9s %9s %12s %10s %8s%n", "grid", "fleet", "ships",
+				"boards/s", "p50 ms", "p99 ms", "max ms", "alloc B/op", "alloc MB/s", "placed");
+		for (int numberOfSquares = MIN_NUMBER_OF_SQUARES; numberOfSquares <= MAX_NUMBER_OF_SQUARES; numberOfSquares++){
+			for (int fleet = 0; fleet < fleetNames.length; fleet++){
+				int[] shipNumbers = fleet == 0 ? GAME_SHIP_NUMBERS
+						: scaleFleet(numberOfSquares, fleet == 1 ? DENSE_COVERAGE : NEAR_INFEASIBLE_COVERAGE);
+				PlacementSolver solver = new PlacementSolver(numberOfSquares, random);
+				solver.setTimeBudget(paramTimeBudget);
+				long[] latencies = new long[paramNumberOfRuns];
+				int numberPlaced = 0;
+				long totalTime = 0;
+				long allocatedBytes = 0;
+				for (int run = -WARMUP_RUNS; run < paramNumberOfRuns; run++){
+					Board board = new Board(numberOfSquares);
+					Ship[] ships = Game.createShips(shipNumbers);
+					long allocatedBefore = threadBean.getThreadAllocatedBytes(threadID);
+					long start = System.nanoTime();
+					boolean placed = solver.placeShips(board, ships);
+					long time = System.nanoTime() - start;
+					long allocated = threadBean.getThreadAllocatedBytes(threadID) - allocatedBefore;
+					if (run >= 0){
+						latencies[run] = time;
+						totalTime += time;
+						allocatedBytes += allocated;
+						numberPlaced += placed ? 1 : 0;
+					}
+				}
+				Arrays.sort(latencies);
+				double seconds = Math.max(1, totalTime) / 1e9;
+				System.out.printf("%4d %-16s %-20s %10.1f %9.3f %9.3f %9.3f %12d %10.1f %7.1f%%%n",
+						numberOfSquares, fleetNames[fleet], Fleet.getName(shipNumbers),
+						numberPlaced / seconds,
+						GameMetrics.getPercentile(latencies, 50) / 1e6, GameMetrics.getPercentile(latencies, 99) / 1e6,
+						GameMetrics.getPercentile(latencies, 100) / 1e6,
+						allocatedBytes / paramNumberOfRuns, allocatedBytes / seconds / 1e6,
+						100.0 * numberPlaced / paramNumberOfRuns);
+			}
+		}
+	}
+	/**
+	 * Places a large fleet, with the same mix of ship lengths as the game's default fleet, on a SparseBoard, then
+	 * shoots at random squares, and prints the time taken and the memory used.
+	 *
+	 * @param paramNumberOfSquares Grid size.
+	 * @param paramNumberOfShips Number of ships.
+	 * @param paramNumberOfShots Number of shots.
+	 */
+	private static void runLarge(int paramNumberOfSquares, int paramNumberOfShips, int paramNumberOfShots){
+		int defaultShips = 0;
+		for (int i = 0; i < GAME_SHIP_NUMBERS.length; i++){
+			defaultShips += GAME_SHIP_NUMBERS[i];
+		}
+		//	The shortest length of the default fleet takes what rounding down leaves over.
+		int shortest = 0;
+		while (GAME_SHIP_NUMBERS[shortest] == 0){
+			shortest++;
+		}
+		int[] shipNumbers = new int[GAME_SHIP_NUMBERS.length];
+		int shipsLeft = paramNumberOfShips;
+		for (int i = shipNumbers.length - 1; i > shortest; i--){
+			shipNumbers[i] = paramNumberOfShips * GAME_SHIP_NUMBERS[i] / defaultShips;
+			shipsLeft -= shipNumbers[i];
+		}
+		shipNumbers[shortest] = shipsLeft;
+		Ship[] ships = Game.createShips(shipNumbers);
+		Random random = new Random();
+		SparseBoard board = new SparseBoard(paramNumberOfSquares);
+		SparsePlacer placer = new SparsePlacer(random);
+
+		long start = System.nanoTime();
+		boolean placed = placer.placeShips(board, ships);
+		long placementTime = System.nanoTime() - start;
+		System.out.printf("Grid %d, ships %s: %s in %.1f ms, %d tries, %d restarts%n", paramNumberOfSquares,
+				Fleet.getName(shipNumbers), placed ? "placed" : "not placed", placementTime / 1e6,
+				placer.getNumberOfTries(), placer.getNumberOfRestarts());
+		System.out.printf("Board after placement: %d squares stored, %d KB table (a Board would use %d KB)%n",
+				board.getNumberOfStoredSquares(), board.getTableBytes() / 1024,
+				(long) paramNumberOfSquares * paramNumberOfSquares * Integer.BYTES / 1024);
+
+		int hits = 0;
+		start = System.nanoTime();
+		for (int i = 0; i < paramNumberOfShots; i++){
+			if (board.shoot(random.nextInt(paramNumberOfSquares), random.nextInt(paramNumberOfSquares)) >= 0){
+				hits++;
+			}
+		}
+		long shootingTime = System.nanoTime() - start;
+		System.out.printf("%d shots, %d hits: %.0f shots/s; %d squares stored, %d KB table%n", paramNumberOfShots, hits,
+				paramNumberOfShots / Math.max(1e-9, shootingTime / 1e9), board.getNumberOfStoredSquares(),
+				board.getTableBytes() / 1024);
+	}
+	/**
+	 * Returns a fleet with the same mix of ship lengths as the game's default fleet, scaled up so that the ships
+	 * cover about a chosen share of the grid.
+	 *
+	 * @param paramNumberOfSquares Grid size.
+	 * @param paramCoverage Share of squares to be covered by ships.
+	 * @return Returns the number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 */
+	static int[] scaleFleet(int paramNumberOfSquares, double paramCoverage){
+		int defaultSquares = 0;
+		for (int i = 0; i < GAME_SHIP_NUMBERS.length; i++){
+			defaultSquares += GAME_SHIP_NUMBERS[i] * (Game.MIN_SHIP_SIZE + i);
+		}
+		double factor = paramCoverage * paramNumberOfSquares * paramNumberOfSquares / defaultSquares;
+		int[] shipNumbers = new int[GAME_SHIP_NUMBERS.length];
+		for (int i = 0; i < shipNumbers.length; i++){
+			shipNumbers[i] = (int) Math.round(GAME_SHIP_NUMBERS[i] * factor);
+		}
+		return shipNumbers;
+	}
+	/**
+	 * Places the fleet a number of times (after some warmup runs), and returns the sorted latencies.
+	 *
+	 * @param paramPlacer The placement engine to measure.
+	 * @param paramNumberOfSquares Grid size.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @param paramNumberOfRuns Number of measured runs.
+	 * @return Returns the latencies in nanoseconds, sorted.
+	 */
+	static long[] measure(ShipPlacer paramPlacer, int paramNumberOfSquares, int[] paramShipNumbers, int paramNumberOfRuns){
+		long[] latencies = new long[paramNumberOfRuns];
+		for (int run = -WARMUP_RUNS; run < paramNumberOfRuns; run++){
+			Board board = new Board(paramNumberOfSquares);
+			Ship[] ships = Game.createShips(paramShipNumbers);
+			long start = System.nanoTime();
+			paramPlacer.placeShips(board, ships);
+			if (run >= 0){
+				latencies[run] = System.nanoTime() - start;
+			}
+		}
+		Arrays.sort(latencies);
+		return latencies;
+	}
+	/**
+	 * Prints p50, p90, p99 and max of sorted latencies, in milliseconds.
+	 *
+	 * @param paramName Name to print.
+	 * @param paramSorted Sorted latencies in nanoseconds.
+	 */
+	private static void printPercentiles(String paramName, long[] paramSorted){
+		System.out.printf("%-16s p50 %8.2f ms  p90 %8.2f ms  p99 %8.2f ms  max %8.2f ms%n", paramName,
+				GameMetrics.getPercentile(paramSorted, 50) / 1e6, GameMetrics.getPercentile(paramSorted, 90) / 1e6,
+				GameMetrics.getPercentile(paramSorted, 99) / 1e6, GameMetrics.getPercentile(paramSorted, 100) / 1e6);
+	}
+}
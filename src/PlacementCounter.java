@@ -0,0 +1,902 @@
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Object class PlacementCounter. Counts exactly how many ways a fleet can be laid out on an empty grid without any
+ * ship touching another (no ship square directly above, below, left or right of another ship's square), and for
+ * every square, in how many of those layouts it holds a ship. Ships of the same length are interchangeable, so two
+ * layouts differ only if their ship squares differ. Divided by the number of layouts, the square counts are the
+ * probabilities of a ship on each square if every layout is equally likely: the ground truth that a ComputerShooter's
+ * first shots, or the boards made by a PlacementSolver, can be checked against.
+ *
+ * Because no ship touches another, any two neighbouring ship squares belong to the same ship, so a layout is just a
+ * set of ship squares where every group of neighbours is a straight line of a fleet length. The grid is filled in
+ * one row at a time, and all that matters from the rows above is the row profile: for each column, whether the
+ * square above is water, part of a horizontal ship (so this square must be water), or the end of a vertical ship so
+ * far of some length (so this square either makes it longer or ends it). A lone ship square is counted once, as a
+ * vertical ship of length 1, so horizontal ships are at least 2 long. For every row and profile, the number of
+ * ways to fill the rest of the grid is counted once and remembered, for every set of ships that could be left to
+ * place at once: a sparse list, so sets of ships that can not be placed below cost nothing. A profile and its mirror
+ * image are filled in as many ways, so only one of them is remembered. The first row's branches are counted in
+ * parallel on a ForkJoinPool, sharing what they remember.
+ *
+ * The square counts then take one more pass down the upper half of the rows (the lower half is the same upside
+ * down), counting the ways to reach each profile with each set of ships left; every way to reach a profile times
+ * the remembered ways to finish from it is a layout through it, and the profile tells which squares of the row
+ * above hold a ship.
+ *
+ * A set of ships is packed into an int with a bit field per length, and a guard bit above each field, so adding
+ * or taking away sets of ships, and checking that no length goes past the fleet or below zero, is one addition and
+ * one mask. Counts while counting are kept as 128-bit numbers in two longs (the game's fleet on a 12 * 12 grid has
+ * more layouts than a long holds), and the square counts as BigIntegers. The number of profiles grows about
+ * fourfold with every column, so a 12 * 12 grid with the game's fleet takes a while, and results can be saved to,
+ * and loaded from, a cache directory.
+ *
+ * Usage: java PlacementCounter [grid size] [threads] [fleet]
+ *        java PlacementCounter bias [boards] [grid size] [fleet]
+ *        java PlacementCounter check [max grid size]
+ *
+ * The fleet is a fleet file, or the number of ships of each length from Game.MIN_SHIP_SIZE up (see Fleet).
+ *
+ * The bias mode places boards with Game.newGame(), the way the game does, and compares how often each square held a
+ * ship with the exact probabilities.
+ *
+ * The check mode counts every fleet of 1 to CHECK_MAX_SHIPS ships, of lengths from Game.MIN_SHIP_SIZE to
+ * CHECK_MAX_SHIP_LENGTH, on every grid from 1 up to the given size (CHECK_NUMBER_OF_SQUARES by default), both with
+ * count() and by going through every layout one by one on a Board, and prints every fleet where the number of
+ * layouts, or of layouts with a ship on some square, differs.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class PlacementCounter {
+
+	//	Constants
+	public static final String CACHE_DIRECTORY = "placement-counts";
+	private static final int CHECK_MAX_SHIP_LENGTH = 4;
+	private static final int CHECK_MAX_SHIPS = 3;
+	private static final int CHECK_NUMBER_OF_SQUARES = 5;
+	private static final int DEFAULT_NUMBER_OF_BOARDS = 100000;
+	private static final int DEFAULT_NUMBER_OF_SQUARES = 10;
+	private static final int MAX_FLEET_BITS = 24;
+	private static final Counts NO_WAYS = new Counts(new int[0]);
+	private static final int SUCCESSORS_PER_TASK = 8;
+	private final int BLOCKED = 1;
+	private final int WATER = 0;
+
+	//	Fields
+	private int fleetBias;
+	private int fleetGuards;
+	private int fullFleet;
+	private int maxShipLength;
+	private int numberOfFleets;
+	private int numberOfSquares;
+	private int stateBits;
+	private long stateMask;
+	private int[] fleetIndexes;
+	private int[] shipNumbers;
+	private int[] shipUnits;
+	private BigInteger numberOfLayouts;
+	private BigInteger[] cellCounts;
+	private List<Map<Long, Counts>> memos;
+
+	//	Constructor
+	/**
+	 * Creates a PlacementCounter for a fleet on a grid of numberOfSquares * numberOfSquares squares. Nothing is
+	 * counted until count() or load() is called.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 */
+	public PlacementCounter(int paramNumberOfSquares, int[] paramShipNumbers){
+		numberOfSquares = paramNumberOfSquares;
+		shipNumbers = paramShipNumbers.clone();
+		//	A bit field per length, wide enough for shipNumbers[i], with a guard bit above it. The bias fills each
+		//	field up to its width, so that adding more ships than the fleet has sets the guard bit.
+		shipUnits = new int[shipNumbers.length];
+		int fleetBits = 0;
+		for (int i = 0; i < shipNumbers.length; i++){
+			int width = 32 - Integer.numberOfLeadingZeros(shipNumbers[i]);
+			if (fleetBits + width + 1 > MAX_FLEET_BITS){
+				throw new IllegalArgumentException("Too many ships to count: " + Arrays.toString(shipNumbers));
+			}
+			shipUnits[i] = 1 << fleetBits;
+			fullFleet += shipNumbers[i] << fleetBits;
+			fleetBias += ((1 << width) - 1 - shipNumbers[i]) << fleetBits;
+			fleetGuards |= 1 << (fleetBits + width);
+			fleetBits += width + 1;
+			if (shipNumbers[i] > 0){
+				maxShipLength = Game.MIN_SHIP_SIZE + i;
+			}
+		}
+		//	Number the sets of ships that fit the fleet, in increasing order, for dense arrays.
+		fleetIndexes = new int[1 << fleetBits];
+		for (int fleet = 0; fleet < fleetIndexes.length; fleet++){
+			fleetIndexes[fleet] = removeShips(fullFleet, fleet) >= 0 ? numberOfFleets++ : -1;
+		}
+		//	Column states: WATER, BLOCKED, or BLOCKED + k for the end of a vertical ship of k squares so far.
+		stateBits = 32 - Integer.numberOfLeadingZeros(BLOCKED + maxShipLength);
+		stateMask = (1L << stateBits) - 1;
+		if (numberOfSquares < 1 || numberOfSquares * stateBits > 63){
+			throw new IllegalArgumentException("Grid size " + numberOfSquares + " can not be counted");
+		}
+	}
+
+	//	Main
+	/**
+	 * Counts a fleet, loading it from CACHE_DIRECTORY if counted before, and prints the number of layouts and the
+	 * probability of a ship on each square; or, in bias mode, compares placed boards with the probabilities; or, in
+	 * check mode, checks the counts of small fleets against layouts gone through one by one.
+	 *
+	 * @param args Optional grid size, number of threads and fleet, or "bias" with optional number of boards, grid
+	 * size and fleet, or "check" with optional largest grid size.
+	 */
+	public static void main(String[] args){
+		if (args.length > 0 && args[0].equals("check")){
+			printCheck(args.length > 1 ? Integer.parseInt(args[1]) : CHECK_NUMBER_OF_SQUARES);
+			return;
+		}
+		boolean bias = args.length > 0 && args[0].equals("bias");
+		int gridArgument = bias ? 2 : 0;
+		int numberOfBoards = bias && args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUMBER_OF_BOARDS;
+		int numberOfThreads = !bias && args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		int numberOfSquares = args.length > gridArgument ? Integer.parseInt(args[gridArgument])
+				: DEFAULT_NUMBER_OF_SQUARES;
+		int[] shipNumbers;
+		try {
+			shipNumbers = Fleet.parseArguments(args, bias ? 3 : 2, Fleet.getDefaultShipNumbers());
+		}
+		catch (IOException e){
+			System.out.println("Could not read fleet: " + e.getMessage());
+			return;
+		}
+		System.out.println("Grid " + numberOfSquares + ", ships " + Fleet.getName(shipNumbers));
+
+		PlacementCounter counter = new PlacementCounter(numberOfSquares, shipNumbers);
+		Path directory = Paths.get(CACHE_DIRECTORY);
+		if (counter.load(directory)){
+			System.out.println("Loaded from " + directory.resolve(counter.getFileName()));
+		}
+		else {
+			ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+			long start = System.nanoTime();
+			try {
+				counter.count(pool);
+			}
+			finally {
+				pool.shutdown();
+			}
+			System.out.printf("Counted in %.1f s with %d threads, %d profiles%n", (System.nanoTime() - start) / 1e9,
+					numberOfThreads, counter.getNumberOfProfiles());
+			try {
+				counter.save(directory);
+			}
+			catch (IOException e){
+				System.out.println("Could not save to " + directory + ": " + e.getMessage());
+			}
+		}
+		System.out.println("Layouts: " + counter.getNumberOfLayouts());
+		if (counter.getNumberOfLayouts().signum() == 0){
+			return;
+		}
+		if (bias){
+			printBias(counter, numberOfBoards);
+		}
+		else {
+			System.out.println("Probability of a ship on each square, in percent:");
+			for (int y = 0; y < numberOfSquares; y++){
+				StringBuilder line = new StringBuilder();
+				for (int x = 0; x < numberOfSquares; x++){
+					line.append(String.format("%6.2f", 100 * counter.getCellProbability(x, y)));
+				}
+				System.out.println(line);
+			}
+		}
+	}
+
+	//	Methods
+	/**
+	 * Places boards with Game.newGame(), counts how often each square held a ship, and prints, for every square, how
+	 * many standard errors that is from its exact probability, and the square furthest from it.
+	 *
+	 * @param paramCounter A PlacementCounter that has counted its fleet.
+	 * @param paramNumberOfBoards Number of boards to place.
+	 */
+	private static void printBias(PlacementCounter paramCounter, int paramNumberOfBoards){
+		int numberOfSquares = paramCounter.numberOfSquares;
+		long[] hits = new long[numberOfSquares * numberOfSquares];
+		long seed = System.nanoTime();
+		Game game = Game.newGame(numberOfSquares, paramCounter.shipNumbers, seed);
+		for (int i = 0; i < paramNumberOfBoards; i++){
+			if (i > 0){
+				game.reset(seed + i);
+			}
+			Board board = game.getBoard();
+			for (int j = 0; j < board.getNumberOfUnshotShipCells(); j++){
+				hits[board.getUnshotShipCell(j)]++;
+			}
+		}
+		double worstScore = 0;
+		int worstCell = 0;
+		System.out.println("Placed " + paramNumberOfBoards + " boards; standard errors from the exact probability:");
+		for (int y = 0; y < numberOfSquares; y++){
+			StringBuilder line = new StringBuilder();
+			for (int x = 0; x < numberOfSquares; x++){
+				double probability = paramCounter.getCellProbability(x, y);
+				double expected = probability * paramNumberOfBoards;
+				double error = Math.sqrt(Math.max(1e-12, expected * (1 - probability)));
+				double score = (hits[y * numberOfSquares + x] - expected) / error;
+				line.append(String.format("%6.1f", score));
+				if (Math.abs(score) > Math.abs(worstScore)){
+					worstScore = score;
+					worstCell = y * numberOfSquares + x;
+				}
+			}
+			System.out.println(line);
+		}
+		System.out.printf("Furthest square: (%d, %d), %.1f standard errors%n", worstCell % numberOfSquares,
+				worstCell / numberOfSquares, worstScore);
+	}
+	/**
+	 * Checks count() against layouts gone through one by one, for every fleet of 1 to CHECK_MAX_SHIPS ships of
+	 * lengths up to CHECK_MAX_SHIP_LENGTH, on every grid up to a size, and prints the fleets that differ.
+	 *
+	 * @param paramMaxNumberOfSquares Largest grid size to check.
+	 */
+	private static void printCheck(int paramMaxNumberOfSquares){
+		int numberOfLengths = CHECK_MAX_SHIP_LENGTH - Game.MIN_SHIP_SIZE + 1;
+		int numberOfChecked = 0;
+		int numberOfDiffering = 0;
+		long start = System.nanoTime();
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		try {
+			for (int numberOfSquares = 1; numberOfSquares <= paramMaxNumberOfSquares; numberOfSquares++){
+				//	Every fleet, as a number in base CHECK_MAX_SHIPS + 1 with a digit per length.
+				int[] shipNumbers = new int[numberOfLengths];
+				int numberOfFleets = (int) Math.pow(CHECK_MAX_SHIPS + 1, numberOfLengths);
+				for (int fleet = 1; fleet < numberOfFleets; fleet++){
+					int rest = fleet;
+					for (int i = 0; i < numberOfLengths; i++){
+						shipNumbers[i] = rest % (CHECK_MAX_SHIPS + 1);
+						rest /= CHECK_MAX_SHIPS + 1;
+					}
+					if (Fleet.getNumberOfShips(shipNumbers) > CHECK_MAX_SHIPS){
+						continue;
+					}
+					numberOfChecked++;
+					if (!check(numberOfSquares, shipNumbers, pool)){
+						numberOfDiffering++;
+					}
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		System.out.printf("Checked %d fleets on grids up to %d in %.1f s: %d differ%n", numberOfChecked,
+				paramMaxNumberOfSquares, (System.nanoTime() - start) / 1e9, numberOfDiffering);
+	}
+	/**
+	 * Counts one fleet with count(), and by going through every layout on a Board, and prints the counts if they
+	 * differ.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramShipNumbers Number of ships of each length, from Game.MIN_SHIP_SIZE up.
+	 * @param paramPool Pool to count on.
+	 * @return Returns true if the counts are the same.
+	 */
+	private static boolean check(int paramNumberOfSquares, int[] paramShipNumbers, ForkJoinPool paramPool){
+		PlacementCounter counter = new PlacementCounter(paramNumberOfSquares, paramShipNumbers);
+		counter.count(paramPool);
+		Ship[] ships = Game.createShips(paramShipNumbers);
+		long[] cellCounts = new long[paramNumberOfSquares * paramNumberOfSquares];
+		long numberOfLayouts = countLayouts(new Board(paramNumberOfSquares), ships, 0, 0, cellCounts);
+		boolean same = counter.getNumberOfLayouts().equals(BigInteger.valueOf(numberOfLayouts));
+		for (int cell = 0; cell < cellCounts.length; cell++){
+			same &= counter.getCellCount(cell % paramNumberOfSquares, cell / paramNumberOfSquares)
+					.equals(BigInteger.valueOf(cellCounts[cell]));
+		}
+		if (!same){
+			System.out.println("Grid " + paramNumberOfSquares + ", ships " + Fleet.getName(paramShipNumbers)
+					+ ": counted " + counter.getNumberOfLayouts() + " layouts, went through " + numberOfLayouts);
+		}
+		return same;
+	}
+	/**
+	 * Goes through every layout of the ships from one on, on a Board with the ships before it placed, and adds each
+	 * one's ship squares to the square counts. Ships of the same length only take placements after the one before,
+	 * so each layout is gone through once, and a ship of length 1 only lies one way.
+	 *
+	 * @param paramBoard The Board, with the ships before this one placed.
+	 * @param paramShips The ships, largest first.
+	 * @param paramShip Index of the ship to place.
+	 * @param paramFirstPlacement First placement (cell index times two, plus 1 if vertical) the ship may take.
+	 * @param paramCellCounts Number of layouts with a ship on each square, added to.
+	 * @return Returns the number of layouts.
+	 */
+	private static long countLayouts(Board paramBoard, Ship[] paramShips, int paramShip, int paramFirstPlacement,
+			long[] paramCellCounts){
+		int numberOfSquares = paramBoard.getNumberOfSquares();
+		if (paramShip == paramShips.length){
+			for (int cell = 0; cell < paramCellCounts.length; cell++){
+				if (paramBoard.hasShip(cell % numberOfSquares, cell / numberOfSquares)){
+					paramCellCounts[cell]++;
+				}
+			}
+			return 1;
+		}
+		int shipLength = paramShips[paramShip].getShipLength();
+		long numberOfLayouts = 0;
+		for (int placement = paramFirstPlacement; placement < 2 * paramCellCounts.length; placement++){
+			int vertical = placement & 1;
+			if (shipLength == 1 && vertical == 1){
+				continue;
+			}
+			int x = (placement >> 1) % numberOfSquares;
+			int y = (placement >> 1) / numberOfSquares;
+			if (paramBoard.isShipPlacable(x, y, shipLength, 1 - vertical, vertical)){
+				paramBoard.placeShip(paramShip, x, y, shipLength, 1 - vertical, vertical);
+				boolean sameLength = paramShip + 1 < paramShips.length
+						&& paramShips[paramShip + 1].getShipLength() == shipLength;
+				numberOfLayouts += countLayouts(paramBoard, paramShips, paramShip + 1, sameLength ? placement + 1 : 0,
+						paramCellCounts);
+				paramBoard.removeShip(x, y, shipLength, 1 - vertical, vertical);
+			}
+		}
+		return numberOfLayouts;
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of layouts of the fleet, once counted.
+	 *
+	 * @return Returns the number of layouts.
+	 */
+	public BigInteger getNumberOfLayouts(){
+		return numberOfLayouts;
+	}
+	/**
+	 * Returns the number of layouts with a ship on the square (x, y), once counted.
+	 *
+	 * @param paramX X-position of the square.
+	 * @param paramY Y-position of the square.
+	 * @return Returns the number of layouts with a ship on the square.
+	 */
+	public BigInteger getCellCount(int paramX, int paramY){
+		return cellCounts[paramY * numberOfSquares + paramX];
+	}
+	/**
+	 * Returns the probability of a ship on the square (x, y), if every layout is equally likely.
+	 *
+	 * @param paramX X-position of the square.
+	 * @param paramY Y-position of the square.
+	 * @return Returns the probability, or 0 if the fleet has no layout.
+	 */
+	public double getCellProbability(int paramX, int paramY){
+		if (numberOfLayouts.signum() == 0){
+			return 0;
+		}
+		//	Both counts can be beyond a double's range, so both are shifted down alike first.
+		int shift = Math.max(0, numberOfLayouts.bitLength() - 62);
+		return getCellCount(paramX, paramY).shiftRight(shift).doubleValue()
+				/ numberOfLayouts.shiftRight(shift).doubleValue();
+	}
+	/**
+	 * Returns the number of row profiles remembered by the last count().
+	 *
+	 * @return Returns the number of profiles.
+	 */
+	public long getNumberOfProfiles(){
+		long numberOfProfiles = 0;
+		for (int row = 0; memos != null && row < memos.size(); row++){
+			numberOfProfiles += memos.get(row).size();
+		}
+		return numberOfProfiles;
+	}
+	/**
+	 * Returns the name of the cache file for this grid size and fleet, such as "10-6x1_4x2_3x3_2x4.txt".
+	 *
+	 * @return Returns the file name.
+	 */
+	public String getFileName(){
+		return numberOfSquares + "-" + Fleet.getName(shipNumbers) + ".txt";
+	}
+	/**
+	 * Returns the state of one column in a row profile.
+	 *
+	 * @param paramProfile Row profile.
+	 * @param paramColumn Column.
+	 * @return Returns WATER, BLOCKED, or BLOCKED + k for the end of a vertical ship of k squares so far.
+	 */
+	private int getColumnState(long paramProfile, int paramColumn){
+		return (int) ((paramProfile >>> (paramColumn * stateBits)) & stateMask);
+	}
+	/**
+	 * Returns the smaller of a row profile and its mirror image, so that both are remembered as one.
+	 *
+	 * @param paramProfile Row profile.
+	 * @return Returns the profile or its mirror image.
+	 */
+	private long getCanonicalProfile(long paramProfile){
+		long mirror = 0;
+		for (int column = 0; column < numberOfSquares; column++){
+			mirror |= (long) getColumnState(paramProfile, column) << ((numberOfSquares - 1 - column) * stateBits);
+		}
+		return Math.min(paramProfile, mirror);
+	}
+	/**
+	 * Returns the union of two sets of ships.
+	 *
+	 * @param paramFleet Set of ships, packed.
+	 * @param paramOtherFleet Other set of ships, packed.
+	 * @return Returns the union, packed, or -1 if it has more ships of some length than the fleet.
+	 */
+	private int addShips(int paramFleet, int paramOtherFleet){
+		return ((paramFleet + fleetBias + paramOtherFleet) & fleetGuards) == 0 ? paramFleet + paramOtherFleet : -1;
+	}
+	/**
+	 * Returns a set of ships less some of them.
+	 *
+	 * @param paramFleet Set of ships, packed.
+	 * @param paramOtherFleet Ships to take away, packed.
+	 * @return Returns the ships left, packed, or -1 if the set does not hold them all.
+	 */
+	private int removeShips(int paramFleet, int paramOtherFleet){
+		return (((paramFleet | fleetGuards) - paramOtherFleet) & fleetGuards) == fleetGuards
+				? paramFleet - paramOtherFleet : -1;
+	}
+	/**
+	 * Returns the ships completed when a square under a column is water: if the column ends a vertical ship, that
+	 * ship is added.
+	 *
+	 * @param paramState State of the column above.
+	 * @param paramShips Ships completed so far, packed.
+	 * @return Returns the ships completed, packed, or -1 if the square can not be water.
+	 */
+	private int endColumn(int paramState, int paramShips){
+		if (paramState <= BLOCKED){
+			return paramShips;
+		}
+		return addShip(paramShips, paramState - BLOCKED);
+	}
+	/**
+	 * Returns a set of ships with one more ship of a length.
+	 *
+	 * @param paramShips Set of ships, packed.
+	 * @param paramShipLength Length of ship.
+	 * @return Returns the new set of ships, packed, or -1 if the fleet has no more ships of that length.
+	 */
+	private int addShip(int paramShips, int paramShipLength){
+		int i = paramShipLength - Game.MIN_SHIP_SIZE;
+		if (i < 0 || i >= shipNumbers.length){
+			return -1;
+		}
+		return addShips(paramShips, shipUnits[i]);
+	}
+	/**
+	 * Returns a 128-bit count, kept in two longs, as a BigInteger.
+	 *
+	 * @param paramHigh High 64 bits.
+	 * @param paramLow Low 64 bits.
+	 * @return Returns the count.
+	 */
+	private static BigInteger toBigInteger(long paramHigh, long paramLow){
+		return BigInteger.valueOf(paramHigh).shiftLeft(64).add(BigInteger.valueOf(paramLow >>> 1).shiftLeft(1))
+				.add(BigInteger.valueOf(paramLow & 1));
+	}
+
+	//	Setters
+
+	/**
+	 * Adds a 128-bit count to another, kept in two longs at the same index of two arrays.
+	 *
+	 * @param paramHighs High 64 bits of the counts added to.
+	 * @param paramLows Low 64 bits of the counts added to.
+	 * @param paramIndex Index of the count added to.
+	 * @param paramHigh High 64 bits of the count to add.
+	 * @param paramLow Low 64 bits of the count to add.
+	 */
+	private static void add(long[] paramHighs, long[] paramLows, int paramIndex, long paramHigh, long paramLow){
+		long low = paramLows[paramIndex] + paramLow;
+		long high = paramHighs[paramIndex] + paramHigh + (Long.compareUnsigned(low, paramLow) < 0 ? 1 : 0);
+		if (high < 0){
+			throw new ArithmeticException("More layouts than 128 bits can count");
+		}
+		paramHighs[paramIndex] = high;
+		paramLows[paramIndex] = low;
+	}
+	/**
+	 * Counts the layouts of the fleet and the layouts with a ship on each square.
+	 *
+	 * @param paramPool Pool to count the first row's branches on.
+	 */
+	public void count(ForkJoinPool paramPool){
+		memos = new ArrayList<Map<Long, Counts>>();
+		for (int row = 0; row < numberOfSquares; row++){
+			memos.add(new ConcurrentHashMap<Long, Counts>());
+		}
+		Successors first = new Successors();
+		listSuccessors(0, 0, 0, 0, first);
+		paramPool.invoke(new CountTask(first, 0, first.size));
+		Counts start = countFrom(0, 0);
+		int fullIndex = start.indexOf(fullFleet);
+		numberOfLayouts = fullIndex < 0 ? BigInteger.ZERO : toBigInteger(start.highs[fullIndex], start.lows[fullIndex]);
+		cellCounts = new BigInteger[numberOfSquares * numberOfSquares];
+		Arrays.fill(cellCounts, BigInteger.ZERO);
+		if (fullIndex < 0){
+			return;
+		}
+
+		//	Go down the rows with the ways to reach each profile, for each set of ships left to place, in the same
+		//	order as the profile's Counts. A profile and its mirror image are reached in as many ways, so only one of
+		//	them is kept, with the ways to reach both. The squares of the lower half are those of the upper half
+		//	upside down, so only the upper half is gone through.
+		Map<Long, Counts> layer = new HashMap<Long, Counts>();
+		Counts startWays = new Counts(start.fleets);
+		startWays.lows[fullIndex] = 1;
+		layer.put(0L, startWays);
+		Successors successors = new Successors();
+		for (int row = 0; row < (numberOfSquares + 1) / 2; row++){
+			Map<Long, Counts> nextLayer = new HashMap<Long, Counts>();
+			for (Map.Entry<Long, Counts> entry : layer.entrySet()){
+				Counts ways = entry.getValue();
+				successors.size = 0;
+				listSuccessors(0, entry.getKey(), 0, 0, successors);
+				for (int i = 0; i < successors.size; i++){
+					long nextProfile = getCanonicalProfile(successors.profiles[i]);
+					Counts nextCounts = countFrom(row + 1, nextProfile);
+					Counts nextWays = nextLayer.get(nextProfile);
+					for (int j = 0; j < ways.size; j++){
+						if (ways.lows[j] == 0 && ways.highs[j] == 0){
+							continue;
+						}
+						//	The ships left after this row are the ships left before it, less those it completed.
+						int fleet = removeShips(ways.fleets[j], successors.ships[i]);
+						int index = fleet < 0 ? -1 : nextCounts.indexOf(fleet);
+						if (index < 0){
+							continue;
+						}
+						if (nextWays == null){
+							nextWays = new Counts(nextCounts.fleets);
+							nextLayer.put(nextProfile, nextWays);
+						}
+						add(nextWays.highs, nextWays.lows, index, ways.highs[j], ways.lows[j]);
+					}
+				}
+			}
+			//	Every way to reach a profile, times every way to finish from it, is a layout through it.
+			for (Map.Entry<Long, Counts> entry : nextLayer.entrySet()){
+				Counts counts = countFrom(row + 1, entry.getKey());
+				Counts ways = entry.getValue();
+				BigInteger layouts = BigInteger.ZERO;
+				for (int j = 0; j < counts.size; j++){
+					layouts = layouts.add(toBigInteger(ways.highs[j], ways.lows[j])
+							.multiply(toBigInteger(counts.highs[j], counts.lows[j])));
+				}
+				for (int column = 0; column < numberOfSquares; column++){
+					if (getColumnState(entry.getKey(), column) != WATER){
+						int cell = row * numberOfSquares + column;
+						cellCounts[cell] = cellCounts[cell].add(layouts);
+					}
+				}
+			}
+			layer = nextLayer;
+		}
+		//	Counted with one of each pair of mirror profiles, the halves add up to twice each square's count.
+		BigInteger two = BigInteger.valueOf(2);
+		for (int row = 0; row < (numberOfSquares + 1) / 2; row++){
+			for (int column = 0; column < (numberOfSquares + 1) / 2; column++){
+				int cell = row * numberOfSquares + column;
+				int mirrorCell = row * numberOfSquares + numberOfSquares - 1 - column;
+				BigInteger count = cellCounts[cell].add(cellCounts[mirrorCell]).divide(two);
+				cellCounts[cell] = count;
+				cellCounts[mirrorCell] = count;
+				cellCounts[(numberOfSquares - 1 - row) * numberOfSquares + column] = count;
+				cellCounts[(numberOfSquares - 1 - row) * numberOfSquares + numberOfSquares - 1 - column] = count;
+			}
+		}
+	}
+	/**
+	 * Returns the number of ways to fill the rows from a row on, under a row profile, for every set of ships that
+	 * can be placed there exactly; counting them if not remembered.
+	 *
+	 * @param paramRow First row to fill.
+	 * @param paramProfile Row profile above the row.
+	 * @return Returns the Counts.
+	 */
+	private Counts countFrom(int paramRow, long paramProfile){
+		if (paramRow == numberOfSquares){
+			//	Below the grid every square is water, so every vertical ship ends.
+			int ships = 0;
+			for (int column = 0; column < numberOfSquares && ships >= 0; column++){
+				ships = endColumn(getColumnState(paramProfile, column), ships);
+			}
+			if (ships < 0){
+				return NO_WAYS;
+			}
+			Counts counts = new Counts(new int[] {ships});
+			counts.lows[0] = 1;
+			return counts;
+		}
+		//	A profile and its mirror image can be filled in as many ways.
+		long profile = getCanonicalProfile(paramProfile);
+		Map<Long, Counts> memo = memos.get(paramRow);
+		Counts counts = memo.get(profile);
+		if (counts == null){
+			long[] highs = new long[numberOfFleets];
+			long[] lows = new long[numberOfFleets];
+			Successors successors = new Successors();
+			listSuccessors(0, profile, 0, 0, successors);
+			for (int i = 0; i < successors.size; i++){
+				Counts nextCounts = countFrom(paramRow + 1, successors.profiles[i]);
+				for (int j = 0; j < nextCounts.size; j++){
+					int fleet = addShips(nextCounts.fleets[j], successors.ships[i]);
+					if (fleet >= 0){
+						add(highs, lows, fleetIndexes[fleet], nextCounts.highs[j], nextCounts.lows[j]);
+					}
+				}
+			}
+			int size = 0;
+			for (int fleet = 0; fleet < fleetIndexes.length; fleet++){
+				int index = fleetIndexes[fleet];
+				if (index >= 0 && (highs[index] != 0 || lows[index] != 0)){
+					size++;
+				}
+			}
+			int[] fleets = new int[size];
+			size = 0;
+			for (int fleet = 0; fleet < fleetIndexes.length; fleet++){
+				int index = fleetIndexes[fleet];
+				if (index >= 0 && (highs[index] != 0 || lows[index] != 0)){
+					fleets[size++] = fleet;
+				}
+			}
+			counts = size == 0 ? NO_WAYS : new Counts(fleets);
+			for (int j = 0; j < size; j++){
+				counts.highs[j] = highs[fleetIndexes[fleets[j]]];
+				counts.lows[j] = lows[fleetIndexes[fleets[j]]];
+			}
+			memo.put(profile, counts);
+		}
+		return counts;
+	}
+	/**
+	 * Lists every way to fill a row under a row profile, from a column on: the new row profile and the ships
+	 * completed in the row. A ship square is either a vertical ship's (starting, or going on from the square above)
+	 * with water on both sides, or part of a horizontal ship under water only.
+	 *
+	 * @param paramColumn First column to fill.
+	 * @param paramProfile Row profile above the row.
+	 * @param paramNewProfile Profile of the row so far.
+	 * @param paramShips Ships completed in the row so far, packed.
+	 * @param paramSuccessors List to add to.
+	 */
+	private void listSuccessors(int paramColumn, long paramProfile, long paramNewProfile, int paramShips,
+			Successors paramSuccessors){
+		if (paramColumn >= numberOfSquares){
+			paramSuccessors.add(paramNewProfile, paramShips);
+			return;
+		}
+		int above = getColumnState(paramProfile, paramColumn);
+
+		//	Water.
+		int ships = endColumn(above, paramShips);
+		if (ships >= 0){
+			listSuccessors(paramColumn + 1, paramProfile, paramNewProfile, ships, paramSuccessors);
+		}
+
+		//	A vertical ship's square, followed by water.
+		int state = -1;
+		if (above == WATER && maxShipLength > 0){
+			state = BLOCKED + 1;
+		}
+		else if (above > BLOCKED && above - BLOCKED < maxShipLength){
+			state = above + 1;
+		}
+		if (state > 0){
+			addWaterAfter(paramColumn + 1, paramProfile, paramNewProfile | ((long) state << (paramColumn * stateBits)),
+					paramShips, paramSuccessors);
+		}
+
+		//	A horizontal ship, under water only, followed by water. A single square was a vertical ship above.
+		long newProfile = paramNewProfile;
+		for (int shipLength = 1; shipLength <= maxShipLength && paramColumn + shipLength <= numberOfSquares; shipLength++){
+			int column = paramColumn + shipLength - 1;
+			if (getColumnState(paramProfile, column) != WATER){
+				break;
+			}
+			newProfile |= (long) BLOCKED << (column * stateBits);
+			ships = shipLength > 1 ? addShip(paramShips, shipLength) : -1;
+			if (ships >= 0){
+				addWaterAfter(paramColumn + shipLength, paramProfile, newProfile, ships, paramSuccessors);
+			}
+		}
+	}
+	/**
+	 * Makes a square water, if it is on the grid, and lists the ways to fill the rest of the row after it.
+	 *
+	 * @param paramColumn Column of the square.
+	 * @param paramProfile Row profile above the row.
+	 * @param paramNewProfile Profile of the row so far.
+	 * @param paramShips Ships completed in the row so far, packed.
+	 * @param paramSuccessors List to add to.
+	 */
+	private void addWaterAfter(int paramColumn, long paramProfile, long paramNewProfile, int paramShips,
+			Successors paramSuccessors){
+		int ships = paramShips;
+		if (paramColumn < numberOfSquares){
+			ships = endColumn(getColumnState(paramProfile, paramColumn), paramShips);
+		}
+		if (ships >= 0){
+			listSuccessors(paramColumn + 1, paramProfile, paramNewProfile, ships, paramSuccessors);
+		}
+	}
+	/**
+	 * Loads the counts for this grid size and fleet from a cache directory, if they were saved there.
+	 *
+	 * @param paramDirectory Cache directory.
+	 * @return Returns true if the counts were loaded.
+	 */
+	public boolean load(Path paramDirectory){
+		Path file = paramDirectory.resolve(getFileName());
+		if (!Files.isRegularFile(file)){
+			return false;
+		}
+		try {
+			List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+			if (lines.size() != numberOfSquares + 3 || !lines.get(0).equals(String.valueOf(numberOfSquares))
+					|| !lines.get(1).equals(Arrays.toString(shipNumbers))){
+				return false;
+			}
+			BigInteger layouts = new BigInteger(lines.get(2));
+			BigInteger[] counts = new BigInteger[numberOfSquares * numberOfSquares];
+			for (int y = 0; y < numberOfSquares; y++){
+				String[] row = lines.get(y + 3).trim().split(" ");
+				if (row.length != numberOfSquares){
+					return false;
+				}
+				for (int x = 0; x < numberOfSquares; x++){
+					counts[y * numberOfSquares + x] = new BigInteger(row[x]);
+				}
+			}
+			numberOfLayouts = layouts;
+			cellCounts = counts;
+			return true;
+		}
+		catch (IOException | NumberFormatException e){
+			return false;
+		}
+	}
+	/**
+	 * Saves the counts to a cache directory, making it if needed. The file is written beside its final name and then
+	 * moved there, so a reader never sees half a file.
+	 *
+	 * @param paramDirectory Cache directory.
+	 * @throws IOException If the file can not be written.
+	 */
+	public void save(Path paramDirectory) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		lines.add(String.valueOf(numberOfSquares));
+		lines.add(Arrays.toString(shipNumbers));
+		lines.add(String.valueOf(numberOfLayouts));
+		for (int y = 0; y < numberOfSquares; y++){
+			StringBuilder row = new StringBuilder();
+			for (int x = 0; x < numberOfSquares; x++){
+				row.append(x == 0 ? "" : " ").append(cellCounts[y * numberOfSquares + x]);
+			}
+			lines.add(row.toString());
+		}
+		Files.createDirectories(paramDirectory);
+		Path file = paramDirectory.resolve(getFileName());
+		Path temporaryFile = paramDirectory.resolve(getFileName() + ".tmp");
+		Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Number of ways to fill the rows from a row on, under a row profile, for each set of ships that can be placed
+	 * there exactly; sets with no way are left out. The sets are in increasing order, and each count is 128 bits,
+	 * in two longs.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private static class Counts {
+
+		//	Fields
+		private int size;
+		private int[] fleets;
+		private long[] highs;
+		private long[] lows;
+
+		//	Constructor
+		private Counts(int[] paramFleets){
+			fleets = paramFleets;
+			size = fleets.length;
+			highs = new long[size];
+			lows = new long[size];
+		}
+
+		//	Getters
+		private int indexOf(int paramFleet){
+			return Arrays.binarySearch(fleets, paramFleet);
+		}
+	}
+
+	/**
+	 * Growable list of row fillings: the row profile after the row, and the ships completed in it.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private static class Successors {
+
+		//	Fields
+		private int size;
+		private int[] ships = new int[16];
+		private long[] profiles = new long[16];
+
+		//	Setters
+		private void add(long paramProfile, int paramShips){
+			if (size == profiles.length){
+				profiles = Arrays.copyOf(profiles, 2 * size);
+				ships = Arrays.copyOf(ships, 2 * size);
+			}
+			profiles[size] = paramProfile;
+			ships[size] = paramShips;
+			size++;
+		}
+	}
+
+	/**
+	 * Counts the profiles after a range of the first row's fillings, splitting the range in halves until it is
+	 * small enough to count on one worker thread.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private class CountTask extends RecursiveAction {
+
+		//	Constants
+		private static final long serialVersionUID = 1L;
+
+		//	Fields
+		private int from;
+		private int to;
+		private Successors successors;
+
+		//	Constructor
+		private CountTask(Successors paramSuccessors, int paramFrom, int paramTo){
+			successors = paramSuccessors;
+			from = paramFrom;
+			to = paramTo;
+		}
+
+		//	Worker thread
+		protected void compute(){
+			if (to - from > SUCCESSORS_PER_TASK){
+				int middle = (from + to) >>> 1;
+				invokeAll(new CountTask(successors, from, middle), new CountTask(successors, middle, to));
+				return;
+			}
+			for (int i = from; i < to; i++){
+				countFrom(1, successors.profiles[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,604 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Object class PlacementSolver. Places a fleet of ships on a Board with an iterative (non-recursive) backtracking
+ * search, so that no ship touches another (no ship square directly above, below, left or right of another ship's
+ * square).
+ *
+ * Ships are placed largest first. For every ship length, all possible placements (start square and orientation) are
+ * listed and shuffled, so the search gives random boards, and each ship tries them in that order. Ships of the same
+ * length are interchangeable, so each one only tries placements after the one chosen by the ship before it; that way
+ * the same set of squares is never searched twice in a different order. After each placement, the squares still free
+ * are counted, and the search backs off at once if the ships left can not possibly fit in them.
+ *
+ * Random searches can get stuck for long in a bad corner while another shuffle would have succeeded at once, so the
+ * search is restarted with new shuffles, each time allowed twice as many tries as the last. Sooner or later one search
+ * is allowed enough tries to go through every placement, so the solver always finds a placement if one exists, and
+ * reports that none exists otherwise.
+ *
+ * A fleet of MIN_SHIPS_TO_REPAIR ships or more is placed by repair first instead: with hundreds of ships, a dead end
+ * found late can take backtracking through most of the fleet to fix, and the searches give up again and again. Each
+ * ship, largest first, takes the first free placement among the next CANDIDATES_PER_MOVE of its shuffled list, or if
+ * none is free, the one whose touching ships are the shortest in all, and those ships are taken back to be placed
+ * again. A move only looks at the squares around a few placements, so large sparse fleets are placed in about one
+ * move per ship, and dense ones settle after a few ships taken back per ship. Repair can not prove that a fleet does
+ * not fit, so if the fleet is not placed in MOVES_PER_SHIP moves per ship, the backtracking searches take over from
+ * an empty Board. A smaller fleet goes straight to the backtracking searches, and gets the same board for a seed
+ * as it always has.
+ *
+ * A search can be given a time budget, and can be stopped from another thread; both are checked every
+ * TRIES_PER_CHECK tries, and so is the number of tries so far, which may be read from another thread as progress.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class PlacementSolver implements ShipPlacer {
+
+	//	Constants
+	private final int CANDIDATES_PER_MOVE = 64;
+	private final int FIRST_NUMBER_OF_TRIES_PER_SEARCH = 2000;
+	private final int GAVE_UP = -1;
+	private final int MIN_SHIPS_TO_REPAIR = 32;
+	private final int MOVES_PER_SHIP = 100;
+	private final int NOT_PLACED = 0;
+	private final int PLACED = 1;
+	private final int STOPPED = -2;
+	private final int TRIES_PER_CHECK = 1024;
+
+	//	Fields
+	private boolean recorded = true;
+	private boolean[] free;
+	private int numberOfWaitingShips;
+	private int touchStamp;
+	private int[] chosenPlacements;
+	private int[] nextPlacements;
+	private int[] touchStamps;
+	private int[] waitingShips;
+	private boolean wasStopped;
+	private volatile boolean stopRequested;
+	private long deadline;
+	private long numberOfBacktracks;
+	private long numberOfGiveUps;
+	private long numberOfTries;
+	private long timeBudget;
+	private volatile long numberOfTriesSoFar;
+	private int numberOfSquares;
+	private int[][] placements;
+	private Random random;
+
+	//	Constructor
+	/**
+	 * Creates a PlacementSolver for grids of numberOfSquares * numberOfSquares squares.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramRandom Randomizer used to shuffle the placements.
+	 */
+	public PlacementSolver(int paramNumberOfSquares, Random paramRandom){
+		numberOfSquares = paramNumberOfSquares;
+		random = paramRandom;
+		free = new boolean[numberOfSquares * numberOfSquares];
+		placements = new int[numberOfSquares + 1][];
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of placements tried while placing the last fleet.
+	 *
+	 * @return Returns the number of placements tried.
+	 */
+	public long getNumberOfTries(){
+		return numberOfTries;
+	}
+	/**
+	 * Returns the number of times an already placed ship had to be taken back while placing the last fleet.
+	 *
+	 * @return Returns the number of backtracks.
+	 */
+	public long getNumberOfBacktracks(){
+		return numberOfBacktracks;
+	}
+	/**
+	 * Returns the number of times a random search or repair gave up, and was followed by a search with new shuffles,
+	 * while placing the last fleet.
+	 *
+	 * @return Returns the number of give-ups.
+	 */
+	public long getNumberOfGiveUps(){
+		return numberOfGiveUps;
+	}
+	/**
+	 * Returns the number of placements tried so far by a running search. Safe to call from another thread, but only
+	 * updated every TRIES_PER_CHECK tries.
+	 *
+	 * @return Returns the number of placements tried so far.
+	 */
+	public long getNumberOfTriesSoFar(){
+		return numberOfTriesSoFar;
+	}
+	/**
+	 * Returns true if the last search was stopped, or ran out of time, before it could finish.
+	 *
+	 * @return Returns true if the last search was stopped.
+	 */
+	public boolean wasStopped(){
+		return wasStopped;
+	}
+
+	//	Setters
+
+	/**
+	 * Sets a wall-clock time budget for each search; a search that has not finished in time stops, as if stop()
+	 * had been called.
+	 *
+	 * @param paramMillis Time budget in milliseconds, or 0 for no budget.
+	 */
+	public void setTimeBudget(long paramMillis){
+		timeBudget = paramMillis * 1000000L;
+	}
+	/**
+	 * Sets whether placeShips() records each call in GameMetrics, as it does by default. A search that is only part
+	 * of a larger placement, as in a PortfolioPlacer's race, or that fills a BoardPool, should not be recorded.
+	 *
+	 * @param paramRecorded False to leave the searches out of GameMetrics.
+	 */
+	public void setRecorded(boolean paramRecorded){
+		recorded = paramRecorded;
+	}
+	/**
+	 * Asks a running search, and any later one by this solver, to stop as soon as possible. May be called from
+	 * another thread.
+	 */
+	public void stop(){
+		stopRequested = true;
+	}
+	/**
+	 * Tries to place all ships on the (empty) Board. The ships must be sorted by length, largest first. On success,
+	 * each ship's start position and orientation is set, and the Board holds the ships with their array index as
+	 * ship index. On failure, the Board is left empty; wasStopped() then tells if the search was stopped, or if
+	 * there is no possible placement. Every call is recorded in GameMetrics, unless setRecorded(false) was called.
+	 *
+	 * @param paramBoard The Board to place ships on.
+	 * @param paramShips The ships to place, largest first.
+	 * @return Returns true if all ships were placed, false if there is no possible placement or the search was stopped.
+	 */
+	public boolean placeShips(Board paramBoard, Ship[] paramShips){
+		GameMetrics.PlacementEvent event = recorded ? GameMetrics.beginPlacement() : null;
+		numberOfTries = 0;
+		numberOfTriesSoFar = 0;
+		numberOfBacktracks = 0;
+		numberOfGiveUps = 0;
+		wasStopped = false;
+		deadline = System.nanoTime() + timeBudget;
+		int result = PLACED;
+		if (paramShips.length > 0 && !canRemainingShipsFit(paramBoard, paramShips, 0)){
+			result = NOT_PLACED;
+		}
+		else if (paramShips.length >= MIN_SHIPS_TO_REPAIR){
+			result = repair(paramBoard, paramShips);
+		}
+		else if (paramShips.length > 0){
+			result = search(paramBoard, paramShips);
+		}
+		if (recorded){
+			GameMetrics.endPlacement(event, numberOfSquares, paramShips.length, result == PLACED, wasStopped,
+					numberOfTries, numberOfBacktracks, numberOfGiveUps);
+		}
+		return result == PLACED;
+	}
+	/**
+	 * Runs random searches, each allowed twice as many tries as the last, until one does not give up.
+	 *
+	 * @param paramBoard The (empty) Board to place ships on.
+	 * @param paramShips The ships to place, largest first.
+	 * @return Returns PLACED if all ships were placed, NOT_PLACED if there is no possible placement, or STOPPED.
+	 */
+	private int search(Board paramBoard, Ship[] paramShips){
+		long triesPerSearch = FIRST_NUMBER_OF_TRIES_PER_SEARCH;
+		int result = searchRandomly(paramBoard, paramShips, triesPerSearch);
+		while (result == GAVE_UP){
+			numberOfGiveUps++;
+			paramBoard.clear();
+			triesPerSearch *= 2;
+			result = searchRandomly(paramBoard, paramShips, triesPerSearch);
+		}
+		if (result == STOPPED){
+			wasStopped = true;
+			paramBoard.clear();
+		}
+		return result;
+	}
+	/**
+	 * Places the ships by repair, allowed MOVES_PER_SHIP moves per ship; if that gives up, clears the Board and runs
+	 * the random searches instead, which finish the job exactly.
+	 *
+	 * @param paramBoard The (empty) Board to place ships on.
+	 * @param paramShips The ships to place, largest first.
+	 * @return Returns PLACED if all ships were placed, NOT_PLACED if there is no possible placement, or STOPPED.
+	 */
+	private int repair(Board paramBoard, Ship[] paramShips){
+		int result = repairRandomly(paramBoard, paramShips, (long) MOVES_PER_SHIP * paramShips.length);
+		if (result == GAVE_UP){
+			numberOfGiveUps++;
+			paramBoard.clear();
+			return search(paramBoard, paramShips);
+		}
+		if (result == STOPPED){
+			wasStopped = true;
+			paramBoard.clear();
+		}
+		return result;
+	}
+	/**
+	 * Shuffles the placements, then places ships largest first, each on the first free placement among the next
+	 * CANDIDATES_PER_MOVE of its length. If none of them is free, the ship takes the one whose touching ships are the
+	 * shortest in all, and those ships are taken back, to be placed again next. Each ship placed is a move; gives up
+	 * after a maximum number of moves, and stops if asked to or out of time.
+	 *
+	 * @param paramBoard The (empty) Board to place ships on.
+	 * @param paramShips The ships to place, largest first.
+	 * @param paramMaxNumberOfMoves Number of moves before giving up.
+	 * @return Returns PLACED if all ships were placed, GAVE_UP, or STOPPED.
+	 */
+	private int repairRandomly(Board paramBoard, Ship[] paramShips, long paramMaxNumberOfMoves){
+		int numberOfShips = paramShips.length;
+		growScratch(numberOfShips);
+		//	The next placement to look at, for each ship length.
+		int[] nextPlacement = nextPlacements;
+		Arrays.fill(nextPlacement, 0, numberOfSquares + 1, 0);
+
+		//	Shuffle the placements for each ship length, once per search.
+		for (int i = 0; i < numberOfShips; i++){
+			int shipLength = paramShips[i].getShipLength();
+			if (i == 0 || shipLength != paramShips[i-1].getShipLength()){
+				shufflePlacements(shipLength);
+			}
+		}
+
+		//	Ships wait on a stack, largest on top, and ships taken back are put on top again.
+		numberOfWaitingShips = 0;
+		for (int i = numberOfShips - 1; i >= 0; i--){
+			waitingShips[numberOfWaitingShips++] = i;
+		}
+		long numberOfMoves = 0;
+		while (numberOfWaitingShips > 0){
+			if (numberOfMoves >= paramMaxNumberOfMoves){
+				return GAVE_UP;
+			}
+			numberOfMoves++;
+			int shipIndex = waitingShips[--numberOfWaitingShips];
+			int shipLength = paramShips[shipIndex].getShipLength();
+			int[] shipPlacements = placements[shipLength];
+
+			//	Look at the next candidates of this length, and keep the free one, or the cheapest to make free.
+			int bestPlacement = 0;
+			int bestCost = Integer.MAX_VALUE;
+			for (int i = 0; i < CANDIDATES_PER_MOVE && bestCost > 0; i++){
+				if (numberOfTries % TRIES_PER_CHECK == 0){
+					numberOfTriesSoFar = numberOfTries;
+					if (stopRequested || (timeBudget > 0 && System.nanoTime() - deadline > 0)){
+						return STOPPED;
+					}
+				}
+				numberOfTries++;
+				int placement = shipPlacements[nextPlacement[shipLength]];
+				nextPlacement[shipLength]++;
+				if (nextPlacement[shipLength] == shipPlacements.length){
+					nextPlacement[shipLength] = 0;
+				}
+				int cost = visitTouchingShips(paramBoard, paramShips, placement, shipLength, false);
+				if (cost < bestCost){
+					bestCost = cost;
+					bestPlacement = placement;
+				}
+			}
+			if (bestCost > 0){
+				visitTouchingShips(paramBoard, paramShips, bestPlacement, shipLength, true);
+			}
+			int cell = bestPlacement >> 1;
+			int xFactor = (bestPlacement & 1) == 0 ? 1 : 0;
+			int x = cell % numberOfSquares;
+			int y = cell / numberOfSquares;
+			paramShips[shipIndex].setStartPosition(x, y);
+			paramShips[shipIndex].setHorizontal(xFactor == 1);
+			paramBoard.placeShip(shipIndex, x, y, shipLength, xFactor, 1 - xFactor);
+		}
+		return PLACED;
+	}
+	/**
+	 * Finds the ships on a placement's squares or touching them, each once, and either adds up their lengths, or
+	 * takes them back: off the Board and onto the stack of waiting ships.
+	 *
+	 * @param paramBoard The Board being placed on.
+	 * @param paramShips The ships.
+	 * @param paramPlacement The placement: start square's cell index times two, plus 1 if vertical.
+	 * @param paramShipLength Length of ship.
+	 * @param paramTakeBack True to take the ships back.
+	 * @return Returns the sum of the ships' lengths; 0 if the placement is free.
+	 */
+	private int visitTouchingShips(Board paramBoard, Ship[] paramShips, int paramPlacement, int paramShipLength,
+			boolean paramTakeBack){
+		touchStamp++;
+		int cell = paramPlacement >> 1;
+		int xFactor = (paramPlacement & 1) == 0 ? 1 : 0;
+		int yFactor = 1 - xFactor;
+		int startX = cell % numberOfSquares;
+		int startY = cell / numberOfSquares;
+		int cost = 0;
+		for (int i = -1; i <= paramShipLength; i++){
+			for (int side = -1; side <= 1; side++){
+				//	Squares beside the ship, and the squares right before the start and right after the end.
+				if ((i < 0 || i == paramShipLength) && side != 0){
+					continue;
+				}
+				int x = startX + i*xFactor + side*yFactor;
+				int y = startY + i*yFactor + side*xFactor;
+				if (x < 0 || y < 0 || x >= numberOfSquares || y >= numberOfSquares){
+					continue;
+				}
+				int touching = paramBoard.getShipIndex(x, y);
+				if (touching >= 0 && touchStamps[touching] != touchStamp){
+					touchStamps[touching] = touchStamp;
+					cost += paramShips[touching].getShipLength();
+					if (paramTakeBack){
+						paramShips[touching].resetShipTrace(paramBoard);
+						waitingShips[numberOfWaitingShips++] = touching;
+						numberOfBacktracks++;
+					}
+				}
+			}
+		}
+		return cost;
+	}
+	/**
+	 * Shuffles the placements, then places ships largest first, each ship trying its placements in order, going back
+	 * to move the ship before when out of placements. Gives up after a maximum number of tries, and stops if asked
+	 * to or out of time.
+	 *
+	 * @param paramBoard The (empty) Board to place ships on.
+	 * @param paramShips The ships to place, largest first.
+	 * @param paramMaxNumberOfTries Number of tries before giving up.
+	 * @return Returns PLACED if all ships were placed, NOT_PLACED if there is no possible placement, GAVE_UP, or STOPPED.
+	 */
+	private int searchRandomly(Board paramBoard, Ship[] paramShips, long paramMaxNumberOfTries){
+		int numberOfShips = paramShips.length;
+		growScratch(numberOfShips);
+		int[] nextPlacement = nextPlacements;
+		int[] chosenPlacement = chosenPlacements;
+		long triesAtStart = numberOfTries;
+
+		//	Shuffle the placements for each ship length, once per search.
+		for (int i = 0; i < numberOfShips; i++){
+			int shipLength = paramShips[i].getShipLength();
+			if (i == 0 || shipLength != paramShips[i-1].getShipLength()){
+				shufflePlacements(shipLength);
+			}
+		}
+
+		int depth = 0;
+		nextPlacement[0] = 0;
+		while (depth < numberOfShips){
+			Ship currentShip = paramShips[depth];
+			int shipLength = currentShip.getShipLength();
+			int[] shipPlacements = placements[shipLength];
+			boolean placed = false;
+
+			//	Try the current ship's placements, from where it last left off.
+			int i = nextPlacement[depth];
+			while (!placed && i < shipPlacements.length){
+				if (numberOfTries - triesAtStart >= paramMaxNumberOfTries){
+					return GAVE_UP;
+				}
+				if (numberOfTries % TRIES_PER_CHECK == 0){
+					numberOfTriesSoFar = numberOfTries;
+					if (stopRequested || (timeBudget > 0 && System.nanoTime() - deadline > 0)){
+						return STOPPED;
+					}
+				}
+				int placement = shipPlacements[i];
+				int cell = placement >> 1;
+				int xFactor = (placement & 1) == 0 ? 1 : 0;
+				int yFactor = 1 - xFactor;
+				int x = cell % numberOfSquares;
+				int y = cell / numberOfSquares;
+				numberOfTries++;
+				if (paramBoard.isShipPlacable(x, y, shipLength, xFactor, yFactor)){
+					currentShip.setStartPosition(x, y);
+					currentShip.setHorizontal(xFactor == 1);
+					paramBoard.placeShip(depth, x, y, shipLength, xFactor, yFactor);
+					if (canRemainingShipsFit(paramBoard, paramShips, depth + 1)){
+						placed = true;
+					}
+					else {
+						currentShip.resetShipTrace(paramBoard);
+					}
+				}
+				i++;
+			}
+
+			if (placed){
+				//	Go to next ship. A ship of the same length continues after this one's placement.
+				chosenPlacement[depth] = i - 1;
+				nextPlacement[depth] = i;
+				depth++;
+				if (depth < numberOfShips){
+					nextPlacement[depth] = paramShips[depth].getShipLength() == shipLength ? i : 0;
+				}
+			}
+			else {
+				//	Out of placements; go back to last ship and move it.
+				//	When out of ships (depth == 0), every placement has been tried.
+				depth--;
+				if (depth < 0){
+					return NOT_PLACED;
+				}
+				paramShips[depth].resetShipTrace(paramBoard);
+				nextPlacement[depth] = chosenPlacement[depth] + 1;
+				numberOfBacktracks++;
+			}
+		}
+		return PLACED;
+	}
+	/**
+	 * Makes the scratch arrays of the searches and of repair large enough for a fleet, if they are not already. They
+	 * are kept from one fleet to the next, so placing a fleet no larger than the last one allocates nothing.
+	 *
+	 * @param paramNumberOfShips Number of ships in the fleet.
+	 */
+	private void growScratch(int paramNumberOfShips){
+		if (chosenPlacements == null || chosenPlacements.length < paramNumberOfShips){
+			chosenPlacements = new int[paramNumberOfShips];
+			touchStamps = new int[paramNumberOfShips];
+			waitingShips = new int[paramNumberOfShips];
+			nextPlacements = new int[Math.max(paramNumberOfShips, numberOfSquares) + 1];
+		}
+	}
+	/**
+	 * Lists all placements of a ship length in order, then shuffles them. The list is always made from the same order
+	 * (into an array made once), so the same Random state always gives the same shuffle, whatever was placed before.
+	 * Each placement is stored as the start square's cell index times two, plus 1 if the ship is vertical.
+	 *
+	 * @param paramShipLength Length of ship.
+	 */
+	private void shufflePlacements(int paramShipLength){
+		int fits = numberOfSquares - paramShipLength + 1;
+		boolean bothWays = paramShipLength > 1;
+		if (placements[paramShipLength] == null){
+			placements[paramShipLength] = new int[(bothWays ? 2 : 1) * fits * numberOfSquares];
+		}
+		int[] shipPlacements = placements[paramShipLength];
+		int counter = 0;
+		for (int a = 0; a < numberOfSquares; a++){
+			for (int b = 0; b < fits; b++){
+				shipPlacements[counter++] = (a * numberOfSquares + b) << 1;
+				if (bothWays){
+					shipPlacements[counter++] = ((b * numberOfSquares + a) << 1) | 1;
+				}
+			}
+		}
+		for (int i = shipPlacements.length - 1; i > 0; i--){
+			int j = random.nextInt(i + 1);
+			int swap = shipPlacements[i];
+			shipPlacements[i] = shipPlacements[j];
+			shipPlacements[j] = swap;
+		}
+	}
+	/**
+	 * Checks if the ships not yet placed can possibly fit on the squares that are still free (no ship on or next to
+	 * them). Four bounds are checked. The free squares have to be at least as many as the remaining ship squares.
+	 * Every square next to a ship is water, or outside the grid; a ship of length L has 2L + 2 such neighbours, and
+	 * a free water square can be next to at most 4 ship squares, so the sum of 2L + 2 over the remaining ships can not
+	 * exceed 4 times the free water squares plus the number of edges between free and not free squares. Ships may
+	 * touch only at corners, so each block of 2 * 2 squares (smaller along the edges of an odd grid) holds at most 2
+	 * of the remaining ship squares, and no more than it has free squares. And for each remaining ship length, the
+	 * ships of that length or longer have to be no more than could be fitted into the free runs of squares in each
+	 * row (horizontal ships) plus each column (vertical ships).
+	 *
+	 * @param paramBoard The Board being placed on.
+	 * @param paramShips The ships, largest first.
+	 * @param paramFirstRemaining Index of the first ship not yet placed.
+	 * @return Returns false if the remaining ships can not fit.
+	 */
+	private boolean canRemainingShipsFit(Board paramBoard, Ship[] paramShips, int paramFirstRemaining){
+		if (paramFirstRemaining == paramShips.length){
+			return true;
+		}
+
+		//	Mark free squares, and compare with remaining ship squares.
+		int freeSquares = 0;
+		for (int y = 0; y < numberOfSquares; y++){
+			for (int x = 0; x < numberOfSquares; x++){
+				boolean isFree = !paramBoard.hasShip(x, y)
+						&& (y == 0 || !paramBoard.hasShip(x, y - 1))
+						&& (y == numberOfSquares - 1 || !paramBoard.hasShip(x, y + 1))
+						&& (x == 0 || !paramBoard.hasShip(x - 1, y))
+						&& (x == numberOfSquares - 1 || !paramBoard.hasShip(x + 1, y));
+				free[y * numberOfSquares + x] = isFree;
+				if (isFree){
+					freeSquares++;
+				}
+			}
+		}
+		int remainingSquares = 0;
+		for (int i = paramFirstRemaining; i < paramShips.length; i++){
+			remainingSquares += paramShips[i].getShipLength();
+		}
+		if (remainingSquares > freeSquares){
+			return false;
+		}
+		int freeEdges = 0;
+		for (int y = 0; y < numberOfSquares; y++){
+			for (int x = 0; x < numberOfSquares; x++){
+				int cell = y * numberOfSquares + x;
+				if (free[cell]){
+					freeEdges += (y == 0 || !free[cell - numberOfSquares] ? 1 : 0)
+							+ (y == numberOfSquares - 1 || !free[cell + numberOfSquares] ? 1 : 0)
+							+ (x == 0 || !free[cell - 1] ? 1 : 0)
+							+ (x == numberOfSquares - 1 || !free[cell + 1] ? 1 : 0);
+				}
+			}
+		}
+		int remainingShips = paramShips.length - paramFirstRemaining;
+		if (2 * remainingSquares + 2 * remainingShips > 4 * (freeSquares - remainingSquares) + freeEdges){
+			return false;
+		}
+		int blockSquares = 0;
+		for (int y = 0; y < numberOfSquares; y += 2){
+			for (int x = 0; x < numberOfSquares; x += 2){
+				int cell = y * numberOfSquares + x;
+				int freeInBlock = (free[cell] ? 1 : 0)
+						+ (x + 1 < numberOfSquares && free[cell + 1] ? 1 : 0)
+						+ (y + 1 < numberOfSquares && free[cell + numberOfSquares] ? 1 : 0)
+						+ (x + 1 < numberOfSquares && y + 1 < numberOfSquares && free[cell + numberOfSquares + 1] ? 1 : 0);
+				blockSquares += Math.min(2, freeInBlock);
+			}
+		}
+		if (remainingSquares > blockSquares){
+			return false;
+		}
+
+		//	For each remaining length (smallest first), compare ships of at least that length with free runs.
+		for (int i = paramShips.length - 1; i >= paramFirstRemaining; i--){
+			int shipLength = paramShips[i].getShipLength();
+			if (i == paramShips.length - 1 || shipLength != paramShips[i+1].getShipLength()){
+				int shipsAtLeastThisLong = i - paramFirstRemaining + 1;
+				if (shipsAtLeastThisLong > countRunCapacity(shipLength)){
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	/**
+	 * Counts how many ships of a certain length can be fitted, without touching each other, into the runs of free
+	 * squares of each row and each column. A run of r free squares fits (r + 1) / (length + 1) ships.
+	 *
+	 * @param paramShipLength Length of ship.
+	 * @return Returns the number of ships that fit horizontally plus the number that fit vertically.
+	 */
+	private int countRunCapacity(int paramShipLength){
+		int capacity = 0;
+		for (int a = 0; a < numberOfSquares; a++){
+			int rowRun = 0;
+			int columnRun = 0;
+			for (int b = 0; b <= numberOfSquares; b++){
+				if (b < numberOfSquares && free[a * numberOfSquares + b]){
+					rowRun++;
+				}
+				else {
+					capacity += (rowRun + 1) / (paramShipLength + 1);
+					rowRun = 0;
+				}
+				if (b < numberOfSquares && free[b * numberOfSquares + a]){
+					columnRun++;
+				}
+				else {
+					capacity += (columnRun + 1) / (paramShipLength + 1);
+					columnRun = 0;
+				}
+			}
+		}
+		return paramShipLength == 1 ? capacity / 2 : capacity;
+	}
+}
@@ -0,0 +1,226 @@
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Object class PortfolioPlacer. Places a fleet of ships by racing several independently seeded PlacementSolvers,
+ * one per processor core, each on its own Board and copy of the ships. How long a random search takes varies a lot
+ * from one seed to the next on hard fleets, so the first search to finish usually finishes far sooner than a single
+ * search would. The first search that places all ships wins, and the others are stopped. Since every search is
+ * exact, the first one that proves the ships can not be placed also ends the race.
+ *
+ * Each search is given a game seed of its own, and shuffles with the seed's placement stream (see Game), the same way
+ * a single PlacementSolver would. getSeed() tells the seed of the winning search, and a PlacementSolver given that
+ * seed's placement stream places the ships the same way again.
+ *
+ * The searches run on a pool of daemon threads shared by all PortfolioPlacers. The race as a whole is recorded in
+ * GameMetrics as one placement, with the tries, backtracks and give-ups of all searches; the searches themselves are
+ * not recorded.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class PortfolioPlacer implements ShipPlacer {
+
+	//	Constants
+	private final int SEARCH_PROVED_IMPOSSIBLE = -2;
+	private final int SEARCH_STOPPED = -1;
+
+	//	Fields
+	private static ExecutorService pool;
+	private static int poolSize;
+	private boolean wasStopped;
+	private volatile boolean stopRequested;
+	private long numberOfTries;
+	private long seed;
+	private long timeBudget;
+	private int numberOfSearches;
+	private int numberOfSquares;
+	private Random random;
+	private volatile PlacementSolver[] solvers;
+
+	//	Constructor
+	/**
+	 * Creates a PortfolioPlacer for grids of numberOfSquares * numberOfSquares squares, racing one search per
+	 * available processor core.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramRandom Randomizer used to draw the searches' seeds.
+	 */
+	public PortfolioPlacer(int paramNumberOfSquares, Random paramRandom){
+		this(paramNumberOfSquares, paramRandom, Runtime.getRuntime().availableProcessors());
+	}
+	/**
+	 * Creates a PortfolioPlacer for grids of numberOfSquares * numberOfSquares squares, racing a chosen number of
+	 * searches.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @param paramRandom Randomizer used to draw the searches' seeds.
+	 * @param paramNumberOfSearches Number of searches to race.
+	 */
+	public PortfolioPlacer(int paramNumberOfSquares, Random paramRandom, int paramNumberOfSearches){
+		numberOfSquares = paramNumberOfSquares;
+		random = paramRandom;
+		numberOfSearches = Math.max(1, paramNumberOfSearches);
+	}
+
+	//	Getters
+
+	public long getNumberOfTries(){
+		return numberOfTries;
+	}
+	public long getNumberOfTriesSoFar(){
+		PlacementSolver[] currentSolvers = solvers;
+		long triesSoFar = 0;
+		if (currentSolvers != null){
+			for (int i = 0; i < currentSolvers.length; i++){
+				triesSoFar += currentSolvers[i].getNumberOfTriesSoFar();
+			}
+		}
+		return triesSoFar;
+	}
+	public boolean wasStopped(){
+		return wasStopped;
+	}
+	/**
+	 * Returns the game seed of the search that placed the ships, in the last call to placeShips().
+	 *
+	 * @return Returns the winning seed.
+	 */
+	public long getSeed(){
+		return seed;
+	}
+
+	//	Setters
+
+	public void setTimeBudget(long paramMillis){
+		timeBudget = paramMillis;
+	}
+	public void stop(){
+		stopRequested = true;
+		stopSolvers();
+	}
+	/**
+	 * Starts one search per seed, waits for the first that places all ships or proves that they can not be placed,
+	 * stops the others, and copies the winning placement to the Board and ships.
+	 */
+	public boolean placeShips(Board paramBoard, Ship[] paramShips){
+		GameMetrics.PlacementEvent event = GameMetrics.beginPlacement();
+		ExecutorCompletionService<Integer> completionService =
+				new ExecutorCompletionService<Integer>(getPool(numberOfSearches));
+		PlacementSolver[] newSolvers = new PlacementSolver[numberOfSearches];
+		final Board[] searchBoards = new Board[numberOfSearches];
+		final Ship[][] searchShips = new Ship[numberOfSearches][];
+		long[] seeds = new long[numberOfSearches];
+		for (int i = 0; i < numberOfSearches; i++){
+			seeds[i] = random.nextLong();
+			newSolvers[i] = new PlacementSolver(numberOfSquares,
+					new Random(Game.getStreamSeed(seeds[i], Game.PLACEMENT_STREAM)));
+			newSolvers[i].setTimeBudget(timeBudget);
+			newSolvers[i].setRecorded(false);
+			searchBoards[i] = new Board(numberOfSquares);
+			searchShips[i] = new Ship[paramShips.length];
+			for (int j = 0; j < paramShips.length; j++){
+				searchShips[i][j] = paramShips[j].copyShip();
+			}
+		}
+		solvers = newSolvers;
+		if (stopRequested){
+			stopSolvers();
+		}
+
+		//	Start the race. Each search returns its index if it placed the ships.
+		for (int i = 0; i < numberOfSearches; i++){
+			final int search = i;
+			final PlacementSolver solver = newSolvers[i];
+			completionService.submit(new Callable<Integer>(){
+				public Integer call(){
+					if (solver.placeShips(searchBoards[search], searchShips[search])){
+						return search;
+					}
+					return solver.wasStopped() ? SEARCH_STOPPED : SEARCH_PROVED_IMPOSSIBLE;
+				}
+			});
+		}
+
+		//	Wait for the first search that places the ships, or proves that they can not be placed.
+		int result = SEARCH_STOPPED;
+		int searchesLeft = numberOfSearches;
+		while (result == SEARCH_STOPPED && searchesLeft > 0){
+			try {
+				result = completionService.take().get();
+			}
+			catch (InterruptedException e){
+				Thread.currentThread().interrupt();
+				searchesLeft = 0;
+			}
+			catch (ExecutionException e){
+				e.printStackTrace();
+			}
+			searchesLeft--;
+		}
+		stopSolvers();
+
+		//	Sum up, and copy the winner.
+		numberOfTries = 0;
+		long numberOfBacktracks = 0;
+		long numberOfGiveUps = 0;
+		for (int i = 0; i < numberOfSearches; i++){
+			numberOfTries += i == result ? newSolvers[i].getNumberOfTries() : newSolvers[i].getNumberOfTriesSoFar();
+			numberOfBacktracks += newSolvers[i].getNumberOfBacktracks();
+			numberOfGiveUps += newSolvers[i].getNumberOfGiveUps();
+		}
+		wasStopped = result == SEARCH_STOPPED;
+		GameMetrics.endPlacement(event, numberOfSquares, paramShips.length, result >= 0, wasStopped, numberOfTries,
+				numberOfBacktracks, numberOfGiveUps);
+		if (result < 0){
+			return false;
+		}
+		seed = seeds[result];
+		for (int j = 0; j < paramShips.length; j++){
+			Ship ship = searchShips[result][j];
+			int xFactor = ship.isShipHorizontal() ? 1 : 0;
+			paramShips[j].setStartPosition(ship.getStartX(), ship.getStartY());
+			paramShips[j].setHorizontal(ship.isShipHorizontal());
+			paramBoard.placeShip(j, ship.getStartX(), ship.getStartY(), ship.getShipLength(), xFactor, 1 - xFactor);
+		}
+		return true;
+	}
+	/**
+	 * Asks all running searches to stop.
+	 */
+	private void stopSolvers(){
+		PlacementSolver[] currentSolvers = solvers;
+		if (currentSolvers != null){
+			for (int i = 0; i < currentSolvers.length; i++){
+				currentSolvers[i].stop();
+			}
+		}
+	}
+	/**
+	 * Returns the shared pool of daemon threads, making it larger first if needed.
+	 *
+	 * @param paramMinimumSize Number of threads needed.
+	 * @return Returns the thread pool.
+	 */
+	private static synchronized ExecutorService getPool(int paramMinimumSize){
+		if (pool == null || poolSize < paramMinimumSize){
+			if (pool != null){
+				pool.shutdown();
+			}
+			poolSize = Math.max(paramMinimumSize, Runtime.getRuntime().availableProcessors());
+			pool = Executors.newFixedThreadPool(poolSize, new ThreadFactory(){
+				public Thread newThread(Runnable paramRunnable){
+					Thread thread = new Thread(paramRunnable, "PortfolioPlacer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return pool;
+	}
+}
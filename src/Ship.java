@@ -1,8 +1,7 @@
-import java.util.Random;
-import java.util.Vector;
 
 /**
- * Object class Ship. Has a length, an orientation, ID and a start position.
+ * Object class Ship. Has a length, an orientation, ID and a start position. Keeps one array of the cell indexes of its 
+ * squares, refilled when asked for, so going through a ship's squares neither scans the grid nor allocates.
  * 
  * @author Hannes Nyberg
  *
@@ -10,8 +9,6 @@ import java.util.Vector;
 public class Ship {
 	
 	//	Fields
-	private Battleships battleShipProgram;
-	private Random random;
 	private boolean isHorizontal;
 	private int numberOfHits;
 	private int shipID;
@@ -20,28 +17,23 @@ public class Ship {
 	private int startY;
 	private int xFactor;
 	private int yFactor;
+	private int[] cellIndexes;
 	
 	//	Constructor
-	public Ship(int paramID, int paramLength, Battleships paramBattleShip){
+	public Ship(int paramID, int paramLength){
 		shipID = paramID;	//	used for placement order identification; optional
 		shipLength = paramLength;
-		battleShipProgram = paramBattleShip;
-		random = new Random();
-		isHorizontal = random.nextBoolean();
-		xFactor = isHorizontal ? 1 : 0;
-		yFactor = isHorizontal ? 0 : 1;
+		isHorizontal = true;
+		xFactor = 1;
+		yFactor = 0;
 		startX = 0;
 		startY = 0;
 		numberOfHits = 0;
+		cellIndexes = new int[shipLength];
 	}
 	
 	//	Getters
 	
-	private void checkIfDestroyed(){
-		if (numberOfHits == shipLength){
-			battleShipProgram.addDestroyed();
-		}
-	}
 	/**
 	 * Returns Ship ID.
 	 * 
@@ -58,15 +50,57 @@ public class Ship {
 	public int getShipLength(){
 		return shipLength;
 	}
+	/**
+	 * Returns the x-position of the Ship's start (leftmost or topmost) square.
+	 * 
+	 * @return Returns start x-position.
+	 */
+	public int getStartX(){
+		return startX;
+	}
+	/**
+	 * Returns the y-position of the Ship's start (leftmost or topmost) square.
+	 * 
+	 * @return Returns start y-position.
+	 */
+	public int getStartY(){
+		return startY;
+	}
+	/**
+	 * Returns the cell indexes (y * numberOfSquares + x) of the Ship's squares, from its start square on. The array 
+	 * is the Ship's own, and is refilled on each call; it is not to be changed.
+	 * 
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 * @return Returns the cell indexes of the Ship's squares.
+	 */
+	public int[] getCellIndexes(int paramNumberOfSquares){
+		int cell = startY * paramNumberOfSquares + startX;
+		int step = yFactor * paramNumberOfSquares + xFactor;
+		for (int i = 0; i < shipLength; i++){
+			cellIndexes[i] = cell;
+			cell += step;
+		}
+		return cellIndexes;
+	}
+	/**
+	 * Returns a new, unplaced Ship with the same ID and length.
+	 * 
+	 * @return Returns a copy of the Ship.
+	 */
+	public Ship copyShip(){
+		return new Ship(shipID, shipLength);
+	}
 	
 	//	Setters
 	
 	/**
 	 * Adds 1 to numberOfHits and checks if destroyed.
+	 * 
+	 * @return Returns true if this hit destroyed the Ship.
 	 */
-	public void hitShip(){
+	public boolean hitShip(){
 		numberOfHits++;
-		checkIfDestroyed();
+		return numberOfHits == shipLength;
 	}
 	/**
 	 * Returns if ship is horizontal
@@ -77,23 +111,28 @@ public class Ship {
 		return isHorizontal;
 	}
 	/**
-	 * Resets the Ship's data. Similar as constructor.
+	 * Sets numberOfHits to 0, keeping the Ship's position and orientation.
 	 */
-	public void resetShip(){
-		isHorizontal = random.nextBoolean();
-		xFactor = isHorizontal ? 1 : 0;
-		yFactor = isHorizontal ? 0 : 1;
+	public void resetHits(){
 		numberOfHits = 0;
 	}
 	/**
-	 * Removes the Ship's current trace on it's GridButtons.
+	 * Removes the Ship's current trace on the Board.
 	 * 
-	 * @param paramGrid Needs a vector of GridButtons to reset.
+	 * @param paramBoard Needs the Board the ship was placed on.
 	 */
-	public void resetShipTrace(Vector<Vector<GridButton>> paramGrid){
-		for (int i = 0; i < shipLength; i++){
-			paramGrid.get(startY + i*yFactor).get(startX + i*xFactor).resetButton();
-		}
+	public void resetShipTrace(Board paramBoard){
+		paramBoard.removeShip(startX, startY, shipLength, xFactor, yFactor);
+	}
+	/**
+	 * Sets the Ship's orientation.
+	 * 
+	 * @param paramHorizontal True if ship is to be horizontal.
+	 */
+	public void setHorizontal(boolean paramHorizontal){
+		isHorizontal = paramHorizontal;
+		xFactor = isHorizontal ? 1 : 0;
+		yFactor = isHorizontal ? 0 : 1;
 	}
 	/**
 	 * Sets start position for Ship.
@@ -0,0 +1,49 @@
+/**
+ * Interface for ship placement engines. A ShipPlacer places a fleet of ships on an empty Board so that no ship
+ * touches another, within an optional time budget, and can be stopped from another thread.
+ * 
+ * @author Hannes Nyberg
+ *
+ */
+public interface ShipPlacer {
+	
+	/**
+	 * Tries to place all ships on the (empty) Board. The ships must be sorted by length, largest first. On success,
+	 * each ship's start position and orientation is set, and the Board holds the ships with their array index as
+	 * ship index. On failure, the Board is left empty; wasStopped() then tells if the search was stopped, or if
+	 * there is no possible placement.
+	 * 
+	 * @param paramBoard The Board to place ships on.
+	 * @param paramShips The ships to place, largest first.
+	 * @return Returns true if all ships were placed.
+	 */
+	public boolean placeShips(Board paramBoard, Ship[] paramShips);
+	/**
+	 * Sets a wall-clock time budget for each placement.
+	 * 
+	 * @param paramMillis Time budget in milliseconds, or 0 for no budget.
+	 */
+	public void setTimeBudget(long paramMillis);
+	/**
+	 * Asks a running placement, and any later one, to stop as soon as possible. May be called from another thread.
+	 */
+	public void stop();
+	/**
+	 * Returns true if the last placement was stopped, or ran out of time, before it could finish.
+	 * 
+	 * @return Returns true if the last placement was stopped.
+	 */
+	public boolean wasStopped();
+	/**
+	 * Returns the number of placements tried while placing the last fleet.
+	 * 
+	 * @return Returns the number of placements tried.
+	 */
+	public long getNumberOfTries();
+	/**
+	 * Returns the number of placements tried so far by a running placement. May be called from another thread.
+	 * 
+	 * @return Returns the number of placements tried so far.
+	 */
+	public long getNumberOfTriesSoFar();
+}
@@ -0,0 +1,252 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Object class ShotJournal. An append-only binary file of the games played and every shot fired in them, so that any
+ * game can be audited, or replayed shot by shot with ShotReplay, long after it was played.
+ *
+ * The file starts with a header of RECORD_SIZE bytes (MAGIC, VERSION, RECORD_SIZE), then holds records of
+ * RECORD_SIZE bytes each: a type byte, a flag byte, a short, an int and a long. A game starts with a GAME record
+ * (the int is the grid size, the long the game's seed), then one SHIP record for each ship, in the order of their
+ * indexes on the Board (the flag is 1 if the ship is vertical, the short its length, the int its start square's
+ * cell index), so that the board can be rebuilt without placing the ships again. Every shot fired in the game is
+ * then a SHOT record (the flag is the result, Game.MISS to Game.WIN, the int the cell index, the long the time in
+ * milliseconds since 1970). Games are written one after another; all records up to the next GAME record belong to
+ * the game before it, so a journal is for games played one at a time.
+ *
+ * Records are written to a buffer of BUFFER_SIZE bytes, which is written to the file when full. A daemon thread
+ * writes it, and forces the file to disk, every SYNC_INTERVAL, and so does close(), which is also run when the
+ * program exits; so a crash loses at most the last SYNC_INTERVAL of shots. A record cut short by a crash is dropped
+ * when the journal is opened again.
+ *
+ * All methods are synchronized, so a journal may be written from one thread and synced from another, except that
+ * sync() forces the file to disk outside the lock: a shot recorded meanwhile only waits for the buffer to be written
+ * to the file, never for the disk.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class ShotJournal {
+
+	//	Constants
+	public static final String JOURNAL_FILE = "shots.journal";
+	public static final int MAGIC = 0x42534a4e;
+	public static final int RECORD_SIZE = 16;
+	public static final int VERSION = 1;
+	public static final byte GAME = 1;
+	public static final byte SHIP = 2;
+	public static final byte SHOT = 3;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final long SYNC_INTERVAL = 1000;
+
+	//	Fields
+	private boolean closed;
+	private ByteBuffer buffer;
+	private FileChannel channel;
+	private Thread syncer;
+
+	//	Constructor
+	/**
+	 * Creates a ShotJournal writing to an open channel, positioned at the end of the last whole record.
+	 *
+	 * @param paramChannel The journal file's channel.
+	 */
+	private ShotJournal(FileChannel paramChannel){
+		channel = paramChannel;
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		syncer = new Thread(new Runnable(){
+			public void run(){
+				syncPeriodically();
+			}
+		}, "ShotJournal");
+		syncer.setDaemon(true);
+		syncer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable(){
+			public void run(){
+				close();
+			}
+		}, "ShotJournal-close"));
+	}
+	/**
+	 * Opens a journal file to append to, creating it with a header if it does not exist.
+	 *
+	 * @param paramFile The journal file.
+	 * @return Returns the ShotJournal.
+	 * @throws IOException If the file can not be opened, or is not a shot journal.
+	 */
+	public static ShotJournal open(Path paramFile) throws IOException {
+		if (paramFile.toAbsolutePath().getParent() != null){
+			Files.createDirectories(paramFile.toAbsolutePath().getParent());
+		}
+		FileChannel channel = FileChannel.open(paramFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			if (channel.size() < RECORD_SIZE){
+				ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+				header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+				channel.truncate(0);
+				while (header.hasRemaining()){
+					channel.write(header, header.position());
+				}
+			}
+			else {
+				checkHeader(channel, paramFile);
+				//	Drop a record cut short by a crash.
+				channel.truncate(channel.size() / RECORD_SIZE * RECORD_SIZE);
+			}
+			channel.position(channel.size());
+			return new ShotJournal(channel);
+		}
+		catch (IOException e){
+			channel.close();
+			throw e;
+		}
+	}
+
+	//	Getters
+
+	/**
+	 * Checks that a file starts with a shot journal header.
+	 *
+	 * @param paramChannel The file's channel.
+	 * @param paramFile The file, for the message.
+	 * @throws IOException If the file can not be read, or is not a shot journal.
+	 */
+	public static void checkHeader(FileChannel paramChannel, Path paramFile) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+		while (header.hasRemaining()){
+			if (paramChannel.read(header, header.position()) < 0){
+				throw new IOException("Not a shot journal: " + paramFile);
+			}
+		}
+		if (header.getInt(0) != MAGIC || header.getInt(8) != RECORD_SIZE){
+			throw new IOException("Not a shot journal: " + paramFile);
+		}
+		if (header.getInt(4) != VERSION){
+			throw new IOException("Unknown shot journal version: " + paramFile);
+		}
+	}
+
+	//	Setters
+
+	/**
+	 * Writes the start of a game: a GAME record, then a SHIP record for each ship. Called by Game.setJournal(), and
+	 * by Game.reset() for a Game with a journal.
+	 *
+	 * @param paramGame The Game, with its ships placed and nothing shot at.
+	 */
+	public synchronized void startGame(Game paramGame){
+		putRecord(GAME, 0, 0, paramGame.getNumberOfSquares(), paramGame.getSeed());
+		for (int i = 0; i < paramGame.getNumberOfShips(); i++){
+			Ship ship = paramGame.getShip(i);
+			putRecord(SHIP, ship.isShipHorizontal() ? 0 : 1, ship.getShipLength(),
+					ship.getStartY() * paramGame.getNumberOfSquares() + ship.getStartX(), 0);
+		}
+	}
+	/**
+	 * Writes a SHOT record. Called by Game.shoot() for a Game with a journal.
+	 *
+	 * @param paramCell Cell index of the square shot at.
+	 * @param paramResult Result of the shot: Game.MISS, Game.HIT, Game.SUNK or Game.WIN.
+	 */
+	public synchronized void recordShot(int paramCell, int paramResult){
+		putRecord(SHOT, paramResult, 0, paramCell, System.currentTimeMillis());
+	}
+	/**
+	 * Writes the buffered records to the file, and forces the file to disk. Only the writing holds the lock.
+	 *
+	 * @throws IOException If the file can not be written, or is closed while being forced to disk.
+	 */
+	public void sync() throws IOException {
+		FileChannel written;
+		synchronized (this){
+			if (closed){
+				return;
+			}
+			writeBuffer();
+			written = channel;
+		}
+		written.force(false);
+	}
+	/**
+	 * Syncs and closes the journal. Records written after this are dropped.
+	 */
+	public synchronized void close(){
+		if (closed){
+			return;
+		}
+		try {
+			sync();
+			channel.close();
+		}
+		catch (IOException e){
+			e.printStackTrace();
+		}
+		closed = true;
+		syncer.interrupt();
+	}
+	/**
+	 * Puts one record into the buffer, writing the buffer to the file first if it is full.
+	 *
+	 * @param paramType GAME, SHIP or SHOT.
+	 * @param paramFlag The flag byte.
+	 * @param paramShort The short.
+	 * @param paramInt The int.
+	 * @param paramLong The long.
+	 */
+	private void putRecord(byte paramType, int paramFlag, int paramShort, int paramInt, long paramLong){
+		if (closed){
+			return;
+		}
+		if (buffer.remaining() < RECORD_SIZE){
+			try {
+				writeBuffer();
+			}
+			catch (IOException e){
+				//	Keep playing without a journal rather than stop the game.
+				e.printStackTrace();
+				buffer.clear();
+			}
+		}
+		buffer.put(paramType).put((byte) paramFlag).putShort((short) paramShort).putInt(paramInt).putLong(paramLong);
+	}
+	/**
+	 * Writes the buffered records to the file.
+	 *
+	 * @throws IOException If the file can not be written.
+	 */
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	/**
+	 * Runs on the daemon thread: syncs every SYNC_INTERVAL until the journal is closed.
+	 */
+	private void syncPeriodically(){
+		while (true){
+			try {
+				Thread.sleep(SYNC_INTERVAL);
+				sync();
+			}
+			catch (InterruptedException e){
+				return;
+			}
+			catch (IOException e){
+				synchronized (this){
+					//	Closed while forcing; close() has synced already.
+					if (closed){
+						return;
+					}
+				}
+				e.printStackTrace();
+			}
+		}
+	}
+}
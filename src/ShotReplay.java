@@ -0,0 +1,398 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Object class ShotReplay. Reads a ShotJournal, and rebuilds any game in it as it was after any number of shots.
+ *
+ * The journal is read through memory-mapped buffers, and indexed once when opened: the record where each game
+ * starts, its number of ships and its number of shots. A game is rebuilt without placing any ships: its Board is
+ * laid out from the SHIP records, then the shots are fired at it one by one from the SHOT records, and each result
+ * is checked against the recorded one. A result that differs (a bug, or a damaged journal) is an
+ * IllegalStateException, which tells the game, the shot and both results. Replaying reads with absolute gets and
+ * allocates nothing per shot, so millions of shots are replayed per second. Replayed shots are not counted in
+ * GameMetrics, which only counts shots really fired.
+ *
+ * Usage: java ShotReplay [journal] [game] [shots]
+ *
+ * The program replays every game in the journal (ShotJournal.JOURNAL_FILE by default), and prints the number of
+ * shots replayed per second; with a game number, it also prints that game's grid after the given number of shots
+ * (all of them by default).
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class ShotReplay {
+
+	//	Constants
+	private static final int MAX_BUFFER_SIZE = 1 << 30;
+
+	//	Fields
+	private int numberOfGames;
+	private int[] numberOfShips;
+	private int[] numberOfShots;
+	private long recordsPerBuffer;
+	private long[] gameRecords;
+	private MappedByteBuffer[] buffers;
+
+	//	Constructor
+	/**
+	 * Creates a ShotReplay of a journal's mapped records, and indexes its games. Use open().
+	 *
+	 * @param paramChannel Channel of the journal file, with a checked header.
+	 * @throws IOException If the file can not be mapped.
+	 */
+	private ShotReplay(FileChannel paramChannel) throws IOException {
+		int recordSize = ShotJournal.RECORD_SIZE;
+		long numberOfRecords = paramChannel.size() / recordSize - 1;
+		recordsPerBuffer = MAX_BUFFER_SIZE / recordSize;
+		buffers = new MappedByteBuffer[(int) ((numberOfRecords + recordsPerBuffer - 1) / recordsPerBuffer)];
+		for (int i = 0; i < buffers.length; i++){
+			long first = i * recordsPerBuffer;
+			long records = Math.min(recordsPerBuffer, numberOfRecords - first);
+			buffers[i] = paramChannel.map(FileChannel.MapMode.READ_ONLY, (1 + first) * recordSize,
+					records * recordSize);
+		}
+
+		//	Index the games: where each starts, and how many ships and shots it has.
+		gameRecords = new long[16];
+		numberOfShips = new int[16];
+		numberOfShots = new int[16];
+		for (long record = 0; record < numberOfRecords; record++){
+			byte type = getType(record);
+			if (type == ShotJournal.GAME){
+				if (numberOfGames == gameRecords.length){
+					gameRecords = Arrays.copyOf(gameRecords, 2 * numberOfGames);
+					numberOfShips = Arrays.copyOf(numberOfShips, 2 * numberOfGames);
+					numberOfShots = Arrays.copyOf(numberOfShots, 2 * numberOfGames);
+				}
+				gameRecords[numberOfGames] = record;
+				numberOfGames++;
+			}
+			else if (numberOfGames == 0){
+				throw new IOException("Shot journal does not start with a game");
+			}
+			else if (type == ShotJournal.SHIP && numberOfShots[numberOfGames - 1] == 0){
+				numberOfShips[numberOfGames - 1]++;
+			}
+			else if (type == ShotJournal.SHOT){
+				numberOfShots[numberOfGames - 1]++;
+			}
+			else {
+				throw new IOException("Damaged shot journal at record " + record);
+			}
+		}
+	}
+	/**
+	 * Opens a journal file and indexes its games. The file is closed again at once; the mapping stays valid for as
+	 * long as the ShotReplay is used. Records written to the journal later are not seen.
+	 *
+	 * @param paramFile The journal file.
+	 * @return Returns the ShotReplay.
+	 * @throws IOException If the file can not be read, or is not a shot journal.
+	 */
+	public static ShotReplay open(Path paramFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(paramFile, StandardOpenOption.READ)){
+			ShotJournal.checkHeader(channel, paramFile);
+			return new ShotReplay(channel);
+		}
+	}
+
+	//	Main
+	/**
+	 * Replays every game of a journal, and prints one game's grid.
+	 *
+	 * @param args Optional journal file, game number and number of shots.
+	 */
+	public static void main(String[] args){
+		Path file = Paths.get(args.length > 0 ? args[0] : ShotJournal.JOURNAL_FILE);
+		ShotReplay replay;
+		try {
+			replay = open(file);
+		}
+		catch (IOException e){
+			System.out.println("Could not read " + file + ": " + e.getMessage());
+			return;
+		}
+		System.out.println(file + ": " + replay.getNumberOfGames() + " games");
+		long start = System.nanoTime();
+		long shots = replay.replayAll();
+		double time = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Replayed %d shots in %.3f s: %.0f shots/s%n", shots, time, shots / Math.max(1e-9, time));
+
+		if (args.length > 1){
+			int gameNumber = Integer.parseInt(args[1]);
+			int numberOfShots = args.length > 2 ? Integer.parseInt(args[2]) : replay.getNumberOfShots(gameNumber);
+			Game game = replay.replay(gameNumber, numberOfShots);
+			System.out.println("Game " + gameNumber + ", seed " + game.getSeed() + ", after " + numberOfShots
+					+ " of " + replay.getNumberOfShots(gameNumber) + " shots: " + game.getNumberOfHits() + " hits, "
+					+ game.getNumberOfMisses() + " misses, " + game.getNumberOfDestroyed() + " of "
+					+ game.getNumberOfShips() + " ships sunk");
+			Board board = game.getBoard();
+			for (int y = 0; y < game.getNumberOfSquares(); y++){
+				StringBuilder line = new StringBuilder();
+				for (int x = 0; x < game.getNumberOfSquares(); x++){
+					if (board.isShot(x, y)){
+						line.append(board.hasShip(x, y) ? " X" : " o");
+					}
+					else {
+						line.append(board.hasShip(x, y) ? " #" : " .");
+					}
+				}
+				System.out.println(line);
+			}
+		}
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of games in the journal.
+	 *
+	 * @return Returns the number of games.
+	 */
+	public int getNumberOfGames(){
+		return numberOfGames;
+	}
+	/**
+	 * Returns the number of shots fired in a game.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @return Returns the number of shots.
+	 */
+	public int getNumberOfShots(int paramGame){
+		return numberOfShots[paramGame];
+	}
+	/**
+	 * Returns the seed of a game.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @return Returns the seed.
+	 */
+	public long getSeed(int paramGame){
+		return getLong(gameRecords[paramGame]);
+	}
+	/**
+	 * Returns the number of squares along each side of a game's grid.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @return Returns the grid size.
+	 */
+	public int getNumberOfSquares(int paramGame){
+		return getInt(gameRecords[paramGame]);
+	}
+	/**
+	 * Returns the cell index of the square a shot was fired at.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @param paramShot Number of the shot in the game, from 0.
+	 * @return Returns the cell index.
+	 */
+	public int getShotCell(int paramGame, int paramShot){
+		return getInt(getShotRecord(paramGame, paramShot));
+	}
+	/**
+	 * Returns the recorded result of a shot.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @param paramShot Number of the shot in the game, from 0.
+	 * @return Returns Game.MISS, Game.HIT, Game.SUNK or Game.WIN.
+	 */
+	public int getShotResult(int paramGame, int paramShot){
+		return getFlag(getShotRecord(paramGame, paramShot));
+	}
+	/**
+	 * Returns when a shot was fired.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @param paramShot Number of the shot in the game, from 0.
+	 * @return Returns the time, in milliseconds since 1970.
+	 */
+	public long getShotTime(int paramGame, int paramShot){
+		return getLong(getShotRecord(paramGame, paramShot));
+	}
+	/**
+	 * Returns the record of a shot.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @param paramShot Number of the shot in the game, from 0.
+	 * @return Returns the record index.
+	 */
+	private long getShotRecord(int paramGame, int paramShot){
+		if (paramShot < 0 || paramShot >= numberOfShots[paramGame]){
+			throw new IndexOutOfBoundsException("Shot " + paramShot + " of " + numberOfShots[paramGame]);
+		}
+		return gameRecords[paramGame] + 1 + numberOfShips[paramGame] + paramShot;
+	}
+	/**
+	 * Returns the buffer holding a record.
+	 *
+	 * @param paramRecord Record index.
+	 * @return Returns the buffer.
+	 */
+	private MappedByteBuffer getBuffer(long paramRecord){
+		return buffers[(int) (paramRecord / recordsPerBuffer)];
+	}
+	/**
+	 * Returns the position of a record in its buffer.
+	 *
+	 * @param paramRecord Record index.
+	 * @return Returns the position.
+	 */
+	private int getPosition(long paramRecord){
+		return (int) (paramRecord % recordsPerBuffer) * ShotJournal.RECORD_SIZE;
+	}
+	/**
+	 * Returns the type byte of a record.
+	 *
+	 * @param paramRecord Record index.
+	 * @return Returns ShotJournal.GAME, ShotJournal.SHIP or ShotJournal.SHOT.
+	 */
+	private byte getType(long paramRecord){
+		return getBuffer(paramRecord).get(getPosition(paramRecord));
+	}
+	/**
+	 * Returns the flag byte of a record.
+	 *
+	 * @param paramRecord Record index.
+	 * @return Returns the flag.
+	 */
+	private int getFlag(long paramRecord){
+		return getBuffer(paramRecord).get(getPosition(paramRecord) + 1);
+	}
+	/**
+	 * Returns the short of a record.
+	 *
+	 * @param paramRecord Record index.
+	 * @return Returns the short.
+	 */
+	private int getShort(long paramRecord){
+		return getBuffer(paramRecord).getShort(getPosition(paramRecord) + 2);
+	}
+	/**
+	 * Returns the int of a record.
+	 *
+	 * @param paramRecord Record index.
+	 * @return Returns the int.
+	 */
+	private int getInt(long paramRecord){
+		return getBuffer(paramRecord).getInt(getPosition(paramRecord) + 4);
+	}
+	/**
+	 * Returns the long of a record.
+	 *
+	 * @param paramRecord Record index.
+	 * @return Returns the long.
+	 */
+	private long getLong(long paramRecord){
+		return getBuffer(paramRecord).getLong(getPosition(paramRecord) + 8);
+	}
+
+	//	Setters
+
+	/**
+	 * Rebuilds a game as it was after a number of shots.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @param paramNumberOfShots Number of shots to fire, from 0 to getNumberOfShots(paramGame).
+	 * @return Returns a new Game, with the shots fired.
+	 */
+	public Game replay(int paramGame, int paramNumberOfShots){
+		if (paramNumberOfShots < 0 || paramNumberOfShots > numberOfShots[paramGame]){
+			throw new IndexOutOfBoundsException(paramNumberOfShots + " shots of " + numberOfShots[paramGame]);
+		}
+		Ship[] ships = createShips(paramGame);
+		Board board = new Board(getNumberOfSquares(paramGame));
+		layOutBoard(paramGame, board, ships);
+		return replayShots(new Game(board, ships, getSeed(paramGame)), paramGame, paramNumberOfShots);
+	}
+	/**
+	 * Replays every game of the journal, checking every result.
+	 *
+	 * @return Returns the number of shots replayed.
+	 */
+	public long replayAll(){
+		long shots = 0;
+		Board board = null;
+		Ship[] ships = new Ship[0];
+		for (int i = 0; i < numberOfGames; i++){
+			//	Reuse the Board and ships while the grid size and fleet stay the same.
+			long record = gameRecords[i];
+			boolean sameFleet = board != null && board.getNumberOfSquares() == getNumberOfSquares(i)
+					&& ships.length == numberOfShips[i];
+			for (int j = 0; sameFleet && j < ships.length; j++){
+				sameFleet = ships[j].getShipLength() == getShort(record + 1 + j);
+			}
+			if (!sameFleet){
+				board = new Board(getNumberOfSquares(i));
+				ships = createShips(i);
+			}
+			layOutBoard(i, board, ships);
+			replayShots(new Game(board, ships, getSeed(i)), i, numberOfShots[i]);
+			shots += numberOfShots[i];
+		}
+		return shots;
+	}
+	/**
+	 * Creates unplaced ships of the lengths in a game's SHIP records.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @return Returns the ships, in the order of their indexes on the Board.
+	 */
+	private Ship[] createShips(int paramGame){
+		Ship[] ships = new Ship[numberOfShips[paramGame]];
+		for (int i = 0; i < ships.length; i++){
+			ships[i] = new Ship(i, getShort(gameRecords[paramGame] + 1 + i));
+		}
+		return ships;
+	}
+	/**
+	 * Lays out a game's board from its SHIP records.
+	 *
+	 * @param paramGame Number of the game, from 0.
+	 * @param paramBoard Board of the game's grid size, cleared by this method.
+	 * @param paramShips Ships of the game's lengths, in order.
+	 */
+	private void layOutBoard(int paramGame, Board paramBoard, Ship[] paramShips){
+		paramBoard.clear();
+		long record = gameRecords[paramGame];
+		int numberOfSquares = paramBoard.getNumberOfSquares();
+		for (int i = 0; i < paramShips.length; i++){
+			long shipRecord = record + 1 + i;
+			int cell = getInt(shipRecord);
+			boolean horizontal = getFlag(shipRecord) == 0;
+			Ship ship = paramShips[i];
+			ship.setStartPosition(cell % numberOfSquares, cell / numberOfSquares);
+			ship.setHorizontal(horizontal);
+			ship.resetHits();
+			paramBoard.placeShip(i, cell % numberOfSquares, cell / numberOfSquares, ship.getShipLength(),
+					horizontal ? 1 : 0, horizontal ? 0 : 1);
+		}
+	}
+	/**
+	 * Fires a game's first shots at a Game laid out from its SHIP records, checking each result.
+	 *
+	 * @param paramGame The Game.
+	 * @param paramGameNumber Number of the game, from 0.
+	 * @param paramNumberOfShots Number of shots to fire.
+	 * @return Returns the Game.
+	 */
+	private Game replayShots(Game paramGame, int paramGameNumber, int paramNumberOfShots){
+		int numberOfSquares = paramGame.getNumberOfSquares();
+		long record = gameRecords[paramGameNumber] + 1 + numberOfShips[paramGameNumber];
+		paramGame.setCounted(false);
+		for (int i = 0; i < paramNumberOfShots; i++){
+			int cell = getInt(record + i);
+			int result = paramGame.shoot(cell % numberOfSquares, cell / numberOfSquares);
+			if (result != getFlag(record + i)){
+				throw new IllegalStateException("Game " + paramGameNumber + ", shot " + i + " at cell " + cell
+						+ " was " + result + ", recorded as " + getFlag(record + i));
+			}
+		}
+		return paramGame;
+	}
+}
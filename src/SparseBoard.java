@@ -0,0 +1,320 @@
+import java.util.Arrays;
+
+/**
+ * Object class SparseBoard. A headless model of the battle grid, like Board, for grids far too large to hold one
+ * value per square (1000 * 1000 squares and up). Only squares that hold a ship or have been shot at are stored, in
+ * an open addressing hash table of primitive arrays: the key is the square's index y * numberOfSquares + x as a long,
+ * and the value is, as in Board, the owning ship's index plus one (0 for water), with the highest bit used as a
+ * "shot" flag. Memory grows with the number of ship squares and shots, not with the size of the grid.
+ *
+ * The table uses linear probing, is doubled when half full, and removes entries by shifting the following entries
+ * back, so no "deleted" markers are needed. Every method works on a fixed number of squares: checking if a ship can
+ * be placed looks up 3 * length + 2 squares.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class SparseBoard {
+
+	//	Constants
+	private final int FIRST_CAPACITY = 64;
+	private final long EMPTY_KEY = -1L;
+	private final int NO_SHIP = -1;
+	private final int SHIP_MASK = 0x7fffffff;
+	private final int SHOT_FLAG = 0x80000000;
+	private final int WATER = 0;
+
+	//	Fields
+	private int numberOfSquares;
+	private int numberOfStoredSquares;
+	private long[] keys;
+	private int[] values;
+
+	//	Constructor
+	/**
+	 * Creates an empty SparseBoard (only water, nothing shot at) of numberOfSquares * numberOfSquares squares.
+	 *
+	 * @param paramNumberOfSquares Number of squares along each side of the grid.
+	 */
+	public SparseBoard(int paramNumberOfSquares){
+		numberOfSquares = paramNumberOfSquares;
+		createTable(FIRST_CAPACITY);
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of squares along each side of the grid.
+	 *
+	 * @return Returns the number of squares along each side of the grid.
+	 */
+	public int getNumberOfSquares(){
+		return numberOfSquares;
+	}
+	/**
+	 * Returns the number of squares stored: those that hold a ship or have been shot at.
+	 *
+	 * @return Returns the number of stored squares.
+	 */
+	public int getNumberOfStoredSquares(){
+		return numberOfStoredSquares;
+	}
+	/**
+	 * Returns the number of bytes used by the hash table.
+	 *
+	 * @return Returns the size of the table in bytes.
+	 */
+	public long getTableBytes(){
+		return (long) keys.length * (Long.BYTES + Integer.BYTES);
+	}
+	/**
+	 * Returns the index of the square (x, y), which is its key in the hash table.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns the index of the square.
+	 */
+	public long getSquareIndex(int paramX, int paramY){
+		return (long) paramY * numberOfSquares + paramX;
+	}
+	/**
+	 * Returns true if a ship has been placed on the square (x, y).
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns true if the square has an owner ship.
+	 */
+	public boolean hasShip(int paramX, int paramY){
+		return (getValue(getSquareIndex(paramX, paramY)) & SHIP_MASK) != WATER;
+	}
+	/**
+	 * Returns the index of the ship placed on the square (x, y), or -1 if there is only water.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns the owner ship's index, or -1.
+	 */
+	public int getShipIndex(int paramX, int paramY){
+		int owner = getValue(getSquareIndex(paramX, paramY)) & SHIP_MASK;
+		return owner == WATER ? NO_SHIP : owner - 1;
+	}
+	/**
+	 * Returns true if the square (x, y) has been shot at.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns true if the square has been shot at.
+	 */
+	public boolean isShot(int paramX, int paramY){
+		return (getValue(getSquareIndex(paramX, paramY)) & SHOT_FLAG) != 0;
+	}
+	/**
+	 * Checks if a ship is OK to be placed at its thought location, by the same rule as Board.isShipPlacable(): the
+	 * ship has to fit within the grid, and none of its squares, nor any square directly above, below, left or right
+	 * of them, may already hold a ship. The squares along the ship's axis are checked from one before its start to one
+	 * after its end, then the two lines of squares beside it.
+	 *
+	 * @param paramX Start x-coordinate for ship placement
+	 * @param paramY Start y-coordinate for ship placement
+	 * @param paramShipLength Length of ship
+	 * @param paramXFactor Multiplication factor (0 or 1) to be multiplied with x-coordinate increment
+	 * @param paramYFactor Multiplication factor (0 or 1) to be multiplied with y-coordinate increment
+	 * @return Returns true if the ship can be placed.
+	 */
+	public boolean isShipPlacable(int paramX, int paramY, int paramShipLength, int paramXFactor, int paramYFactor){
+		int endX = paramX + (paramShipLength - 1)*paramXFactor;
+		int endY = paramY + (paramShipLength - 1)*paramYFactor;
+		if (paramX < 0 || paramY < 0 || endX >= numberOfSquares || endY >= numberOfSquares){
+			return false;
+		}
+		//	Along the axis, including one square before and one after.
+		for (int i = -1; i <= paramShipLength; i++){
+			int x = paramX + i*paramXFactor;
+			int y = paramY + i*paramYFactor;
+			if (x >= 0 && y >= 0 && x < numberOfSquares && y < numberOfSquares && hasShip(x, y)){
+				return false;
+			}
+		}
+		//	Beside the ship, on both sides.
+		for (int i = 0; i < paramShipLength; i++){
+			int x = paramX + i*paramXFactor;
+			int y = paramY + i*paramYFactor;
+			if ((x - paramYFactor >= 0 && y - paramXFactor >= 0 && hasShip(x - paramYFactor, y - paramXFactor))
+					|| (x + paramYFactor < numberOfSquares && y + paramXFactor < numberOfSquares
+							&& hasShip(x + paramYFactor, y + paramXFactor))){
+				return false;
+			}
+		}
+		return true;
+	}
+	/**
+	 * Returns the value stored for a square, or WATER if it is not stored.
+	 *
+	 * @param paramKey Index of the square.
+	 * @return Returns the square's value.
+	 */
+	private int getValue(long paramKey){
+		int slot = findSlot(paramKey);
+		return keys[slot] == paramKey ? values[slot] : WATER;
+	}
+	/**
+	 * Returns the slot holding a key, or the empty slot where it would be put.
+	 *
+	 * @param paramKey Index of the square.
+	 * @return Returns the slot.
+	 */
+	private int findSlot(long paramKey){
+		int mask = keys.length - 1;
+		int slot = getHomeSlot(paramKey, mask);
+		while (keys[slot] != EMPTY_KEY && keys[slot] != paramKey){
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	/**
+	 * Returns the slot a key is first looked for in. The key is scrambled first, since square indexes of a ship are
+	 * close together.
+	 *
+	 * @param paramKey Index of the square.
+	 * @param paramMask Table length minus one.
+	 * @return Returns the slot.
+	 */
+	private int getHomeSlot(long paramKey, int paramMask){
+		long hash = paramKey * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & paramMask;
+	}
+
+	//	Setters
+
+	/**
+	 * Places a ship on the SparseBoard by setting it as owner of each of its squares. Does not check if placement is
+	 * OK; use isShipPlacable() first.
+	 *
+	 * @param paramShipIndex Index of the ship to be placed.
+	 * @param paramX Start x-coordinate for ship placement
+	 * @param paramY Start y-coordinate for ship placement
+	 * @param paramShipLength Length of ship
+	 * @param paramXFactor 1 if ship is horizontal, else 0
+	 * @param paramYFactor 1 if ship is vertical, else 0
+	 */
+	public void placeShip(int paramShipIndex, int paramX, int paramY, int paramShipLength, int paramXFactor, int paramYFactor){
+		for (int i = 0; i < paramShipLength; i++){
+			setValue(getSquareIndex(paramX + i*paramXFactor, paramY + i*paramYFactor), paramShipIndex + 1);
+		}
+	}
+	/**
+	 * Removes a ship's trace from the SparseBoard, turning its squares back to unshot water.
+	 *
+	 * @param paramX Start x-coordinate of the ship
+	 * @param paramY Start y-coordinate of the ship
+	 * @param paramShipLength Length of ship
+	 * @param paramXFactor 1 if ship is horizontal, else 0
+	 * @param paramYFactor 1 if ship is vertical, else 0
+	 */
+	public void removeShip(int paramX, int paramY, int paramShipLength, int paramXFactor, int paramYFactor){
+		for (int i = 0; i < paramShipLength; i++){
+			setValue(getSquareIndex(paramX + i*paramXFactor, paramY + i*paramYFactor), WATER);
+		}
+	}
+	/**
+	 * Marks the square (x, y) as shot at, and returns the index of the ship that was hit, or -1 for a miss.
+	 *
+	 * @param paramX X-position.
+	 * @param paramY Y-position.
+	 * @return Returns the hit ship's index, or -1 if the shot missed.
+	 */
+	public int shoot(int paramX, int paramY){
+		long key = getSquareIndex(paramX, paramY);
+		int value = getValue(key) | SHOT_FLAG;
+		setValue(key, value);
+		int owner = value & SHIP_MASK;
+		return owner == WATER ? NO_SHIP : owner - 1;
+	}
+	/**
+	 * Resets the SparseBoard to only water with nothing shot at, and shrinks the table back to its first size.
+	 */
+	public void clear(){
+		createTable(FIRST_CAPACITY);
+	}
+	/**
+	 * Creates an empty table.
+	 *
+	 * @param paramCapacity Number of slots; a power of two.
+	 */
+	private void createTable(int paramCapacity){
+		keys = new long[paramCapacity];
+		values = new int[paramCapacity];
+		Arrays.fill(keys, EMPTY_KEY);
+		numberOfStoredSquares = 0;
+	}
+	/**
+	 * Stores a value for a square. Storing WATER (unshot water) removes the square from the table.
+	 *
+	 * @param paramKey Index of the square.
+	 * @param paramValue Value to store.
+	 */
+	private void setValue(long paramKey, int paramValue){
+		int slot = findSlot(paramKey);
+		if (paramValue == WATER){
+			if (keys[slot] == paramKey){
+				removeSlot(slot);
+			}
+			return;
+		}
+		if (keys[slot] != paramKey){
+			if (2 * (numberOfStoredSquares + 1) > keys.length){
+				growTable();
+				slot = findSlot(paramKey);
+			}
+			keys[slot] = paramKey;
+			numberOfStoredSquares++;
+		}
+		values[slot] = paramValue;
+	}
+	/**
+	 * Empties a slot, then moves back any following entries that would no longer be found past the empty slot.
+	 *
+	 * @param paramSlot Slot to empty.
+	 */
+	private void removeSlot(int paramSlot){
+		int mask = keys.length - 1;
+		int emptySlot = paramSlot;
+		int slot = paramSlot;
+		keys[emptySlot] = EMPTY_KEY;
+		numberOfStoredSquares--;
+		while (true){
+			slot = (slot + 1) & mask;
+			if (keys[slot] == EMPTY_KEY){
+				return;
+			}
+			int homeSlot = getHomeSlot(keys[slot], mask);
+			//	Move the entry back if its home slot is not between the empty slot and itself (cyclically).
+			boolean isBetween = emptySlot <= slot
+					? emptySlot < homeSlot && homeSlot <= slot
+					: emptySlot < homeSlot || homeSlot <= slot;
+			if (!isBetween){
+				keys[emptySlot] = keys[slot];
+				values[emptySlot] = values[slot];
+				keys[slot] = EMPTY_KEY;
+				emptySlot = slot;
+			}
+		}
+	}
+	/**
+	 * Doubles the table, putting every entry in its slot in the new table.
+	 */
+	private void growTable(){
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY_KEY);
+		for (int i = 0; i < oldKeys.length; i++){
+			if (oldKeys[i] != EMPTY_KEY){
+				int slot = findSlot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
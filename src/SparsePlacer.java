@@ -0,0 +1,112 @@
+import java.util.Random;
+
+/**
+ * Object class SparsePlacer. Places a fleet of ships on a SparseBoard, for grids too large for PlacementSolver,
+ * which keeps a list of every placement of every ship length. Each ship, largest first, is tried at random start
+ * squares and orientations until it fits; on a large grid with a sparse fleet that takes a few tries per ship. A ship
+ * that does not fit in MAX_NUMBER_OF_TRIES_PER_SHIP tries starts the whole placement over, up to MAX_NUMBER_OF_RESTARTS
+ * times.
+ *
+ * Unlike PlacementSolver, this is not an exact search: false only means that no placement was found, not that none
+ * exists.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class SparsePlacer {
+
+	//	Constants
+	private final int MAX_NUMBER_OF_RESTARTS = 100;
+	private final int MAX_NUMBER_OF_TRIES_PER_SHIP = 10000;
+
+	//	Fields
+	private long numberOfTries;
+	private int numberOfRestarts;
+	private Random random;
+
+	//	Constructor
+	/**
+	 * Creates a SparsePlacer.
+	 *
+	 * @param paramRandom Randomizer used for the placement.
+	 */
+	public SparsePlacer(Random paramRandom){
+		random = paramRandom;
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the number of placements tried by the last call to placeShips().
+	 *
+	 * @return Returns the number of tries.
+	 */
+	public long getNumberOfTries(){
+		return numberOfTries;
+	}
+	/**
+	 * Returns the number of times the last call to placeShips() started over.
+	 *
+	 * @return Returns the number of restarts.
+	 */
+	public int getNumberOfRestarts(){
+		return numberOfRestarts;
+	}
+
+	//	Setters
+
+	/**
+	 * Tries to place all ships on the (empty) SparseBoard. The ships should be sorted by length, largest first. On
+	 * success, each ship's start position and orientation is set, and the SparseBoard holds the ships with their
+	 * array index as ship index. On failure, the SparseBoard is left empty.
+	 *
+	 * @param paramBoard The SparseBoard to place ships on.
+	 * @param paramShips The ships to place, largest first.
+	 * @return Returns true if all ships were placed.
+	 */
+	public boolean placeShips(SparseBoard paramBoard, Ship[] paramShips){
+		numberOfTries = 0;
+		for (numberOfRestarts = 0; numberOfRestarts <= MAX_NUMBER_OF_RESTARTS; numberOfRestarts++){
+			if (tryPlacingShips(paramBoard, paramShips)){
+				return true;
+			}
+			paramBoard.clear();
+		}
+		numberOfRestarts--;
+		return false;
+	}
+	/**
+	 * Places the ships one by one, each at the first random placement that fits.
+	 *
+	 * @param paramBoard The (empty) SparseBoard to place ships on.
+	 * @param paramShips The ships to place, largest first.
+	 * @return Returns false if a ship did not fit in MAX_NUMBER_OF_TRIES_PER_SHIP tries.
+	 */
+	private boolean tryPlacingShips(SparseBoard paramBoard, Ship[] paramShips){
+		int numberOfSquares = paramBoard.getNumberOfSquares();
+		for (int i = 0; i < paramShips.length; i++){
+			int shipLength = paramShips[i].getShipLength();
+			if (shipLength > numberOfSquares){
+				return false;
+			}
+			boolean placed = false;
+			for (int tries = 0; tries < MAX_NUMBER_OF_TRIES_PER_SHIP && !placed; tries++){
+				numberOfTries++;
+				int xFactor = random.nextBoolean() ? 1 : 0;
+				int yFactor = 1 - xFactor;
+				int x = random.nextInt(numberOfSquares - (shipLength - 1)*xFactor);
+				int y = random.nextInt(numberOfSquares - (shipLength - 1)*yFactor);
+				if (paramBoard.isShipPlacable(x, y, shipLength, xFactor, yFactor)){
+					paramBoard.placeShip(i, x, y, shipLength, xFactor, yFactor);
+					paramShips[i].setStartPosition(x, y);
+					paramShips[i].setHorizontal(xFactor == 1);
+					placed = true;
+				}
+			}
+			if (!placed){
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,300 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Command-line program that compares shooting strategies, headless, by playing many games with each. Every game is a
+ * Game with its fleet placed by a PlacementSolver, the same way the game places ships, and is played until every
+ * ship is sunk; the program prints the distribution of the number of shots needed (mean and percentiles), and the
+ * number of games played per second.
+ *
+ * The strategies are:
+ * random, shooting at every square once in random order;
+ * parity, hunting on every other square in a checkerboard pattern (every ship longer than 1 covers one of them),
+ * then on the rest, and after a hit shooting at the squares around it until the ship is sunk;
+ * density, letting a ComputerShooter choose each square.
+ *
+ * The games are split over a ForkJoinPool with one thread per core (or as many as asked for). The range of games is
+ * split in halves until each part is at most GAMES_PER_TASK games, and each half gets its own SplittableRandom, split
+ * off the one before, so workers share no random state and a run with the same seed always plays the same games.
+ *
+ * GameMetrics is registered at start, so a long run can be watched over JMX or recorded with JFR.
+ *
+ * Usage: java StrategySimulation [games] [threads] [seed] [grid size] [fleet]
+ *
+ * The fleet is a fleet file, or the number of ships of each length from Game.MIN_SHIP_SIZE up (see Fleet).
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class StrategySimulation {
+
+	//	Constants
+	private static final int DEFAULT_NUMBER_OF_GAMES = 20000;
+	private static final int[] DEFAULT_GRID_SIZES = {10, 15, 20, 30};
+	private static final int GAMES_PER_TASK = 64;
+	private static final int RANDOM = 0;
+	private static final int PARITY = 1;
+	private static final int DENSITY = 2;
+	private static final String[] STRATEGY_NAMES = {"random", "parity", "density"};
+
+	//	Main
+	/**
+	 * Runs the simulation. Without a grid size, every size in DEFAULT_GRID_SIZES is played with the game's fleet.
+	 *
+	 * @param args Optional number of games per strategy, number of threads, seed, grid size and fleet.
+	 */
+	public static void main(String[] args){
+		int numberOfGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_GAMES;
+		int numberOfThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+		int[] gridSizes = DEFAULT_GRID_SIZES;
+		if (args.length > 3){
+			gridSizes = new int[] {Integer.parseInt(args[3])};
+		}
+		int[] shipNumbers;
+		try {
+			shipNumbers = Fleet.parseArguments(args, 4, Fleet.getDefaultShipNumbers());
+		}
+		catch (IOException e){
+			System.out.println("Could not read fleet: " + e.getMessage());
+			return;
+		}
+		System.out.println(numberOfGames + " games per strategy, " + numberOfThreads + " threads, seed " + seed
+				+ ", ships " + Fleet.getName(shipNumbers));
+		System.out.printf("%4s %-8s %8s %6s %6s %6s %6s %6s %6s %6s %6s %10s%n", "grid", "strategy", "mean",
+				"min", "p10", "p25", "p50", "p75", "p90", "p99", "max", "games/s");
+
+		GameMetrics.register();
+		ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+		try {
+			for (int gridSize : gridSizes){
+				if (Game.newGame(gridSize, shipNumbers, seed) == null){
+					System.out.printf("%4d ships can not be placed%n", gridSize);
+					continue;
+				}
+				for (int strategy = RANDOM; strategy <= DENSITY; strategy++){
+					long[] shots = new long[numberOfGames];
+					long start = System.nanoTime();
+					pool.invoke(new SimulationTask(strategy, gridSize, shipNumbers, shots, 0, numberOfGames,
+							new SplittableRandom(seed)));
+					long time = System.nanoTime() - start;
+					printResults(gridSize, STRATEGY_NAMES[strategy], shots, time);
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	//	Methods
+	/**
+	 * Prints one line for a grid size and strategy: mean and percentiles of shots to win, and games per second.
+	 *
+	 * @param paramGridSize Grid size.
+	 * @param paramName Name of the strategy.
+	 * @param paramShots Number of shots needed for each game; sorted by this method.
+	 * @param paramTime Time taken for all games, in nanoseconds.
+	 */
+	private static void printResults(int paramGridSize, String paramName, long[] paramShots, long paramTime){
+		Arrays.sort(paramShots);
+		long totalShots = 0;
+		for (int i = 0; i < paramShots.length; i++){
+			totalShots += paramShots[i];
+		}
+		System.out.printf("%4d %-8s %8.2f %6d %6d %6d %6d %6d %6d %6d %6d %10.0f%n", paramGridSize, paramName,
+				(double) totalShots / Math.max(1, paramShots.length), GameMetrics.getPercentile(paramShots, 0),
+				GameMetrics.getPercentile(paramShots, 10), GameMetrics.getPercentile(paramShots, 25),
+				GameMetrics.getPercentile(paramShots, 50), GameMetrics.getPercentile(paramShots, 75),
+				GameMetrics.getPercentile(paramShots, 90), GameMetrics.getPercentile(paramShots, 99),
+				GameMetrics.getPercentile(paramShots, 100), paramShots.length / Math.max(1e-9, paramTime / 1e9));
+	}
+	/**
+	 * Plays one game with the random strategy: every square once, in random order.
+	 *
+	 * @param paramGame The Game to play, with its fleet placed.
+	 * @param paramOrder Scratch array of numberOfSquares * numberOfSquares cells.
+	 * @param paramRandom Randomizer for the order.
+	 * @return Returns the number of shots needed to sink every ship.
+	 */
+	private static int playRandom(Game paramGame, int[] paramOrder, Random paramRandom){
+		int numberOfSquares = paramGame.getNumberOfSquares();
+		shuffleCells(paramOrder, paramOrder.length, paramRandom);
+		for (int i = 0; i < paramOrder.length && !paramGame.isOver(); i++){
+			paramGame.shoot(paramOrder[i] % numberOfSquares, paramOrder[i] / numberOfSquares);
+		}
+		return paramGame.getNumberOfShots();
+	}
+	/**
+	 * Plays one game with the parity strategy: hunting on the squares where x + y is even, in random order (then on
+	 * the rest, should a ship be left), and after each hit shooting at the squares around it until the ship sinks.
+	 *
+	 * @param paramGame The Game to play, with its fleet placed.
+	 * @param paramOrder Scratch array of numberOfSquares * numberOfSquares cells.
+	 * @param paramTargets Scratch array of at least 4 * numberOfSquares * numberOfSquares cells.
+	 * @param paramRandom Randomizer for the order.
+	 * @return Returns the number of shots needed to sink every ship.
+	 */
+	private static int playParity(Game paramGame, int[] paramOrder, int[] paramTargets, Random paramRandom){
+		int numberOfSquares = paramGame.getNumberOfSquares();
+		Board board = paramGame.getBoard();
+		//	Even squares first, then odd squares; each part in random order.
+		int numberOfEven = 0;
+		for (int cell = 0; cell < paramOrder.length; cell++){
+			if ((cell % numberOfSquares + cell / numberOfSquares) % 2 == 0){
+				paramOrder[numberOfEven] = cell;
+				numberOfEven++;
+			}
+		}
+		int numberOfCells = numberOfEven;
+		for (int cell = 0; cell < paramOrder.length; cell++){
+			if ((cell % numberOfSquares + cell / numberOfSquares) % 2 != 0){
+				paramOrder[numberOfCells] = cell;
+				numberOfCells++;
+			}
+		}
+		shuffleCells(paramOrder, numberOfEven, paramRandom);
+		int numberOfTargets = 0;
+		int next = 0;
+		while (!paramGame.isOver()){
+			int cell;
+			if (numberOfTargets > 0){
+				numberOfTargets--;
+				cell = paramTargets[numberOfTargets];
+			}
+			else {
+				cell = paramOrder[next];
+				next++;
+			}
+			int x = cell % numberOfSquares;
+			int y = cell / numberOfSquares;
+			if (board.isShot(x, y)){
+				continue;
+			}
+			int result = paramGame.shoot(x, y);
+			if (result == Game.HIT){
+				if (x > 0){
+					paramTargets[numberOfTargets++] = cell - 1;
+				}
+				if (x < numberOfSquares - 1){
+					paramTargets[numberOfTargets++] = cell + 1;
+				}
+				if (y > 0){
+					paramTargets[numberOfTargets++] = cell - numberOfSquares;
+				}
+				if (y < numberOfSquares - 1){
+					paramTargets[numberOfTargets++] = cell + numberOfSquares;
+				}
+			}
+			else if (result == Game.SUNK){
+				//	Ships never touch, so every square left to try belonged to the sunk ship.
+				numberOfTargets = 0;
+			}
+		}
+		return paramGame.getNumberOfShots();
+	}
+	/**
+	 * Plays one game with the density strategy: a ComputerShooter, reset for the game, chooses every square.
+	 *
+	 * @param paramGame The Game to play, with its fleet placed.
+	 * @param paramShooter The ComputerShooter, made for the Game's grid size and fleet.
+	 * @return Returns the number of shots needed to sink every ship.
+	 */
+	private static int playDensity(Game paramGame, ComputerShooter paramShooter){
+		paramShooter.reset(paramGame);
+		while (!paramGame.isOver()){
+			paramShooter.shoot(paramGame);
+		}
+		return paramGame.getNumberOfShots();
+	}
+	/**
+	 * Shuffles the first cells of an array (Fisher-Yates).
+	 *
+	 * @param paramCells Array of cells.
+	 * @param paramLength Number of cells to shuffle, from the start.
+	 * @param paramRandom Randomizer.
+	 */
+	private static void shuffleCells(int[] paramCells, int paramLength, Random paramRandom){
+		for (int i = paramLength - 1; i > 0; i--){
+			int j = paramRandom.nextInt(i + 1);
+			int cell = paramCells[i];
+			paramCells[i] = paramCells[j];
+			paramCells[j] = cell;
+		}
+	}
+
+	/**
+	 * Plays a range of games with one strategy, splitting the range in halves (each with a SplittableRandom of its
+	 * own) until it is small enough to play on one worker thread.
+	 *
+	 * @author Hannes Nyberg
+	 *
+	 */
+	private static class SimulationTask extends RecursiveAction {
+
+		//	Constants
+		private static final long serialVersionUID = 1L;
+
+		//	Fields
+		private int from;
+		private int gridSize;
+		private int strategy;
+		private int to;
+		private int[] shipNumbers;
+		private long[] shots;
+		private SplittableRandom splittableRandom;
+
+		//	Constructor
+		private SimulationTask(int paramStrategy, int paramGridSize, int[] paramShipNumbers, long[] paramShots,
+				int paramFrom, int paramTo, SplittableRandom paramRandom){
+			strategy = paramStrategy;
+			gridSize = paramGridSize;
+			shipNumbers = paramShipNumbers;
+			shots = paramShots;
+			from = paramFrom;
+			to = paramTo;
+			splittableRandom = paramRandom;
+		}
+
+		//	Worker thread
+		protected void compute(){
+			if (to - from > GAMES_PER_TASK){
+				int middle = (from + to) >>> 1;
+				SimulationTask firstHalf = new SimulationTask(strategy, gridSize, shipNumbers, shots, from, middle,
+						splittableRandom.split());
+				SimulationTask secondHalf = new SimulationTask(strategy, gridSize, shipNumbers, shots, middle, to,
+						splittableRandom);
+				invokeAll(firstHalf, secondHalf);
+				return;
+			}
+			//	One Game, scratch arrays and ComputerShooter, for the whole range.
+			Random random = new Random(splittableRandom.nextLong());
+			Game game = Game.newGame(gridSize, shipNumbers, random.nextLong());
+			ComputerShooter shooter = strategy == DENSITY ? new ComputerShooter(gridSize, shipNumbers, random) : null;
+			int numberOfCells = gridSize * gridSize;
+			int[] order = new int[numberOfCells];
+			int[] targets = new int[4 * numberOfCells];
+			for (int cell = 0; cell < numberOfCells; cell++){
+				order[cell] = cell;
+			}
+			for (int i = from; i < to; i++){
+				if (i > from){
+					game.reset(random.nextLong());
+				}
+				if (strategy == RANDOM){
+					shots[i] = playRandom(game, order, random);
+				}
+				else if (strategy == PARITY){
+					shots[i] = playParity(game, order, targets, random);
+				}
+				else {
+					shots[i] = playDensity(game, shooter);
+				}
+			}
+		}
+	}
+}
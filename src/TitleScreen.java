@@ -0,0 +1,132 @@
+import java.awt.Color;
+
+/**
+ * Class TitleScreen. Paints the welcome picture, the word BATTLESHIPS around a skull, on a grid of SIZE * SIZE
+ * squares.
+ *
+ * Each letter is a 3 * 5 glyph, kept as one 15-bit mask, read row by row from the top left (highest) bit, so the
+ * masks below, written in binary with a '_' between rows, look like the letters lying down. The skull is too large
+ * for one mask, so it is kept as one 13-bit mask per row, plus a second set of rows for its red eyes. All of it is
+ * drawn once into a frame of one byte per square, which is kept; painting the title is then one pass over the frame.
+ *
+ * @author Hannes Nyberg
+ *
+ */
+public class TitleScreen {
+
+	//	Constants
+	public static final int SIZE = 29;
+	private static final byte WATER = 0;
+	private static final byte TEXT = 1;
+	private static final byte EYE = 2;
+	private static final int GLYPH_WIDTH = 3;
+	private static final int GLYPH_HEIGHT = 5;
+	private static final String GLYPH_LETTERS = "ABEHILPST";
+	private static final int[] GLYPHS = {
+			0b010_101_111_101_101,	//	A
+			0b110_101_110_101_110,	//	B
+			0b111_100_111_100_111,	//	E
+			0b101_101_111_101_101,	//	H
+			0b010_010_010_010_010,	//	I
+			0b100_100_100_100_111,	//	L
+			0b110_101_110_100_100,	//	P
+			0b011_100_010_001_110,	//	S
+			0b111_010_010_010_010};	//	T
+	private static final String TITLE_TEXT = "BATTLESHIPS";
+	private static final int[] TITLE_X = {3, 7, 11, 15, 19, 23, 5, 9, 13, 17, 21};
+	private static final int[] TITLE_Y = {5, 2, 1, 1, 2, 5, 23, 24, 24, 24, 23};
+	private static final int SKULL_WIDTH = 13;
+	private static final int SKULL_X = 8;
+	private static final int SKULL_Y = 7;
+	private static final int[] SKULL = {
+			0b0000111110000,
+			0b0001000001000,
+			0b0010000000100,
+			0b0010000000100,
+			0b0010000000100,
+			0b0010000000100,
+			0b0001100011000,
+			0b0000010100000,
+			0b0100011100010,
+			0b0110000000110,
+			0b1001100011001,
+			0b0000011100000,
+			0b1001100011001,
+			0b0110000000110,
+			0b0100000000010};
+	private static final int[] SKULL_EYES = {
+			0b0000000000000,
+			0b0000000000000,
+			0b0000000000000,
+			0b0000010100000,
+			0b0000010100000};
+
+	//	Fields
+	private static byte[] frame;
+
+	//	Constructor
+	private TitleScreen(){
+	}
+
+	//	Getters
+
+	/**
+	 * Returns the title frame: one byte per square, row by row, that is WATER, TEXT or EYE. It is drawn the first
+	 * time, then kept.
+	 *
+	 * @return Returns the title frame.
+	 */
+	private static synchronized byte[] getFrame(){
+		if (frame == null){
+			byte[] newFrame = new byte[SIZE * SIZE];
+			int glyphBits = GLYPH_WIDTH * GLYPH_HEIGHT;
+			for (int i = 0; i < TITLE_TEXT.length(); i++){
+				int glyph = GLYPHS[GLYPH_LETTERS.indexOf(TITLE_TEXT.charAt(i))];
+				for (int bit = 0; bit < glyphBits; bit++){
+					if ((glyph & (1 << (glyphBits - 1 - bit))) != 0){
+						newFrame[(TITLE_Y[i] + bit / GLYPH_WIDTH) * SIZE + TITLE_X[i] + bit % GLYPH_WIDTH] = TEXT;
+					}
+				}
+			}
+			drawRows(newFrame, SKULL, TEXT);
+			drawRows(newFrame, SKULL_EYES, EYE);
+			frame = newFrame;
+		}
+		return frame;
+	}
+	/**
+	 * Draws rows of the skull into a frame.
+	 *
+	 * @param paramFrame Frame to draw into.
+	 * @param paramRows One mask per row, with the leftmost square as highest bit.
+	 * @param paramValue Value to set the squares to.
+	 */
+	private static void drawRows(byte[] paramFrame, int[] paramRows, byte paramValue){
+		for (int row = 0; row < paramRows.length; row++){
+			for (int column = 0; column < SKULL_WIDTH; column++){
+				if ((paramRows[row] & (1 << (SKULL_WIDTH - 1 - column))) != 0){
+					paramFrame[(SKULL_Y + row) * SIZE + SKULL_X + column] = paramValue;
+				}
+			}
+		}
+	}
+
+	//	Setters
+
+	/**
+	 * Paints the title on a grid view that has just been laid out with SIZE * SIZE squares of water.
+	 *
+	 * @param paramGridView View that shows the grid.
+	 */
+	public static void paint(GridView paramGridView){
+		byte[] titleFrame = getFrame();
+		for (int i = 0; i < titleFrame.length; i++){
+			if (titleFrame[i] == TEXT){
+				paramGridView.setBackgroundToTextColor(i % SIZE, i / SIZE);
+			}
+			else if (titleFrame[i] == EYE){
+				paramGridView.setCellBackground(i % SIZE, i / SIZE, Color.RED);
+			}
+		}
+	}
+}